@@ -0,0 +1,101 @@
+package test.bankcardmanagement.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Отставание реплики по строке replication_heartbeat: раз в heartbeat-interval-ms в основную БД пишется
+// текущее время, а из реплики читается последнее дошедшее до нее значение. Отставание не меньше реального
+// и не больше реального плюс интервал, поэтому max-lag-ms должен быть заметно больше интервала.
+// Пока реплика не проверена или недоступна, она считается непригодной.
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor implements SmartLifecycle {
+
+    private static final String BEAT = "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1";
+    private static final String LAST_BEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+    private static final long UNAVAILABLE = -1;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long heartbeatIntervalMs;
+    private final MeterRegistry meterRegistry;
+
+    private volatile long lagMs = UNAVAILABLE;
+    private ScheduledExecutorService timer;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMs == UNAVAILABLE ? Double.NaN : monitor.lagMs)
+                .description("Replica lag measured by the replication heartbeat, NaN while the replica is unavailable")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        check();
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::check, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        timer.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isReplicaUsable() {
+        long lag = lagMs;
+        return lag != UNAVAILABLE && lag <= maxLagMs;
+    }
+
+    // Реплика не выдала соединение - до следующей успешной проверки чтение идет в основную БД
+    public void markUnavailable() {
+        lagMs = UNAVAILABLE;
+    }
+
+    public void check() {
+        boolean wasUsable = isReplicaUsable();
+        try {
+            primary.update(BEAT, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            log.warn("Failed to write replication heartbeat: {}", e.getMessage());
+        }
+        try {
+            Timestamp lastBeat = replica.queryForObject(LAST_BEAT, Timestamp.class);
+            lagMs = lastBeat == null ? UNAVAILABLE
+                    : Math.max(0, Duration.between(lastBeat.toLocalDateTime(), LocalDateTime.now()).toMillis());
+        } catch (DataAccessException e) {
+            lagMs = UNAVAILABLE;
+            log.debug("Replica heartbeat is not readable: {}", e.getMessage());
+        }
+
+        boolean usable = isReplicaUsable();
+        if (usable && !wasUsable) {
+            log.info("Read-only transactions routed to replica, lag {} ms", lagMs);
+        } else if (!usable && wasUsable) {
+            log.warn("Read-only transactions routed to primary, replica lag {} ms exceeds {} ms or replica is unavailable",
+                    lagMs, maxLagMs);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package test.bankcardmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+// Соединение для транзакции readOnly берется из реплики, для остальных - из основной БД. Флаг readOnly
+// выставляется уже после начала транзакции, поэтому источник оборачивается в LazyConnectionDataSourceProxy:
+// настоящее соединение запрашивается при первом запросе транзакции.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter lagFallbacks;
+    private final Counter errorFallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.primaryConnections = routed(meterRegistry, "primary");
+        this.replicaConnections = routed(meterRegistry, "replica");
+        this.lagFallbacks = fallback(meterRegistry, "lag");
+        this.errorFallbacks = fallback(meterRegistry, "error");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return fromPrimary();
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            lagFallbacks.increment();
+            return fromPrimary();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaConnections.increment();
+            return connection;
+        } catch (SQLException e) {
+            log.warn("Replica connection failed, falling back to primary: {}", e.getMessage());
+            lagMonitor.markUnavailable();
+            errorFallbacks.increment();
+            return fromPrimary();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Routing data source uses the credentials of its pools");
+    }
+
+    private Connection fromPrimary() throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write routing data source")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static Counter fallback(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("datasource.replica.fallbacks")
+                .description("Read-only transactions sent to primary instead of the replica")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
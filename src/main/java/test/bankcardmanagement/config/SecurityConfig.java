@@ -1,5 +1,7 @@
 package test.bankcardmanagement.config;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +18,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import test.bankcardmanagement.security.jwt.JwtAuthenticationFilter;
+import test.bankcardmanagement.security.throttling.BulkheadFilter;
+import test.bankcardmanagement.security.throttling.RateLimitFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -24,6 +28,8 @@ import test.bankcardmanagement.security.jwt.JwtAuthenticationFilter;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final BulkheadFilter bulkheadFilter;
     private final UserDetailsService userDetailsService;
 
     @Bean
@@ -31,7 +37,12 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Запрос уже авторизован при первом проходе; повторный async-диспатч
+                        // потоковых ответов идет без JWT-фильтра
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Actuator слушает отдельный management.server.port, доступный только изнутри сети
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -39,7 +50,10 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Лимиты считаются по уже известному пользователю; отклоненный по частоте запрос не занимает место в группе
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(bulkheadFilter, RateLimitFilter.class);
 
         return http.build();
     }
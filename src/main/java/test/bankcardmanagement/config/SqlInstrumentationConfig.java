@@ -0,0 +1,53 @@
+package test.bankcardmanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import test.bankcardmanagement.monitoring.SqlStatementCountingFilter;
+import test.bankcardmanagement.monitoring.SqlStatementListener;
+
+import javax.sql.DataSource;
+
+// Прокси datasource-proxy над основным DataSource (бином dataSource; в режиме реплики - над маршрутизатором,
+// поэтому учитываются оба пула). Пулы под прокси остаются доступны через unwrap, метрики hikaricp.* не меняются.
+@Configuration
+@ConditionalOnProperty(name = "app.sql.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Реестр берется через ObjectProvider только в момент обертки DataSource: прямое внедрение в статический
+    // BeanPostProcessor создало бы реестр раньше постпроцессоров, которые его настраивают
+    @Bean
+    public static BeanPostProcessor sqlInstrumentationPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.sql.slow-statement-ms:500}") long slowStatementMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(new SqlStatementListener(meterRegistry.getObject(), slowStatementMs))
+                        .build();
+            }
+        };
+    }
+
+    // Раньше цепочки Spring Security, чтобы учесть и загрузку пользователя по JWT
+    @Bean
+    public FilterRegistrationBean<SqlStatementCountingFilter> sqlStatementCountingFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlStatementCountingFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatementCountingFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
@@ -0,0 +1,20 @@
+package test.bankcardmanagement.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// CBOR рядом с JSON: клиент выбирает формат заголовками Accept / Content-Type (application/cbor).
+// Те же DTO и настройки Jackson (spring.jackson.*), что у JSON, но числа и длины полей пишутся в двоичном виде.
+// Контроллеры карт и переводов объявляют оба типа в produces, поэтому /v3/api-docs описывает оба формата схемами DTO
+@Configuration
+public class WireFormatConfig {
+
+    // Builder из Spring Boot - prototype, фабрика меняется только у этого ObjectMapper
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
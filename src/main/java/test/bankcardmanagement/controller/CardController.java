@@ -8,6 +8,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -17,7 +18,7 @@ import test.bankcardmanagement.entity.BankCard;
 import test.bankcardmanagement.service.CardService;
 
 @RestController
-@RequestMapping("/api/cards")
+@RequestMapping(value = "/api/cards", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @RequiredArgsConstructor
 @Tag(name = "Cards", description = "Bank Card Management APIs")
 @SecurityRequirement(name = "bearerAuth")
@@ -61,6 +62,15 @@ public class CardController {
         return ResponseEntity.ok(cardService.updateCardStatus(id, status));
     }
 
+    @PatchMapping("/{id}/balance-shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Split incoming credits of a hot card across balance shards (Admin only)")
+    public ResponseEntity<CardResponse> updateBalanceShards(
+            @PathVariable Long id,
+            @RequestParam int count) {
+        return ResponseEntity.ok(cardService.updateBalanceShards(id, count));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete card (Admin only)")
@@ -0,0 +1,37 @@
+package test.bankcardmanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import test.bankcardmanagement.dto.response.BalanceCheckResponse;
+import test.bankcardmanagement.service.accounting.BalanceRebuildService;
+
+@RestController
+@RequestMapping("/api/admin/ledger")
+@RequiredArgsConstructor
+@Tag(name = "Ledger", description = "Admin ledger consistency APIs")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class LedgerController {
+
+    private final BalanceRebuildService balanceRebuildService;
+
+    @GetMapping("/verify")
+    @Operation(summary = "Compare card balances with the sum of ledger entries")
+    public ResponseEntity<BalanceCheckResponse> verify() {
+        return ResponseEntity.ok(balanceRebuildService.verify());
+    }
+
+    @PostMapping("/rebuild")
+    @Operation(summary = "Recompute card balances from ledger entries")
+    public ResponseEntity<BalanceCheckResponse> rebuild() {
+        return ResponseEntity.ok(balanceRebuildService.rebuild());
+    }
+}
@@ -0,0 +1,61 @@
+package test.bankcardmanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import test.bankcardmanagement.dto.response.ReconciliationMismatchResponse;
+import test.bankcardmanagement.dto.response.ReconciliationRunResponse;
+import test.bankcardmanagement.service.accounting.ReconciliationService;
+
+@RestController
+@RequestMapping("/api/admin/reconciliation/runs")
+@RequiredArgsConstructor
+@Tag(name = "Reconciliation", description = "Admin balance reconciliation APIs")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    @PostMapping
+    @Operation(summary = "Start reconciling card balances with completed transactions")
+    public ResponseEntity<ReconciliationRunResponse> start(
+            @RequestParam(required = false) Integer maxRangesPerSecond) {
+        return ResponseEntity.ok(reconciliationService.start(maxRangesPerSecond));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get reconciliation run progress")
+    public ResponseEntity<ReconciliationRunResponse> getRun(@PathVariable Long id) {
+        return ResponseEntity.ok(reconciliationService.getRun(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "Resume an interrupted reconciliation run from its checkpoints")
+    public ResponseEntity<ReconciliationRunResponse> resume(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer maxRangesPerSecond) {
+        return ResponseEntity.ok(reconciliationService.resume(id, maxRangesPerSecond));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Stop a running reconciliation run")
+    public ResponseEntity<ReconciliationRunResponse> cancel(@PathVariable Long id) {
+        return ResponseEntity.ok(reconciliationService.cancel(id));
+    }
+
+    @GetMapping("/{id}/mismatches")
+    @Operation(summary = "Get balance mismatches found by a reconciliation run")
+    public ResponseEntity<Page<ReconciliationMismatchResponse>> getMismatches(
+            @PathVariable Long id,
+            @PageableDefault(size = 50, sort = "cardId") Pageable pageable) {
+        return ResponseEntity.ok(reconciliationService.getMismatches(id, pageable));
+    }
+}
@@ -0,0 +1,47 @@
+package test.bankcardmanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import test.bankcardmanagement.dto.request.RecurringTransferRequest;
+import test.bankcardmanagement.dto.response.RecurringTransferResponse;
+import test.bankcardmanagement.service.recurring.RecurringTransferService;
+
+@RestController
+@RequestMapping(value = "/api/transfers/recurring", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@RequiredArgsConstructor
+@Tag(name = "Recurring Transfers", description = "Standing order APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class RecurringTransferController {
+
+    private final RecurringTransferService recurringTransferService;
+
+    @PostMapping
+    @Operation(summary = "Create a recurring transfer between own cards")
+    public ResponseEntity<RecurringTransferResponse> createRecurringTransfer(
+            @Valid @RequestBody RecurringTransferRequest request) {
+        return ResponseEntity.ok(recurringTransferService.createRecurringTransfer(request));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get current user's recurring transfers")
+    public ResponseEntity<Page<RecurringTransferResponse>> getMyRecurringTransfers(
+            @PageableDefault(size = 10, sort = "nextRunAt") Pageable pageable) {
+        return ResponseEntity.ok(recurringTransferService.getMyRecurringTransfers(pageable));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel a recurring transfer")
+    public ResponseEntity<Void> cancelRecurringTransfer(@PathVariable Long id) {
+        recurringTransferService.cancelRecurringTransfer(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,74 @@
+package test.bankcardmanagement.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import test.bankcardmanagement.dto.request.TransactionExportRequest;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.service.TransactionExportService;
+import test.bankcardmanagement.service.TransactionService;
+
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@Tag(name = "Transactions", description = "Transaction History APIs")
+@SecurityRequirement(name = "bearerAuth")
+public class TransactionController {
+
+    private final TransactionService transactionService;
+    private final TransactionExportService exportService;
+
+    @GetMapping("/my")
+    @Operation(summary = "Get own transaction history with cursor pagination")
+    public ResponseEntity<CursorPageResponse<TransactionResponse>> getMyTransactions(
+            @Valid @ParameterObject TransactionHistoryRequest request) {
+        return ResponseEntity.ok(transactionService.getMyTransactions(request));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream own transactions as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportMyTransactions(
+            @Valid @ParameterObject TransactionExportRequest request) {
+        return streamExport(exportService.prepareMyExport(request));
+    }
+
+    @GetMapping("/export/all")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream transactions of the whole bank, a user or a card (Admin only)")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Valid @ParameterObject TransactionExportRequest request) {
+        return streamExport(exportService.prepareExport(request));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamExport(TransactionExportService.Export export) {
+        MediaType contentType;
+        if (export.request().isGzip()) {
+            contentType = new MediaType("application", "gzip");
+        } else if (export.request().getFormat() == TransactionExportRequest.ExportFormat.NDJSON) {
+            contentType = MediaType.APPLICATION_NDJSON;
+        } else {
+            contentType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        }
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(export.fileName()).build().toString())
+                .body(out -> exportService.write(export, out));
+    }
+}
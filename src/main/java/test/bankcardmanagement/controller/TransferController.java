@@ -5,14 +5,15 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import test.bankcardmanagement.dto.request.TransferRequest;
-import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.dto.response.TransactionResponse;
 import test.bankcardmanagement.service.TransferService;
 
 @RestController
-@RequestMapping("/api/transfers")
+@RequestMapping(value = "/api/transfers", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 @RequiredArgsConstructor
 @Tag(name = "Transfers", description = "Money Transfer APIs")
 @SecurityRequirement(name = "bearerAuth")
@@ -22,7 +23,7 @@ public class TransferController {
 
     @PostMapping("/own")
     @Operation(summary = "Transfer between own cards")
-    public ResponseEntity<Transaction> transferBetweenOwnCards(
+    public ResponseEntity<TransactionResponse> transferBetweenOwnCards(
             @Valid @RequestBody TransferRequest request) {
         return ResponseEntity.ok(transferService.transferBetweenOwnCards(request));
     }
@@ -5,14 +5,22 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import test.bankcardmanagement.dto.request.UserCreateRequest;
-import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.dto.request.UserListRequest;
+import test.bankcardmanagement.dto.request.UserSearchRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.UserImportJobResponse;
+import test.bankcardmanagement.dto.response.UserResponse;
+import test.bankcardmanagement.dto.response.UserSummaryResponse;
 import test.bankcardmanagement.service.UserService;
+import test.bankcardmanagement.service.provisioning.UserProvisioningService;
 
-import java.util.List;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/admin/users")
@@ -23,28 +31,51 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserProvisioningService provisioningService;
 
     @GetMapping
-    @Operation(summary = "Get all users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.getAllUsers());
+    @Operation(summary = "Get users with cursor pagination and optional role, enabled and username prefix filters")
+    public ResponseEntity<CursorPageResponse<UserSummaryResponse>> getUsers(
+            @Valid @ParameterObject UserListRequest request) {
+        return ResponseEntity.ok(userService.getUsers(request));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search users by case-insensitive username or email prefix")
+    public ResponseEntity<CursorPageResponse<UserSummaryResponse>> searchUsers(
+            @Valid @ParameterObject UserSearchRequest request) {
+        return ResponseEntity.ok(userService.searchUsers(request));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Create users from an NDJSON stream, or resume an interrupted import of the same file")
+    public ResponseEntity<UserImportJobResponse> importUsers(
+            InputStream body,
+            @RequestParam(required = false) Long resumeJobId) {
+        return ResponseEntity.ok(provisioningService.importUsers(body, resumeJobId));
+    }
+
+    @GetMapping("/bulk/{jobId}")
+    @Operation(summary = "Get bulk user import progress")
+    public ResponseEntity<UserImportJobResponse> getImportJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(provisioningService.getJob(jobId));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getUserById(id));
     }
 
     @PostMapping
     @Operation(summary = "Create new user")
-    public ResponseEntity<User> createUser(@Valid @RequestBody UserCreateRequest request) {
+    public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserCreateRequest request) {
         return ResponseEntity.ok(userService.createUser(request));
     }
 
     @PutMapping("/{id}")
     @Operation(summary = "Update user")
-    public ResponseEntity<User> updateUser(
+    public ResponseEntity<UserResponse> updateUser(
             @PathVariable Long id,
             @Valid @RequestBody UserCreateRequest request) {
         return ResponseEntity.ok(userService.updateUser(id, request));
@@ -0,0 +1,40 @@
+package test.bankcardmanagement.dto.request;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.RecurringTransfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringTransferRequest {
+
+    @NotBlank(message = "From card number is required")
+    @Pattern(regexp = "^\\d{16}$", message = "From card number must be 16 digits")
+    private String fromCardNumber;
+
+    @NotBlank(message = "To card number is required")
+    @Pattern(regexp = "^\\d{16}$", message = "To card number must be 16 digits")
+    private String toCardNumber;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @DecimalMax(value = "100000.0", message = "Amount cannot exceed 100,000")
+    private BigDecimal amount;
+
+    @Size(max = 255, message = "Description cannot exceed 255 characters")
+    private String description;
+
+    @NotNull(message = "Frequency is required")
+    private RecurringTransfer.Frequency frequency;
+
+    // Первый запуск; по умолчанию - сразу
+    private LocalDateTime firstRunAt;
+}
@@ -0,0 +1,41 @@
+package test.bankcardmanagement.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionExportRequest {
+
+    // Учитывается только в выгрузке администратора
+    @Positive(message = "User ID must be positive")
+    private Long userId;
+
+    @Positive(message = "Card ID must be positive")
+    private Long cardId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @Builder.Default
+    @NotNull(message = "Export format is required")
+    private ExportFormat format = ExportFormat.CSV;
+
+    private boolean gzip;
+
+    public enum ExportFormat {
+        CSV, NDJSON
+    }
+}
@@ -0,0 +1,43 @@
+package test.bankcardmanagement.dto.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionHistoryRequest {
+
+    @Positive(message = "Card ID must be positive")
+    private Long cardId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @DecimalMin(value = "0.0", message = "Minimum amount cannot be negative")
+    private BigDecimal minAmount;
+
+    @DecimalMin(value = "0.0", message = "Maximum amount cannot be negative")
+    private BigDecimal maxAmount;
+
+    private String cursor;
+
+    @Builder.Default
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 100, message = "Page size cannot exceed 100")
+    private int size = 20;
+}
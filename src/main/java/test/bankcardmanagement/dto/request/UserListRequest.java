@@ -0,0 +1,31 @@
+package test.bankcardmanagement.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.Role;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserListRequest {
+
+    private Role role;
+
+    private Boolean enabled;
+
+    @Size(min = 1, max = 50, message = "Username prefix must be between 1 and 50 characters")
+    private String usernamePrefix;
+
+    private String cursor;
+
+    @Builder.Default
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 100, message = "Page size cannot exceed 100")
+    private int size = 20;
+}
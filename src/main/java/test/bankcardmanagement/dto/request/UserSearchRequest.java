@@ -0,0 +1,38 @@
+package test.bankcardmanagement.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchRequest {
+
+    // Начало username или email, без учета регистра
+    @NotBlank(message = "Search query is required")
+    @Size(max = 100, message = "Search query cannot exceed 100 characters")
+    private String q;
+
+    @Builder.Default
+    @NotNull(message = "Search field is required")
+    private SearchField field = SearchField.USERNAME;
+
+    private String cursor;
+
+    @Builder.Default
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 50, message = "Page size cannot exceed 50")
+    private int size = 20;
+
+    public enum SearchField {
+        USERNAME, EMAIL
+    }
+}
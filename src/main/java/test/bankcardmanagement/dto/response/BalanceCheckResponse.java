@@ -0,0 +1,20 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceCheckResponse {
+
+    private int chunks;
+    // true, если найденные расхождения исправлены (rebuild), false - только проверка (verify)
+    private boolean corrected;
+    private List<BalanceMismatchResponse> mismatches;
+}
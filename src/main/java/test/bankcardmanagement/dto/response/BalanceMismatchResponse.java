@@ -0,0 +1,19 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceMismatchResponse {
+
+    private Long cardId;
+    private BigDecimal balance;
+    private BigDecimal ledgerBalance;
+}
@@ -33,7 +33,7 @@ public class CardResponse {
                 .cardHolderName(card.getCardHolderName())
                 .expirationDate(card.getExpirationDate())
                 .status(card.getStatus())
-                .balance(card.getBalance())
+                .balance(card.getTotalBalance())
                 .createdAt(card.getCreatedAt())
                 .updatedAt(card.getUpdatedAt())
                 .userId(card.getUser().getId())
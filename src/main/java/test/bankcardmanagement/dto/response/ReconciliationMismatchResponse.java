@@ -0,0 +1,31 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.ReconciliationMismatch;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationMismatchResponse {
+
+    private Long cardId;
+    private BigDecimal balance;
+    private BigDecimal expectedBalance;
+    private LocalDateTime detectedAt;
+
+    public static ReconciliationMismatchResponse fromEntity(ReconciliationMismatch mismatch) {
+        return ReconciliationMismatchResponse.builder()
+                .cardId(mismatch.getCardId())
+                .balance(mismatch.getBalance())
+                .expectedBalance(mismatch.getExpectedBalance())
+                .detectedAt(mismatch.getDetectedAt())
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.ReconciliationRun;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRunResponse {
+
+    private Long id;
+    private ReconciliationRun.Status status;
+    private int rangesTotal;
+    private int rangesDone;
+    // Доля обработанных диапазонов, 0..100
+    private double progressPercent;
+    private long cardsChecked;
+    private long mismatchCount;
+    // Карт в секунду с начала запуска
+    private double cardsPerSecond;
+    private int maxRangesPerSecond;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static ReconciliationRunResponse fromEntity(ReconciliationRun run) {
+        LocalDateTime end = run.getFinishedAt() != null ? run.getFinishedAt() : LocalDateTime.now();
+        long elapsedMs = Math.max(1, Duration.between(run.getStartedAt(), end).toMillis());
+        return ReconciliationRunResponse.builder()
+                .id(run.getId())
+                .status(run.getStatus())
+                .rangesTotal(run.getRangesTotal())
+                .rangesDone(run.getRangesDone())
+                .progressPercent(run.getRangesTotal() == 0 ? 100.0 : 100.0 * run.getRangesDone() / run.getRangesTotal())
+                .cardsChecked(run.getCardsChecked())
+                .mismatchCount(run.getMismatchCount())
+                .cardsPerSecond(run.getCardsChecked() * 1000.0 / elapsedMs)
+                .maxRangesPerSecond(run.getMaxRangesPerSecond())
+                .error(run.getError())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.RecurringTransfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringTransferResponse {
+
+    private Long id;
+    private String fromCardMasked;
+    private String toCardMasked;
+    private BigDecimal amount;
+    private String description;
+    private RecurringTransfer.Frequency frequency;
+    private LocalDateTime nextRunAt;
+    private LocalDateTime lastRunAt;
+    private int failureCount;
+    private String lastError;
+    private RecurringTransfer.Status status;
+
+    public static RecurringTransferResponse fromEntity(RecurringTransfer recurringTransfer) {
+        return RecurringTransferResponse.builder()
+                .id(recurringTransfer.getId())
+                .fromCardMasked("**** **** **** " +
+                        recurringTransfer.getFromCard().getLastFourDigits())
+                .toCardMasked("**** **** **** " +
+                        recurringTransfer.getToCard().getLastFourDigits())
+                .amount(recurringTransfer.getAmount())
+                .description(recurringTransfer.getDescription())
+                .frequency(recurringTransfer.getFrequency())
+                .nextRunAt(recurringTransfer.getNextRunAt())
+                .lastRunAt(recurringTransfer.getLastRunAt())
+                .failureCount(recurringTransfer.getFailureCount())
+                .lastError(recurringTransfer.getLastError())
+                .status(recurringTransfer.getStatus())
+                .build();
+    }
+}
@@ -25,7 +25,7 @@ public class TransactionResponse {
 
     public static TransactionResponse fromEntity(Transaction transaction) {
         return TransactionResponse.builder()
-                .transactionId(transaction.getTransactionId())
+                .transactionId(transaction.getTransactionId().toString())
                 .fromCardMasked("**** **** **** " +
                         transaction.getFromCard().getLastFourDigits())
                 .toCardMasked("**** **** **** " +
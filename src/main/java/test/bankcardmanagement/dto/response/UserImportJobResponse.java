@@ -0,0 +1,46 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.UserImportJob;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportJobResponse {
+
+    private Long id;
+    private UserImportJob.Status status;
+    private long linesCommitted;
+    private long created;
+    private long skipped;
+    private long rejected;
+    // Строк в секунду с начала загрузки
+    private double linesPerSecond;
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static UserImportJobResponse fromEntity(UserImportJob job) {
+        LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+        long elapsedMs = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+        return UserImportJobResponse.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .linesCommitted(job.getLinesCommitted())
+                .created(job.getCreated())
+                .skipped(job.getSkipped())
+                .rejected(job.getRejected())
+                .linesPerSecond(job.getLinesCommitted() * 1000.0 / elapsedMs)
+                .error(job.getError())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package test.bankcardmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.repository.UserRepositoryCustom;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryResponse {
+
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private Role role;
+    private boolean enabled;
+    private long cardCount;
+
+    public static UserSummaryResponse fromSummary(UserRepositoryCustom.UserSummary summary) {
+        return UserSummaryResponse.builder()
+                .id(summary.id())
+                .username(summary.username())
+                .email(summary.email())
+                .firstName(summary.firstName())
+                .lastName(summary.lastName())
+                .role(summary.role())
+                .enabled(summary.enabled())
+                .cardCount(summary.cardCount())
+                .build();
+    }
+}
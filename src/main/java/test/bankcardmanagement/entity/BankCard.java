@@ -6,13 +6,22 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bank_cards")
+@Table(name = "bank_cards", indexes = {
+        @Index(name = "idx_bank_cards_user_created", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_bank_cards_user_status_created", columnList = "user_id, status, created_at, id"),
+        @Index(name = "idx_bank_cards_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_bank_cards_created", columnList = "created_at, id"),
+        @Index(name = "idx_bank_cards_expiration", columnList = "expiration_date")
+})
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -45,6 +54,15 @@ public class BankCard {
     @Column(nullable = false, precision = 15, scale = 2)
     private BigDecimal balance;
 
+    // Число строк card_balance_shards, на которые раскладываются зачисления; 0 - весь баланс в balance
+    @Column(name = "balance_shards", nullable = false)
+    private int balanceShards;
+
+    // Сумма шардов баланса; для обычных карт подзапрос не выполняется
+    @Formula("(CASE WHEN balance_shards > 0 THEN " +
+            "(SELECT COALESCE(SUM(s.balance), 0) FROM card_balance_shards s WHERE s.card_id = id) ELSE 0 END)")
+    private BigDecimal shardedBalance;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -55,6 +73,10 @@ public class BankCard {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    public BigDecimal getTotalBalance() {
+        return shardedBalance == null ? balance : balance.add(shardedBalance);
+    }
+
     public enum CardStatus {
         ACTIVE,
         BLOCKED,
@@ -0,0 +1,36 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Часть баланса "горячей" карты-получателя: зачисления распределяются по shardNo и
+// блокируют только свою строку, а не общую строку bank_cards
+@Entity
+@Table(name = "card_balance_shards", indexes = {
+        @Index(name = "uk_card_balance_shards_card_shard", columnList = "card_id, shard_no", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardBalanceShard {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+}
@@ -0,0 +1,89 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Неизменяемая проводка по карте: баланс карты равен сумме amount всех ее проводок.
+// Перевод дает две проводки с одним transaction_id: DEBIT (отрицательная сумма) и CREDIT.
+@Entity
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_card", columnList = "card_id, id"),
+        @Index(name = "uk_ledger_entries_transaction", columnList = "transaction_id, entry_type", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+
+    // Последовательность с шагом 50 вместо IDENTITY: Hibernate получает id заранее и может вставлять пачкой
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 50)
+    private Long id;
+
+    // null у проводки открытия счета
+    @Column(name = "transaction_id")
+    private UUID transactionId;
+
+    // Без внешнего ключа: журнал проводок не должен мешать удалению карты и переживает его
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 10)
+    private EntryType entryType;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum EntryType {
+        OPENING,
+        DEBIT,
+        CREDIT
+    }
+
+    public static LedgerEntry opening(Long cardId, BigDecimal balance) {
+        return LedgerEntry.builder()
+                .cardId(cardId)
+                .entryType(EntryType.OPENING)
+                .amount(balance)
+                .build();
+    }
+
+    public static LedgerEntry debit(UUID transactionId, Long cardId, BigDecimal amount) {
+        return LedgerEntry.builder()
+                .transactionId(transactionId)
+                .cardId(cardId)
+                .entryType(EntryType.DEBIT)
+                .amount(amount.negate())
+                .build();
+    }
+
+    public static LedgerEntry credit(UUID transactionId, Long cardId, BigDecimal amount) {
+        return LedgerEntry.builder()
+                .transactionId(transactionId)
+                .cardId(cardId)
+                .entryType(EntryType.CREDIT)
+                .amount(amount)
+                .build();
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
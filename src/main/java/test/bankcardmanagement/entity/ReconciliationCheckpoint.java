@@ -0,0 +1,31 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Обработанный диапазон запуска сверки; пишется в одной транзакции с его расхождениями и счетчиками,
+// поэтому возобновленный запуск пропускает ровно те диапазоны, результаты которых уже сохранены
+@Entity
+@Table(name = "reconciliation_checkpoints", indexes = {
+        @Index(name = "uk_reconciliation_checkpoints_run_range", columnList = "run_id, range_no", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "range_no", nullable = false)
+    private int rangeNo;
+}
@@ -0,0 +1,42 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Карта, у которой баланс не совпал с ожидаемым: открытие + входящие - исходящие проведенные переводы
+@Entity
+@Table(name = "reconciliation_mismatches", indexes = {
+        @Index(name = "idx_reconciliation_mismatches_run_card", columnList = "run_id, card_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "expected_balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal expectedBalance;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
@@ -0,0 +1,73 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Запуск сверки балансов с transactions. Пространство id карт [rangeStart, rangeEnd) делится на
+// rangesTotal диапазонов по rangeSize; обработанные отмечаются в reconciliation_checkpoints.
+@Entity
+@Table(name = "reconciliation_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "range_start", nullable = false)
+    private long rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private long rangeEnd;
+
+    @Column(name = "range_size", nullable = false)
+    private int rangeSize;
+
+    @Column(name = "ranges_total", nullable = false)
+    private int rangesTotal;
+
+    @Column(name = "ranges_done", nullable = false)
+    private int rangesDone;
+
+    @Column(name = "cards_checked", nullable = false)
+    private long cardsChecked;
+
+    @Column(name = "mismatch_count", nullable = false)
+    private long mismatchCount;
+
+    // 0 - без ограничения
+    @Column(name = "max_ranges_per_second", nullable = false)
+    private int maxRangesPerSecond;
+
+    @Column(name = "error")
+    private String error;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+}
@@ -0,0 +1,97 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Регулярный перевод между своими картами. Планировщик выбирает записи по next_run_at
+// только на ближайший горизонт, поэтому индекс начинается с него.
+@Entity
+@Table(name = "recurring_transfers", indexes = {
+        @Index(name = "idx_recurring_transfers_next_run", columnList = "next_run_at, id"),
+        @Index(name = "idx_recurring_transfers_user_next_run", columnList = "user_id, next_run_at, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "from_card_id", nullable = false)
+    private BankCard fromCard;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "to_card_id", nullable = false)
+    private BankCard toCard;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Column
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Frequency frequency;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+
+    @Column(name = "failure_count", nullable = false)
+    private int failureCount;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY;
+
+        public LocalDateTime next(LocalDateTime runAt) {
+            return switch (this) {
+                case DAILY -> runAt.plusDays(1);
+                case WEEKLY -> runAt.plusWeeks(1);
+                case MONTHLY -> runAt.plusMonths(1);
+            };
+        }
+    }
+
+    public enum Status {
+        ACTIVE,
+        CANCELLED
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = Status.ACTIVE;
+        }
+    }
+}
@@ -9,9 +9,14 @@ import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_from_card_ts", columnList = "from_card_id, timestamp, id"),
+        @Index(name = "idx_transactions_to_card_ts", columnList = "to_card_id, timestamp, id"),
+        @Index(name = "idx_transactions_ts", columnList = "timestamp, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,8 +27,8 @@ public class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
-    private String transactionId;
+    @Column(nullable = false, unique = true)
+    private UUID transactionId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "from_card_id", nullable = false)
@@ -13,7 +13,11 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role", columnList = "role, id"),
+        @Index(name = "idx_users_enabled", columnList = "enabled, id"),
+        @Index(name = "idx_users_email", columnList = "email")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,61 @@
+package test.bankcardmanagement.entity;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Массовая загрузка пользователей из NDJSON. linesCommitted - число строк файла, результат которых
+// уже зафиксирован: при повторной загрузке того же файла они пропускаются.
+@Entity
+@Table(name = "user_import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "lines_committed", nullable = false)
+    private long linesCommitted;
+
+    @Column(nullable = false)
+    private long created;
+
+    // Пользователь с таким username или email уже есть
+    @Column(nullable = false)
+    private long skipped;
+
+    // Строка не разобрана или не прошла валидацию
+    @Column(nullable = false)
+    private long rejected;
+
+    @Column(name = "error")
+    private String error;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
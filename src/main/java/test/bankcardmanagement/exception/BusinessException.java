@@ -0,0 +1,18 @@
+package test.bankcardmanagement.exception;
+
+// Ожидаемый отказ (нет средств, чужая карта, лимит, не найдено): стек не снимается, подавленные
+// исключения не собираются. Такие отказы при всплесках мошенничества и ошибках клиентов бывают чаще
+// успешных операций, а стек для них не нужен - ответ определяется кодом ошибки
+public abstract class BusinessException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    protected BusinessException(ErrorCode errorCode, String message) {
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
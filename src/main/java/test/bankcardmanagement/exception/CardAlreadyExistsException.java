@@ -1,11 +1,11 @@
 package test.bankcardmanagement.exception;
 
-public class CardAlreadyExistsException extends RuntimeException {
+public class CardAlreadyExistsException extends BusinessException {
     public CardAlreadyExistsException(String message) {
-        super(message);
+        super(ErrorCode.CARD_ALREADY_EXISTS, message);
     }
     public CardAlreadyExistsException(String cardNumber, Long userId) {
-        super(String.format("Card ending with %s already exists for user %d",
+        super(ErrorCode.CARD_ALREADY_EXISTS, String.format("Card ending with %s already exists for user %d",
                 cardNumber.substring(cardNumber.length() - 4), userId));
     }
 }
\ No newline at end of file
@@ -1,10 +1,10 @@
 package test.bankcardmanagement.exception;
 
-public class CardNotFoundException extends RuntimeException {
+public class CardNotFoundException extends BusinessException {
     public CardNotFoundException(String message) {
-        super(message);
+        super(ErrorCode.CARD_NOT_FOUND, message);
     }
     public CardNotFoundException(Long id) {
-        super("Card not found with id: " + id);
+        super(ErrorCode.CARD_NOT_FOUND, "Card not found with id: " + id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package test.bankcardmanagement.exception;
+
+import org.springframework.http.HttpStatus;
+
+// Статус и заголовок ответа для каждого типа бизнес-ошибки; ответ собирается без поиска по типу исключения
+public enum ErrorCode {
+
+    CARD_NOT_FOUND(HttpStatus.NOT_FOUND, "Card Not Found"),
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND, "User Not Found"),
+    RECURRING_TRANSFER_NOT_FOUND(HttpStatus.NOT_FOUND, "Recurring Transfer Not Found"),
+    RECONCILIATION_RUN_NOT_FOUND(HttpStatus.NOT_FOUND, "Reconciliation Run Not Found"),
+    USER_IMPORT_JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "User Import Job Not Found"),
+    INSUFFICIENT_FUNDS(HttpStatus.BAD_REQUEST, "Insufficient Funds"),
+    VALIDATION_FAILED(HttpStatus.BAD_REQUEST, "Validation Failed"),
+    OPERATION_NOT_ALLOWED(HttpStatus.FORBIDDEN, "Operation Not Allowed"),
+    CARD_ALREADY_EXISTS(HttpStatus.CONFLICT, "Card Already Exists"),
+    USER_ALREADY_EXISTS(HttpStatus.CONFLICT, "User Already Exists"),
+    TRANSFER_LIMIT_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS, "Transfer Limit Exceeded"),
+    // Отказы фильтров security.throttling - до контроллера, без исключения
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests"),
+    SERVICE_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "Service Busy");
+
+    private final HttpStatus status;
+    private final String title;
+
+    ErrorCode(HttpStatus status, String title) {
+        this.status = status;
+        this.title = title;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
@@ -15,34 +15,11 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(CardNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleCardNotFound(CardNotFoundException ex) {
-        return buildErrorResponse(ex, HttpStatus.NOT_FOUND, "Card Not Found");
-    }
-
-    @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex) {
-        return buildErrorResponse(ex, HttpStatus.NOT_FOUND, "User Not Found");
-    }
-
-    @ExceptionHandler(InsufficientFundsException.class)
-    public ResponseEntity<ErrorResponse> handleInsufficientFunds(InsufficientFundsException ex) {
-        return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, "Insufficient Funds");
-    }
-
-    @ExceptionHandler(OperationNotAllowedException.class)
-    public ResponseEntity<ErrorResponse> handleOperationNotAllowed(OperationNotAllowedException ex) {
-        return buildErrorResponse(ex, HttpStatus.FORBIDDEN, "Operation Not Allowed");
-    }
-
-    @ExceptionHandler(CardAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponse> handleCardAlreadyExists(CardAlreadyExistsException ex) {
-        return buildErrorResponse(ex, HttpStatus.CONFLICT, "Card Already Exists");
-    }
-
-    @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<ErrorResponse> handleValidation(ValidationException ex) {
-        return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, "Validation Failed");
+    // Статус и заголовок берутся из кода ошибки, без отдельного обработчика на каждый тип
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ErrorResponse> handleBusiness(BusinessException ex) {
+        ErrorCode code = ex.getErrorCode();
+        return buildErrorResponse(ex, code.getStatus(), code.getTitle());
     }
 
     @ExceptionHandler(AccessDeniedException.class)
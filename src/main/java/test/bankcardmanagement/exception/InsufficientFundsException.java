@@ -1,8 +1,8 @@
 package test.bankcardmanagement.exception;
 
 
-public class InsufficientFundsException extends RuntimeException {
+public class InsufficientFundsException extends BusinessException {
     public InsufficientFundsException(String message) {
-        super(message);
+        super(ErrorCode.INSUFFICIENT_FUNDS, message);
     }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package test.bankcardmanagement.exception;
 
-public class OperationNotAllowedException extends RuntimeException {
+public class OperationNotAllowedException extends BusinessException {
     public OperationNotAllowedException(String message) {
-        super(message);
+        super(ErrorCode.OPERATION_NOT_ALLOWED, message);
     }
 }
\ No newline at end of file
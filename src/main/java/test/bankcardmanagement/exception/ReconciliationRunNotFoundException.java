@@ -0,0 +1,7 @@
+package test.bankcardmanagement.exception;
+
+public class ReconciliationRunNotFoundException extends BusinessException {
+    public ReconciliationRunNotFoundException(Long id) {
+        super(ErrorCode.RECONCILIATION_RUN_NOT_FOUND, "Reconciliation run not found with id: " + id);
+    }
+}
@@ -0,0 +1,7 @@
+package test.bankcardmanagement.exception;
+
+public class RecurringTransferNotFoundException extends BusinessException {
+    public RecurringTransferNotFoundException(Long id) {
+        super(ErrorCode.RECURRING_TRANSFER_NOT_FOUND, "Recurring transfer not found with id: " + id);
+    }
+}
@@ -0,0 +1,8 @@
+package test.bankcardmanagement.exception;
+
+
+public class ServiceBusyException extends BusinessException {
+    public ServiceBusyException(String message) {
+        super(ErrorCode.SERVICE_BUSY, message);
+    }
+}
@@ -0,0 +1,8 @@
+package test.bankcardmanagement.exception;
+
+public class UserAlreadyExistsException extends BusinessException {
+
+    public UserAlreadyExistsException(String message) {
+        super(ErrorCode.USER_ALREADY_EXISTS, message);
+    }
+}
@@ -0,0 +1,7 @@
+package test.bankcardmanagement.exception;
+
+public class UserImportJobNotFoundException extends BusinessException {
+    public UserImportJobNotFoundException(Long id) {
+        super(ErrorCode.USER_IMPORT_JOB_NOT_FOUND, "User import job not found with id: " + id);
+    }
+}
@@ -1,10 +1,10 @@
 package test.bankcardmanagement.exception;
 
-public class UserNotFoundException extends RuntimeException {
+public class UserNotFoundException extends BusinessException {
     public UserNotFoundException(String message) {
-        super(message);
+        super(ErrorCode.USER_NOT_FOUND, message);
     }
     public UserNotFoundException(Long id) {
-        super("User not found with id: " + id);
+        super(ErrorCode.USER_NOT_FOUND, "User not found with id: " + id);
     }
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package test.bankcardmanagement.exception;
 
-public class ValidationException extends RuntimeException {
+public class ValidationException extends BusinessException {
     public ValidationException(String message) {
-        super(message);
+        super(ErrorCode.VALIDATION_FAILED, message);
     }
 }
\ No newline at end of file
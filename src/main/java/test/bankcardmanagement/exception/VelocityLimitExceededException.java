@@ -0,0 +1,8 @@
+package test.bankcardmanagement.exception;
+
+
+public class VelocityLimitExceededException extends BusinessException {
+    public VelocityLimitExceededException(String message) {
+        super(ErrorCode.TRANSFER_LIMIT_EXCEEDED, message);
+    }
+}
@@ -0,0 +1,21 @@
+package test.bankcardmanagement.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("bankcard.CardCrypto")
+@Label("Card Number Crypto")
+@Category({"Bank Card Management", "Security"})
+@Description("Card number encryption, decryption or hashing")
+@StackTrace(false)
+public class CardCryptoEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
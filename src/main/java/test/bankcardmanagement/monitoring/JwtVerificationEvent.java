@@ -0,0 +1,22 @@
+package test.bankcardmanagement.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Разбор токена с проверкой подписи (phase=parse) и сверка с пользователем и сроком (phase=validate)
+@Name("bankcard.JwtVerification")
+@Label("JWT Verification")
+@Category({"Bank Card Management", "Security"})
+@Description("Bearer token parsing and verification")
+@StackTrace(false)
+public class JwtVerificationEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Valid")
+    public boolean valid;
+}
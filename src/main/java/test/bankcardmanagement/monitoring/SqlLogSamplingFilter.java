@@ -0,0 +1,30 @@
+package test.bankcardmanagement.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Выборочный лог SQL: из DEBUG-сообщений логгеров loggerName проходит доля sampleRate (0..1).
+// Решение принимается на проверке isDebugEnabled (format == null), которой Hibernate охраняет
+// форматирование и запись оператора, поэтому отброшенные операторы не форматируются вовсе.
+@Getter
+@Setter
+public class SqlLogSamplingFilter extends TurboFilter {
+
+    private String loggerName = "org.hibernate.SQL";
+    private double sampleRate;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (format != null || level.isGreaterOrEqual(Level.INFO) || !logger.getName().startsWith(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
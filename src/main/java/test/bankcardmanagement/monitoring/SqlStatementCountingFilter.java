@@ -0,0 +1,61 @@
+package test.bankcardmanagement.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Операторы, выполненные в потоке обработки запроса (включая загрузку пользователя по JWT).
+// Число кладется в атрибут запроса STATEMENTS_ATTRIBUTE - по нему проверяют бюджет операторов в тестах.
+// Потоковые ответы, которые пишутся после async-диспатча, учитываются только до него.
+@RequiredArgsConstructor
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_ATTRIBUTE = SqlStatementCountingFilter.class.getName() + ".statements";
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    static void statementExecuted() {
+        int[] statements = STATEMENTS.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        int[] statements = new int[1];
+        STATEMENTS.set(statements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            STATEMENTS.remove();
+            request.setAttribute(STATEMENTS_ATTRIBUTE, statements[0]);
+            DistributionSummary.builder("sql.statements.per.request")
+                    .description("SQL statements executed while handling one HTTP request")
+                    .tag("uri", uri(request))
+                    .register(meterRegistry)
+                    .record(statements[0]);
+        }
+    }
+
+    // Шаблон пути, а не сам путь: число тегов не растет с числом id
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
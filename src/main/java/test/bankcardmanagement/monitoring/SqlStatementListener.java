@@ -0,0 +1,117 @@
+package test.bankcardmanagement.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Считает операторы, выполненные через основной DataSource: всего по типу, в текущем HTTP-запросе
+// (SqlStatementCountingFilter) и в текущей транзакции Spring. Пачка batch - один оператор, как один
+// round-trip. Медленные операторы логируются с типами параметров вместо значений (номера карт, хеши, пароли).
+@Slf4j
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private final long slowStatementMs;
+    private final Map<QueryType, Counter> statements = new EnumMap<>(QueryType.class);
+    private final DistributionSummary perTransaction;
+
+    public SqlStatementListener(MeterRegistry registry, long slowStatementMs) {
+        this.slowStatementMs = slowStatementMs;
+        for (QueryType type : QueryType.values()) {
+            statements.put(type, Counter.builder("sql.statements")
+                    .description("Executed SQL statements, a JDBC batch counts once")
+                    .tag("type", type.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        this.perTransaction = DistributionSummary.builder("sql.statements.per.transaction")
+                .description("SQL statements executed in one Spring-managed transaction")
+                .register(registry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        statements.get(queries.size() == 1 ? QueryUtils.getQueryType(queries.get(0).getQuery()) : QueryType.OTHER)
+                .increment();
+        SqlStatementCountingFilter.statementExecuted();
+        countInTransaction();
+        if (slowStatementMs > 0 && execution.getElapsedTime() >= slowStatementMs) {
+            log.warn("Slow SQL statement: {} ms{}, {}", execution.getElapsedTime(),
+                    execution.isBatch() ? ", batch of " + execution.getBatchSize() : "", describe(queries));
+        }
+    }
+
+    private void countInTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionStatements current = (TransactionStatements) TransactionSynchronizationManager.getResource(this);
+        if (current == null) {
+            current = new TransactionStatements();
+            TransactionSynchronizationManager.bindResource(this, current);
+            TransactionSynchronizationManager.registerSynchronization(current);
+        }
+        current.count++;
+    }
+
+    private static String describe(List<QueryInfo> queries) {
+        return queries.stream()
+                .map(query -> query.getQuery() + " " + redactedParameters(query))
+                .collect(Collectors.joining("; "));
+    }
+
+    // Для пачки - параметры первой строки
+    private static String redactedParameters(QueryInfo query) {
+        if (query.getParametersList().isEmpty()) {
+            return "[]";
+        }
+        return query.getParametersList().get(0).stream()
+                .map(SqlStatementListener::parameterType)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String parameterType(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    // Счетчик живет в ресурсах транзакции; на время вложенной REQUIRES_NEW он снимается и возвращается
+    private class TransactionStatements implements TransactionSynchronization {
+
+        private int count;
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(SqlStatementListener.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(SqlStatementListener.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SqlStatementListener.this);
+            perTransaction.record(count);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package test.bankcardmanagement.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.math.BigDecimal;
+
+// Перевод от поиска карт до ответа (без фиксации транзакции). Карты, сумму и ожидание блокировок
+// дописывают участники перевода через transferring/lockWaited, пока событие открыто в текущем потоке
+@Name("bankcard.Transfer")
+@Label("Transfer")
+@Category({"Bank Card Management", "Transfers"})
+@Description("Transfer execution without the commit")
+@StackTrace(false)
+public class TransferEvent extends jdk.jfr.Event {
+
+    private static final ThreadLocal<TransferEvent> CURRENT = new ThreadLocal<>();
+
+    @Label("From Card Id")
+    public long fromCardId;
+
+    @Label("To Card Id")
+    public long toCardId;
+
+    // Порядок суммы вместо самой суммы: в записи нет денежных значений
+    @Label("Amount Bucket")
+    public String amountBucket;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Outcome")
+    public String outcome;
+
+    // Открывает событие для текущего потока; при выключенном событии ничего не запоминает
+    public static TransferEvent start() {
+        TransferEvent event = new TransferEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            CURRENT.set(event);
+        }
+        return event;
+    }
+
+    public static void transferring(Long fromCardId, Long toCardId, BigDecimal amount) {
+        TransferEvent event = CURRENT.get();
+        if (event != null) {
+            event.fromCardId = fromCardId;
+            event.toCardId = toCardId;
+            event.amountBucket = amountBucket(amount);
+        }
+    }
+
+    public static void lockWaited(long nanos) {
+        TransferEvent event = CURRENT.get();
+        if (event != null) {
+            event.lockWait += nanos;
+        }
+    }
+
+    // Поток освобождается всегда: запись могли остановить или запустить, пока перевод шел,
+    // а закрывается и фиксируется только событие, которое start() действительно открыл
+    public void finish(String outcome) {
+        boolean started = CURRENT.get() == this;
+        CURRENT.remove();
+        if (!started) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    static String amountBucket(BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.valueOf(100)) < 0) {
+            return "<100";
+        }
+        if (amount.compareTo(BigDecimal.valueOf(1_000)) < 0) {
+            return "100-1000";
+        }
+        if (amount.compareTo(BigDecimal.valueOf(10_000)) < 0) {
+            return "1000-10000";
+        }
+        if (amount.compareTo(BigDecimal.valueOf(100_000)) < 0) {
+            return "10000-100000";
+        }
+        return ">=100000";
+    }
+}
@@ -0,0 +1,19 @@
+package test.bankcardmanagement.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Загрузка пользователя при аутентификации; имя пользователя в запись не попадает
+@Name("bankcard.UserLookup")
+@Label("User Lookup")
+@Category({"Bank Card Management", "Security"})
+@Description("User lookup during authentication")
+@StackTrace(false)
+public class UserLookupEvent extends jdk.jfr.Event {
+
+    @Label("Found")
+    public boolean found;
+}
@@ -0,0 +1,65 @@
+package test.bankcardmanagement.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import test.bankcardmanagement.dto.response.CardResponse;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.exception.CardNotFoundException;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+
+// Чтение карт с теми же путями и ответами, что у CardController
+@RestController
+@RequestMapping(value = "/api/cards", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCardController {
+
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final ReactiveReadRepository repository;
+
+    @GetMapping("/{id}")
+    public Mono<CardResponse> getCardById(@PathVariable Long id, Authentication authentication) {
+        return repository.findCard(id)
+                .switchIfEmpty(Mono.error(() -> new CardNotFoundException(id)))
+                .map(owned -> {
+                    if (!isAdmin(authentication) && !owned.owner().equals(authentication.getName())) {
+                        throw new OperationNotAllowedException("Access denied to this card");
+                    }
+                    return owned.card();
+                });
+    }
+
+    // Только page и size: сортировка фиксирована (createdAt), как по умолчанию в основном API.
+    // Границы те же, что у Pageable: отрицательная страница - первая, размер не больше 2000
+    @GetMapping("/my")
+    public Mono<Page<CardResponse>> getMyCards(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), size < 1 ? 10 : Math.min(size, MAX_PAGE_SIZE),
+                Sort.by("createdAt"));
+        return repository.findCards(username, pageable.getOffset(), pageable.getPageSize())
+                .collectList()
+                .zipWith(repository.countCards(username))
+                .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return AuthorityUtils.authorityListToSet(authentication.getAuthorities()).contains(Role.ROLE_ADMIN.name());
+    }
+}
@@ -0,0 +1,24 @@
+package test.bankcardmanagement.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
+import test.bankcardmanagement.security.jwt.JwtUtil;
+
+// Отдельный процесс только для чтения карт и истории переводов: WebFlux на Netty и R2DBC.
+// Не @SpringBootConfiguration, чтобы тесты и сканирование основного приложения его не находили;
+// компоненты пакета включаются только в реактивном веб-приложении
+@EnableAutoConfiguration
+@ComponentScan(basePackageClasses = ReactiveReadApplication.class)
+@Import(JwtUtil.class)
+public class ReactiveReadApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveReadApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run(args);
+    }
+}
@@ -0,0 +1,179 @@
+package test.bankcardmanagement.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import test.bankcardmanagement.dto.request.TransactionExportRequest;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+import test.bankcardmanagement.dto.response.CardResponse;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.TransactionHistoryQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Запросы сервиса чтения через R2DBC: строки сразу собираются в DTO основного API, без сущностей JPA
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveReadRepository {
+
+    private static final String MASK = "**** **** **** ";
+
+    // Баланс как у BankCard.getTotalBalance: подзапрос по шардам только для карт с шардами
+    private static final String CARD_COLUMNS =
+            "c.id, c.last_four_digits, c.card_holder_name, c.expiration_date, c.status, " +
+                    "c.balance + CASE WHEN c.balance_shards > 0 THEN " +
+                    "(SELECT COALESCE(SUM(s.balance), 0) FROM card_balance_shards s WHERE s.card_id = c.id) " +
+                    "ELSE 0 END AS total_balance, c.created_at, c.updated_at, c.user_id, u.username";
+
+    private static final String TRANSACTION_COLUMNS =
+            "t.id, t.transaction_id, f.last_four_digits AS from_digits, r.last_four_digits AS to_digits, " +
+                    "t.amount, t.timestamp, t.status, t.description";
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public record OwnedCard(String owner, CardResponse card) {
+    }
+
+    public record HistoryRow(long id, TransactionResponse transaction) {
+    }
+
+    public Mono<User> findUser(String username) {
+        return databaseClient.sql("SELECT username, password, role, enabled FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> User.builder()
+                        .username(row.get("username", String.class))
+                        .password(row.get("password", String.class))
+                        .role(Role.valueOf(row.get("role", String.class)))
+                        .enabled(Boolean.TRUE.equals(row.get("enabled", Boolean.class)))
+                        .build())
+                .one();
+    }
+
+    public Mono<OwnedCard> findCard(long id) {
+        return databaseClient.sql("SELECT " + CARD_COLUMNS +
+                        " FROM bank_cards c JOIN users u ON u.id = c.user_id WHERE c.id = :id")
+                .bind("id", id)
+                .map(row -> new OwnedCard(row.get("username", String.class), toCard(row)))
+                .one();
+    }
+
+    public Mono<Long> countCards(String username) {
+        return databaseClient.sql("SELECT COUNT(*) AS total FROM bank_cards c " +
+                        "JOIN users u ON u.id = c.user_id WHERE u.username = :username")
+                .bind("username", username)
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+
+    // Порядок как у GET /api/cards/my основного API (sort = createdAt), id - для однозначности
+    public Flux<CardResponse> findCards(String username, long offset, int limit) {
+        return databaseClient.sql("SELECT " + CARD_COLUMNS +
+                        " FROM bank_cards c JOIN users u ON u.id = c.user_id WHERE u.username = :username " +
+                        "ORDER BY c.created_at, c.id LIMIT :limit OFFSET :offset")
+                .bind("username", username)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(ReactiveReadRepository::toCard)
+                .all();
+    }
+
+    public Mono<List<Long>> findCardIds(String username) {
+        return databaseClient.sql("SELECT c.id FROM bank_cards c JOIN users u ON u.id = c.user_id " +
+                        "WHERE u.username = :username ORDER BY c.id")
+                .bind("username", username)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList();
+    }
+
+    public Flux<HistoryRow> findHistory(List<Long> cardIds, TransactionHistoryRequest filter,
+                                        LocalDateTime afterTimestamp, Long afterId, int limit) {
+        if (cardIds.isEmpty()) {
+            return Flux.empty();
+        }
+        TransactionHistoryQuery history = TransactionHistoryQuery.of(cardIds, filter, afterTimestamp, afterId, limit);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT " + TRANSACTION_COLUMNS +
+                " FROM (" + history.sql() + ") k JOIN transactions t ON t.id = k.id " +
+                "JOIN bank_cards f ON f.id = t.from_card_id " +
+                "JOIN bank_cards r ON r.id = t.to_card_id " +
+                "ORDER BY t.timestamp DESC, t.id DESC");
+        for (var parameter : history.parameters().entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(row -> new HistoryRow(row.get("id", Long.class), toTransaction(row))).all();
+    }
+
+    // Строки отдаются по запросу подписчика: драйвер читает их порциями по fetch size,
+    // следующая порция запрашивается, когда предыдущая ушла в сеть
+    public Flux<TransactionResponse> export(List<Long> cardIds, TransactionExportRequest request) {
+        if (cardIds.isEmpty()) {
+            return Flux.empty();
+        }
+        StringBuilder sql = new StringBuilder("SELECT " + TRANSACTION_COLUMNS +
+                " FROM transactions t " +
+                "JOIN bank_cards f ON f.id = t.from_card_id " +
+                "JOIN bank_cards r ON r.id = t.to_card_id " +
+                "WHERE (t.from_card_id IN (:cardIds) OR t.to_card_id IN (:cardIds))");
+        if (request.getFrom() != null) {
+            sql.append(" AND t.timestamp >= :fromTs");
+        }
+        if (request.getTo() != null) {
+            sql.append(" AND t.timestamp <= :toTs");
+        }
+        sql.append(" ORDER BY t.timestamp, t.id");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .bind("cardIds", cardIds);
+        if (request.getFrom() != null) {
+            spec = spec.bind("fromTs", request.getFrom());
+        }
+        if (request.getTo() != null) {
+            spec = spec.bind("toTs", request.getTo());
+        }
+        return spec.map(ReactiveReadRepository::toTransaction).all();
+    }
+
+    private static CardResponse toCard(Readable row) {
+        return CardResponse.builder()
+                .id(row.get("id", Long.class))
+                .maskedCardNumber(MASK + row.get("last_four_digits", String.class))
+                .cardHolderName(row.get("card_holder_name", String.class))
+                .expirationDate(row.get("expiration_date", LocalDate.class))
+                .status(BankCard.CardStatus.valueOf(row.get("status", String.class)))
+                .balance(row.get("total_balance", BigDecimal.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .userId(row.get("user_id", Long.class))
+                .build();
+    }
+
+    private static TransactionResponse toTransaction(Readable row) {
+        return TransactionResponse.builder()
+                .transactionId(row.get("transaction_id", UUID.class).toString())
+                .fromCardMasked(MASK + row.get("from_digits", String.class))
+                .toCardMasked(MASK + row.get("to_digits", String.class))
+                .amount(row.get("amount", BigDecimal.class))
+                .timestamp(row.get("timestamp", LocalDateTime.class))
+                .status(Transaction.TransactionStatus.valueOf(row.get("status", String.class)))
+                .description(row.get("description", String.class))
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package test.bankcardmanagement.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import test.bankcardmanagement.dto.request.TransactionExportRequest;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.service.TransactionExportService;
+import test.bankcardmanagement.util.CursorCodec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+// История и выгрузка своих переводов с теми же параметрами и ответами, что у TransactionController
+@RestController
+@RequestMapping("/api/transactions")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTransactionController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ReactiveReadRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/my")
+    public Mono<CursorPageResponse<TransactionResponse>> getMyTransactions(
+            @Valid TransactionHistoryRequest request, Authentication authentication) {
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] key = CursorCodec.decode(request.getCursor(), 2);
+            try {
+                afterTimestamp = LocalDateTime.parse(key[0]);
+                afterId = Long.parseLong(key[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                return Mono.error(new ValidationException("Invalid cursor"));
+            }
+        }
+        LocalDateTime cursorTimestamp = afterTimestamp;
+        Long cursorId = afterId;
+
+        // Берем на одну строку больше, чтобы узнать, есть ли следующая страница
+        return ownCardIds(authentication.getName(), request.getCardId())
+                .flatMap(cardIds -> repository.findHistory(
+                        cardIds, request, cursorTimestamp, cursorId, request.getSize() + 1).collectList())
+                .map(rows -> {
+                    boolean hasNext = rows.size() > request.getSize();
+                    List<ReactiveReadRepository.HistoryRow> page = hasNext ? rows.subList(0, request.getSize()) : rows;
+                    String nextCursor = null;
+                    if (hasNext) {
+                        ReactiveReadRepository.HistoryRow last = page.get(page.size() - 1);
+                        nextCursor = CursorCodec.encode(last.transaction().getTimestamp(), last.id());
+                    }
+                    return CursorPageResponse.<TransactionResponse>builder()
+                            .content(page.stream().map(ReactiveReadRepository.HistoryRow::transaction).toList())
+                            .size(page.size())
+                            .hasNext(hasNext)
+                            .nextCursor(nextCursor)
+                            .build();
+                });
+    }
+
+    // Ответ пишется по мере чтения из БД: Netty запрашивает следующие строки,
+    // только когда предыдущие ушли клиенту, поэтому медленный клиент не копит выгрузку в памяти
+    @GetMapping("/export")
+    public Mono<ResponseEntity<Flux<String>>> exportMyTransactions(
+            @Valid TransactionExportRequest request, Authentication authentication) {
+        if (request.isGzip()) {
+            return Mono.error(new ValidationException(
+                    "Gzip export is not supported by the reactive read service"));
+        }
+        boolean ndjson = request.getFormat() == TransactionExportRequest.ExportFormat.NDJSON;
+        String fileName = new TransactionExportService.Export(request, List.of()).fileName();
+
+        return ownCardIds(authentication.getName(), request.getCardId())
+                .map(cardIds -> {
+                    Flux<TransactionResponse> rows = repository.export(cardIds, request);
+                    // Строки сериализуем сами, как NdjsonRowWriter: одна запись - одна строка
+                    Flux<String> body = ndjson ? rows.map(this::toJsonLine)
+                            : Flux.just(TransactionExportService.CSV_HEADER + "\n")
+                            .concatWith(rows.map(ReactiveTransactionController::toCsv));
+                    return ResponseEntity.ok()
+                            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : TEXT_CSV)
+                            .header(HttpHeaders.CONTENT_DISPOSITION,
+                                    ContentDisposition.attachment().filename(fileName).build().toString())
+                            .body(body);
+                });
+    }
+
+    private Mono<List<Long>> ownCardIds(String username, Long cardId) {
+        return repository.findCardIds(username).map(cardIds -> {
+            if (cardId == null) {
+                return cardIds;
+            }
+            if (!cardIds.contains(cardId)) {
+                throw new OperationNotAllowedException("Access denied to this card");
+            }
+            return List.of(cardId);
+        });
+    }
+
+    private String toJsonLine(TransactionResponse row) {
+        try {
+            return objectMapper.writeValueAsString(row) + "\n";
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsv(TransactionResponse row) {
+        StringBuilder line = new StringBuilder(128);
+        try {
+            TransactionExportService.appendCsv(line, row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return line.toString();
+    }
+}
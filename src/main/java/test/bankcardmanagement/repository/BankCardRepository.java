@@ -4,6 +4,7 @@ package test.bankcardmanagement.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,6 +13,8 @@ import test.bankcardmanagement.entity.User;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,4 +37,21 @@ public interface BankCardRepository extends JpaRepository<BankCard, Long> {
 
     // Простой поиск по статусу и пользователю (опционально)
     Page<BankCard> findByUserIdAndStatus(Long userId, BankCard.CardStatus status, Pageable pageable);
+
+    @Query("SELECT c.id FROM BankCard c WHERE c.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // SELECT ... FOR UPDATE по строкам карт в порядке id: все, кто пишет в несколько карт, блокируют их так
+    @Query(value = "SELECT id FROM bank_cards WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Атомарные изменения баланса без read-modify-write для карт с шардами баланса
+    @Modifying
+    @Query("UPDATE BankCard c SET c.balance = c.balance - :amount, c.updatedAt = :now " +
+            "WHERE c.id = :id AND c.balance >= :amount")
+    int debitIfSufficient(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BankCard c SET c.balance = c.balance + :amount, c.updatedAt = :now WHERE c.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
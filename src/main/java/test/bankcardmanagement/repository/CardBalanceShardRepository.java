@@ -0,0 +1,31 @@
+package test.bankcardmanagement.repository;
+
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import test.bankcardmanagement.entity.CardBalanceShard;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CardBalanceShardRepository extends JpaRepository<CardBalanceShard, Long> {
+
+    // Атомарное зачисление без чтения: блокируется только одна строка шарда
+    @Modifying
+    @Query("UPDATE CardBalanceShard s SET s.balance = s.balance + :amount WHERE s.cardId = :cardId AND s.shardNo = :shardNo")
+    int credit(@Param("cardId") Long cardId, @Param("shardNo") int shardNo, @Param("amount") BigDecimal amount);
+
+    // SELECT ... FOR UPDATE по всем шардам карты в порядке shard_no
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<CardBalanceShard> findByCardIdOrderByShardNo(Long cardId);
+
+    @Modifying
+    @Query("DELETE FROM CardBalanceShard s WHERE s.cardId = :cardId")
+    void deleteByCardId(@Param("cardId") Long cardId);
+}
@@ -0,0 +1,15 @@
+package test.bankcardmanagement.repository;
+
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import test.bankcardmanagement.entity.LedgerEntry;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    List<LedgerEntry> findByTransactionId(UUID transactionId);
+}
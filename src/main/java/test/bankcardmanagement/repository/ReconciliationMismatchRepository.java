@@ -0,0 +1,13 @@
+package test.bankcardmanagement.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import test.bankcardmanagement.entity.ReconciliationMismatch;
+
+@Repository
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+
+    Page<ReconciliationMismatch> findByRunId(Long runId, Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package test.bankcardmanagement.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import test.bankcardmanagement.entity.RecurringTransfer;
+
+@Repository
+public interface RecurringTransferRepository extends JpaRepository<RecurringTransfer, Long> {
+
+    @EntityGraph(attributePaths = {"fromCard", "toCard"})
+    Page<RecurringTransfer> findByUserUsername(String username, Pageable pageable);
+}
@@ -0,0 +1,59 @@
+package test.bankcardmanagement.repository;
+
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Id страницы истории переводов по картам: общий SQL с именованными параметрами для JPA
+// (TransactionRepositoryImpl) и R2DBC (реактивный сервис чтения).
+// Отдельная ветка UNION на каждую пару (карта, направление): каждая ветка - упорядоченный проход
+// по индексу (from_card_id | to_card_id, timestamp, id) с LIMIT, без OR между двумя join'ами.
+public record TransactionHistoryQuery(String sql, Map<String, Object> parameters) {
+
+    public static TransactionHistoryQuery of(Collection<Long> cardIds, TransactionHistoryRequest filter,
+                                             LocalDateTime afterTimestamp, Long afterId, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder predicates = new StringBuilder();
+        if (afterTimestamp != null) {
+            predicates.append(" AND (t.timestamp < :afterTs OR (t.timestamp = :afterTs AND t.id < :afterId))");
+            parameters.put("afterTs", afterTimestamp);
+            parameters.put("afterId", afterId);
+        }
+        if (filter.getFrom() != null) {
+            predicates.append(" AND t.timestamp >= :fromTs");
+            parameters.put("fromTs", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            predicates.append(" AND t.timestamp <= :toTs");
+            parameters.put("toTs", filter.getTo());
+        }
+        if (filter.getMinAmount() != null) {
+            predicates.append(" AND t.amount >= :minAmount");
+            parameters.put("minAmount", filter.getMinAmount());
+        }
+        if (filter.getMaxAmount() != null) {
+            predicates.append(" AND t.amount <= :maxAmount");
+            parameters.put("maxAmount", filter.getMaxAmount());
+        }
+
+        List<String> branches = new ArrayList<>();
+        int index = 0;
+        for (Long cardId : cardIds) {
+            for (String column : List.of("from_card_id", "to_card_id")) {
+                branches.add("(SELECT t.id AS id, t.timestamp AS ts FROM transactions t WHERE t." + column +
+                        " = :card" + index + predicates + " ORDER BY t.timestamp DESC, t.id DESC LIMIT :limit)");
+            }
+            parameters.put("card" + index++, cardId);
+        }
+        parameters.put("limit", limit);
+        // UNION без ALL убирает дубли переводов между двумя картами одного пользователя
+        String sql = "SELECT k.id FROM (" + String.join(" UNION ", branches) + ") k " +
+                "ORDER BY k.ts DESC, k.id DESC LIMIT :limit";
+        return new TransactionHistoryQuery(sql, parameters);
+    }
+}
@@ -11,15 +11,20 @@ import test.bankcardmanagement.entity.Transaction;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
 
-    Optional<Transaction> findByTransactionId(String transactionId);
+    Optional<Transaction> findByTransactionId(UUID transactionId);
 
     Page<Transaction> findByFromCard_User_Id(Long userId, Pageable pageable);
 
     Page<Transaction> findByToCard_User_Id(Long userId, Pageable pageable);
+
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.fromCard JOIN FETCH t.toCard WHERE t.id IN :ids")
+    List<Transaction> findAllWithCardsByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package test.bankcardmanagement.repository;
+
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface TransactionRepositoryCustom {
+
+    // id транзакций по картам (как отправителя, так и получателя) в порядке (timestamp, id) по убыванию
+    List<Long> findHistoryIds(Collection<Long> cardIds, TransactionHistoryRequest filter,
+                              LocalDateTime afterTimestamp, Long afterId, int limit);
+}
@@ -0,0 +1,31 @@
+package test.bankcardmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findHistoryIds(Collection<Long> cardIds, TransactionHistoryRequest filter,
+                                     LocalDateTime afterTimestamp, Long afterId, int limit) {
+        if (cardIds.isEmpty()) {
+            return List.of();
+        }
+
+        TransactionHistoryQuery history = TransactionHistoryQuery.of(cardIds, filter, afterTimestamp, afterId, limit);
+        Query query = entityManager.createNativeQuery(history.sql());
+        history.parameters().forEach(query::setParameter);
+
+        List<?> rows = query.getResultList();
+        return rows.stream().map(row -> ((Number) row).longValue()).toList();
+    }
+}
@@ -0,0 +1,9 @@
+package test.bankcardmanagement.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import test.bankcardmanagement.entity.UserImportJob;
+
+@Repository
+public interface UserImportJobRepository extends JpaRepository<UserImportJob, Long> {
+}
@@ -0,0 +1,22 @@
+package test.bankcardmanagement.repository;
+
+import test.bankcardmanagement.dto.request.UserListRequest;
+import test.bankcardmanagement.dto.request.UserSearchRequest;
+import test.bankcardmanagement.entity.Role;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    // Пользователи по возрастанию id после afterId, без загрузки сущностей и их карт
+    List<UserSummary> findSummaries(UserListRequest filter, Long afterId, int limit);
+
+    // Пользователи, у которых lower(username) или lower(email) начинается с prefix, по возрастанию
+    // (lower(поле), id) после (afterKey, afterId)
+    List<UserSummary> searchSummaries(UserSearchRequest.SearchField field, String prefix,
+                                      String afterKey, Long afterId, int limit);
+
+    record UserSummary(Long id, String username, String email, String firstName, String lastName,
+                       Role role, boolean enabled, long cardCount) {
+    }
+}
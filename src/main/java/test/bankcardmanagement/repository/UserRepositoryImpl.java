@@ -0,0 +1,119 @@
+package test.bankcardmanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import test.bankcardmanagement.dto.request.UserListRequest;
+import test.bankcardmanagement.dto.request.UserSearchRequest;
+import test.bankcardmanagement.entity.Role;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Страница пользователей - keyset-проход по id (или по индексам фильтров role, enabled, username),
+    // карты считаются одним GROUP BY только по пользователям этой страницы
+    @Override
+    public List<UserSummary> findSummaries(UserListRequest filter, Long afterId, int limit) {
+        StringBuilder predicates = new StringBuilder();
+        if (afterId != null) {
+            predicates.append(" AND u.id > :afterId");
+        }
+        if (filter.getRole() != null) {
+            predicates.append(" AND u.role = :role");
+        }
+        if (filter.getEnabled() != null) {
+            predicates.append(" AND u.enabled = :enabled");
+        }
+        if (filter.getUsernamePrefix() != null) {
+            predicates.append(" AND u.username LIKE :usernamePattern ESCAPE '\\'");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.role, u.enabled " +
+                        "FROM users u WHERE 1 = 1" + predicates + " ORDER BY u.id LIMIT :limit");
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        if (filter.getRole() != null) {
+            query.setParameter("role", filter.getRole().name());
+        }
+        if (filter.getEnabled() != null) {
+            query.setParameter("enabled", filter.getEnabled());
+        }
+        if (filter.getUsernamePrefix() != null) {
+            query.setParameter("usernamePattern", escapeLike(filter.getUsernamePrefix()) + "%");
+        }
+        query.setParameter("limit", limit);
+
+        return toSummaries(query.getResultList());
+    }
+
+    private List<UserSummary> toSummaries(List<?> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Long> cardCounts = countCards(rows.stream().map(row -> ((Number) ((Object[]) row)[0]).longValue()).toList());
+
+        return rows.stream().map(row -> {
+            Object[] columns = (Object[]) row;
+            long id = ((Number) columns[0]).longValue();
+            return new UserSummary(
+                    id,
+                    (String) columns[1],
+                    (String) columns[2],
+                    (String) columns[3],
+                    (String) columns[4],
+                    Role.valueOf((String) columns[5]),
+                    (Boolean) columns[6],
+                    cardCounts.getOrDefault(id, 0L));
+        }).toList();
+    }
+
+    // Один упорядоченный проход по индексу (lower(поле), id): в PostgreSQL колонки username и email
+    // в collation "C", поэтому тот же индекс обслуживает и LIKE 'prefix%', и порядок keyset-пагинации
+    @Override
+    public List<UserSummary> searchSummaries(UserSearchRequest.SearchField field, String prefix,
+                                             String afterKey, Long afterId, int limit) {
+        String key = field == UserSearchRequest.SearchField.EMAIL ? "lower(u.email)" : "lower(u.username)";
+        StringBuilder sql = new StringBuilder(
+                "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.role, u.enabled " +
+                        "FROM users u WHERE " + key + " LIKE :pattern ESCAPE '\\'");
+        if (afterKey != null) {
+            sql.append(" AND (").append(key).append(", u.id) > (:afterKey, :afterId)");
+        }
+        sql.append(" ORDER BY ").append(key).append(", u.id LIMIT :limit");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.setParameter("pattern", escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%");
+        if (afterKey != null) {
+            query.setParameter("afterKey", afterKey);
+            query.setParameter("afterId", afterId);
+        }
+        query.setParameter("limit", limit);
+        return toSummaries(query.getResultList());
+    }
+
+    private Map<Long, Long> countCards(List<Long> userIds) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT b.user_id, COUNT(*) FROM bank_cards b WHERE b.user_id IN (:userIds) GROUP BY b.user_id")
+                .setParameter("userIds", userIds)
+                .getResultList();
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            counts.put(((Number) columns[0]).longValue(), ((Number) columns[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,10 +1,11 @@
 package test.bankcardmanagement.security.jwt;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,15 +14,28 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import test.bankcardmanagement.monitoring.JwtVerificationEvent;
+import test.bankcardmanagement.monitoring.UserLookupEvent;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final Timer authenticated;
+    private final Timer rejected;
+    private final Timer failed;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.authenticated = authenticationTimer(meterRegistry, "authenticated");
+        this.rejected = authenticationTimer(meterRegistry, "rejected");
+        this.failed = authenticationTimer(meterRegistry, "error");
+    }
 
     @Override
     protected void doFilterInternal(
@@ -37,13 +51,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String jwt = authHeader.substring(7);
-        final String username = jwtUtil.extractUsername(jwt);
+        // Время разбора и проверки токена вместе с загрузкой пользователя, без обработки самого запроса
+        long start = System.nanoTime();
+        Timer outcome = failed;
+        try {
+            outcome = authenticate(request, authHeader.substring(7)) ? authenticated : rejected;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean authenticate(HttpServletRequest request, String jwt) {
+        final String username = parse(jwt);
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = loadUser(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (validate(jwt, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -51,8 +76,53 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                return true;
             }
         }
-        filterChain.doFilter(request, response);
+        return false;
+    }
+
+    private String parse(String jwt) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            String username = jwtUtil.extractUsername(jwt);
+            event.valid = username != null;
+            return username;
+        } finally {
+            event.phase = "parse";
+            event.commit();
+        }
+    }
+
+    private UserDetails loadUser(String username) {
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            event.found = true;
+            return userDetails;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private boolean validate(String jwt, UserDetails userDetails) {
+        JwtVerificationEvent event = new JwtVerificationEvent();
+        event.begin();
+        try {
+            event.valid = jwtUtil.validateToken(jwt, userDetails);
+            return event.valid;
+        } finally {
+            event.phase = "validate";
+            event.commit();
+        }
+    }
+
+    private static Timer authenticationTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("security.jwt.authentication")
+                .description("Bearer token verification including the user lookup")
+                .tag("outcome", outcome)
+                .register(registry);
     }
 }
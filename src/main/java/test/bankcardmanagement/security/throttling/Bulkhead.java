@@ -0,0 +1,51 @@
+package test.bankcardmanagement.security.throttling;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Ограничение одновременных запросов группы: сверх maxConcurrent ждут не больше maxQueue запросов
+// и не дольше maxWait, остальные сразу получают отказ. Ожидающий запрос держит поток Tomcat,
+// поэтому очередь ограничена. Семафор честный: новый запрос не обгоняет ожидающие.
+final class Bulkhead {
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    Bulkhead(int maxConcurrent, int maxQueue, long maxWaitMs) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    void exit() {
+        permits.release();
+    }
+
+    int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,189 @@
+package test.bankcardmanagement.security.throttling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import test.bankcardmanagement.exception.ErrorCode;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Раздельные лимиты одновременных запросов для переводов, чтения и администрирования: поток запросов
+// к одной группе не занимает все потоки Tomcat и соединения пула, и переводам всегда остается запас
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.bulkhead.transfers.max-concurrent:10}")
+    private int transfersMaxConcurrent;
+
+    @Value("${app.bulkhead.transfers.max-queue:100}")
+    private int transfersMaxQueue;
+
+    @Value("${app.bulkhead.transfers.max-wait-ms:2000}")
+    private long transfersMaxWaitMs;
+
+    @Value("${app.bulkhead.reads.max-concurrent:5}")
+    private int readsMaxConcurrent;
+
+    @Value("${app.bulkhead.reads.max-queue:50}")
+    private int readsMaxQueue;
+
+    @Value("${app.bulkhead.reads.max-wait-ms:1000}")
+    private long readsMaxWaitMs;
+
+    @Value("${app.bulkhead.admin.max-concurrent:2}")
+    private int adminMaxConcurrent;
+
+    @Value("${app.bulkhead.admin.max-queue:10}")
+    private int adminMaxQueue;
+
+    @Value("${app.bulkhead.admin.max-wait-ms:5000}")
+    private long adminMaxWaitMs;
+
+    private final Map<Group, Bulkhead> bulkheads = new EnumMap<>(Group.class);
+    private final Map<Group, Timer> waits = new EnumMap<>(Group.class);
+    private final Map<Group, Counter> rejections = new EnumMap<>(Group.class);
+
+    public BulkheadFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        for (Group group : Group.values()) {
+            waits.put(group, Timer.builder("http.bulkhead.wait")
+                    .description("Time spent waiting for a slot in the endpoint group")
+                    .tag("group", group.tag)
+                    .register(meterRegistry));
+            rejections.put(group, Counter.builder("http.bulkhead.rejected")
+                    .description("Requests rejected because the endpoint group and its queue were full")
+                    .tag("group", group.tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    // Размеры групп берутся из настроек, поэтому сами группы и их датчики создаются после внедрения @Value
+    @PostConstruct
+    public void init() {
+        bulkheads.put(Group.TRANSFERS, new Bulkhead(transfersMaxConcurrent, transfersMaxQueue, transfersMaxWaitMs));
+        bulkheads.put(Group.READS, new Bulkhead(readsMaxConcurrent, readsMaxQueue, readsMaxWaitMs));
+        bulkheads.put(Group.ADMIN, new Bulkhead(adminMaxConcurrent, adminMaxQueue, adminMaxWaitMs));
+
+        bulkheads.forEach((group, bulkhead) -> {
+            Gauge.builder("http.bulkhead.active", bulkhead, Bulkhead::active)
+                    .description("Requests of the endpoint group being processed")
+                    .tag("group", group.tag)
+                    .register(meterRegistry);
+            Gauge.builder("http.bulkhead.queued", bulkhead, Bulkhead::queued)
+                    .description("Requests of the endpoint group waiting for a slot")
+                    .tag("group", group.tag)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Group group = Group.of(request);
+        Bulkhead bulkhead = bulkheads.get(group);
+        long start = System.nanoTime();
+        boolean entered = false;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waits.get(group).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!entered) {
+            rejections.get(group).increment();
+            ThrottlingResponses.reject(request, response, objectMapper, ErrorCode.SERVICE_BUSY,
+                    "Too many concurrent " + group.tag + " requests", 1);
+            return;
+        }
+
+        // Потоковый ответ продолжает работать после выхода из цепочки - место освобождается по его завершении
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release(bulkhead));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    private enum Group {
+        TRANSFERS,
+        READS,
+        ADMIN;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        // Изменение карт доступно только администратору
+        static Group of(HttpServletRequest request) {
+            String path = request.getRequestURI();
+            if (path.startsWith("/api/transfers")) {
+                return TRANSFERS;
+            }
+            if (path.startsWith("/api/admin/")
+                    || (path.startsWith("/api/cards") && !HttpMethod.GET.matches(request.getMethod()))) {
+                return ADMIN;
+            }
+            return READS;
+        }
+    }
+
+    // onComplete вызывается и после ошибки или таймаута
+    private record Release(Bulkhead bulkhead) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            bulkhead.exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
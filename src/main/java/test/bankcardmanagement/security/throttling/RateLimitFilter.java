@@ -0,0 +1,96 @@
+package test.bankcardmanagement.security.throttling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import test.bankcardmanagement.exception.ErrorCode;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Лимит запросов на пользователя (после JwtAuthenticationFilter) или, для запросов без токена
+// (вход в систему), на адрес клиента. У пользователей и адресов раздельные корзины.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Counter limitedUsers;
+    private final Counter limitedAddresses;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.capacity:100}")
+    private int capacity;
+
+    @Value("${app.rate-limit.tokens-per-second:20}")
+    private double tokensPerSecond;
+
+    @Value("${app.rate-limit.stripes:64}")
+    private int stripes;
+
+    private TokenBucketStore users;
+    private TokenBucketStore addresses;
+
+    public RateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.limitedUsers = limitedCounter(meterRegistry, "user");
+        this.limitedAddresses = limitedCounter(meterRegistry, "address");
+    }
+
+    // Корзины строятся по настройкам @Value, поэтому и датчик их числа регистрируется здесь
+    @PostConstruct
+    public void init() {
+        users = new TokenBucketStore(capacity, tokensPerSecond, stripes);
+        addresses = new TokenBucketStore(capacity, tokensPerSecond, stripes);
+        Gauge.builder("http.rate.limit.keys", this, filter -> filter.users.size() + filter.addresses.size())
+                .description("Clients with a partially drained token bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean user = authentication != null && authentication.isAuthenticated();
+        long waitNanos = user
+                ? users.tryAcquire(authentication.getName(), System.nanoTime())
+                : addresses.tryAcquire(request.getRemoteAddr(), System.nanoTime());
+        if (waitNanos > 0) {
+            (user ? limitedUsers : limitedAddresses).increment();
+            ThrottlingResponses.reject(request, response, objectMapper, ErrorCode.RATE_LIMITED,
+                    "Request rate limit exceeded", Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static Counter limitedCounter(MeterRegistry registry, String client) {
+        return Counter.builder("http.rate.limit.rejected")
+                .description("Requests rejected by the per-client token bucket")
+                .tag("client", client)
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package test.bankcardmanagement.security.throttling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import test.bankcardmanagement.dto.response.ErrorResponse;
+import test.bankcardmanagement.exception.ErrorCode;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+// Фильтры отказывают до DispatcherServlet, поэтому ответ в формате GlobalExceptionHandler пишут сами
+final class ThrottlingResponses {
+
+    private ThrottlingResponses() {
+    }
+
+    static void reject(HttpServletRequest request, HttpServletResponse response, ObjectMapper objectMapper,
+                       ErrorCode code, String message, long retryAfterSeconds) throws IOException {
+        response.setStatus(code.getStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(code.getStatus().value())
+                .error(code.getTitle())
+                .message(message)
+                .path(request.getRequestURI())
+                .build());
+    }
+}
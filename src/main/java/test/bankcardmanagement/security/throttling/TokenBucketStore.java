@@ -0,0 +1,86 @@
+package test.bankcardmanagement.security.throttling;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Token bucket на ключ в форме GCRA: вместо числа токенов и времени пополнения хранится одно число -
+// теоретическое время прихода следующего запроса (tat). Запрос проходит, если tat, сдвинутый на интервал
+// между токенами, опережает текущее время не больше чем на емкость корзины.
+// Ключи разбиты по полосам со своей блокировкой; память выделяется только под новый ключ. Ключ с полной
+// корзиной ничем не отличается от отсутствующего, поэтому такие ключи удаляются, когда полоса разрастается.
+final class TokenBucketStore {
+
+    private static final int MIN_SWEEP_SIZE = 64;
+
+    private static final class Bucket {
+        long tat;
+
+        Bucket(long tat) {
+            this.tat = tat;
+        }
+    }
+
+    private static final class Stripe {
+        final Map<String, Bucket> buckets = new HashMap<>();
+        int sweepAt = MIN_SWEEP_SIZE;
+    }
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    TokenBucketStore(int capacity, double tokensPerSecond, int stripes) {
+        if (capacity < 1 || tokensPerSecond <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Capacity and rate must be positive, stripes a power of two");
+        }
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000 / tokensPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = stripes - 1;
+    }
+
+    // 0 - запрос пропущен и токен списан, иначе - через сколько наносекунд появится токен
+    long tryAcquire(String key, long nowNanos) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= stripe.sweepAt) {
+                    sweep(stripe, nowNanos);
+                }
+                bucket = new Bucket(nowNanos);
+                stripe.buckets.put(key, bucket);
+            }
+            long tat = bucket.tat - nowNanos > 0 ? bucket.tat : nowNanos;
+            long next = tat + intervalNanos;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            bucket.tat = next;
+            return 0;
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    // Следующая чистка - когда полоса снова вырастет вдвое, чтобы при множестве активных ключей
+    // не перебирать полосу на каждый новый
+    private static void sweep(Stripe stripe, long nowNanos) {
+        stripe.buckets.values().removeIf(bucket -> bucket.tat - nowNanos <= 0);
+        stripe.sweepAt = Math.max(MIN_SWEEP_SIZE, stripe.buckets.size() * 2);
+    }
+}
@@ -9,12 +9,19 @@ import org.springframework.transaction.annotation.Transactional;
 import test.bankcardmanagement.dto.request.CardCreateRequest;
 import test.bankcardmanagement.dto.response.CardResponse;
 import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.LedgerEntry;
 import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.CardAlreadyExistsException;
 import test.bankcardmanagement.exception.CardNotFoundException;
 import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.UserNotFoundException;
+import test.bankcardmanagement.exception.ValidationException;
 import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
 import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.accounting.CardBalanceShardService;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Service
@@ -23,16 +30,18 @@ public class CardService {
 
     private final BankCardRepository cardRepository;
     private final UserRepository userRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
     private final EncryptionService encryptionService;
+    private final CardBalanceShardService cardBalanceShardService;
 
     @Transactional
     public CardResponse createCard(CardCreateRequest request) {
         User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         // Проверка номера карты (Luhn алгоритм)
         if (!isValidCardNumber(request.getCardNumber())) {
-            throw new IllegalArgumentException("Invalid card number");
+            throw new ValidationException("Invalid card number");
         }
 
         String encryptedCardNumber = encryptionService.encrypt(request.getCardNumber());
@@ -41,7 +50,7 @@ public class CardService {
 
         // Проверка уникальности карты
         if (cardRepository.existsByCardNumberHash(cardHash)) {
-            throw new RuntimeException("Card already exists");
+            throw new CardAlreadyExistsException("Card already exists");
         }
 
         BankCard card = BankCard.builder()
@@ -55,6 +64,10 @@ public class CardService {
                 .build();
 
         card = cardRepository.save(card);
+        // Начальный баланс - проводка открытия, чтобы баланс карты всегда сходился с суммой проводок
+        if (card.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+            ledgerEntryRepository.save(LedgerEntry.opening(card.getId(), card.getBalance()));
+        }
         return CardResponse.fromEntity(card);
     }
 
@@ -71,7 +84,7 @@ public class CardService {
     public Page<CardResponse> getUserCards(Pageable pageable) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
 
         return cardRepository.findByUser(user, pageable)
                 .map(CardResponse::fromEntity);
@@ -108,9 +121,22 @@ public class CardService {
             throw new OperationNotAllowedException("Admin permission required");
         }
 
+        if (card.getBalanceShards() > 0) {
+            cardBalanceShardService.resize(card, 0);
+        }
         cardRepository.delete(card);
     }
 
+    // Включает (shardCount > 0), меняет или выключает (0) шарды баланса для карты с потоком зачислений
+    @Transactional
+    public CardResponse updateBalanceShards(Long id, int shardCount) {
+        BankCard card = cardRepository.findById(id)
+                .orElseThrow(() -> new CardNotFoundException("Card not found with id: " + id));
+
+        cardBalanceShardService.resize(card, shardCount);
+        return CardResponse.fromEntity(cardRepository.save(card));
+    }
+
     private boolean isValidCardNumber(String cardNumber) {
         if (cardNumber == null || cardNumber.length() != 16) {
             return false;
@@ -1,7 +1,10 @@
 package test.bankcardmanagement.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import test.bankcardmanagement.monitoring.CardCryptoEvent;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
@@ -9,6 +12,7 @@ import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class EncryptionService {
@@ -19,20 +23,42 @@ public class EncryptionService {
     @Value("${app.card.encryption.algorithm}")
     private String algorithm;
 
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
+    private final Timer hashTimer;
+
+    public EncryptionService(MeterRegistry meterRegistry) {
+        encryptTimer = operationTimer(meterRegistry, "encrypt");
+        decryptTimer = operationTimer(meterRegistry, "decrypt");
+        hashTimer = operationTimer(meterRegistry, "hash");
+    }
+
     public String encrypt(String data) {
+        CardCryptoEvent event = new CardCryptoEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             Cipher cipher = Cipher.getInstance(algorithm);
             SecretKeySpec keySpec = new SecretKeySpec(encryptionKey.getBytes(StandardCharsets.UTF_8), "AES");
             IvParameterSpec ivSpec = new IvParameterSpec(encryptionKey.substring(0, 16).getBytes(StandardCharsets.UTF_8));
             cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
             byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            return Base64.getEncoder().encodeToString(encrypted);
+            String result = Base64.getEncoder().encodeToString(encrypted);
+            event.succeeded = true;
+            return result;
         } catch (Exception e) {
             throw new RuntimeException("Encryption failed", e);
+        } finally {
+            encryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.operation = "encrypt";
+            event.commit();
         }
     }
 
     public String decrypt(String encryptedData) {
+        CardCryptoEvent event = new CardCryptoEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             Cipher cipher = Cipher.getInstance(algorithm);
             SecretKeySpec keySpec = new SecretKeySpec(encryptionKey.getBytes(StandardCharsets.UTF_8), "AES");
@@ -40,22 +66,44 @@ public class EncryptionService {
             cipher.init(Cipher.DECRYPT_MODE, keySpec, ivSpec);
             byte[] decoded = Base64.getDecoder().decode(encryptedData);
             byte[] decrypted = cipher.doFinal(decoded);
-            return new String(decrypted, StandardCharsets.UTF_8);
+            String result = new String(decrypted, StandardCharsets.UTF_8);
+            event.succeeded = true;
+            return result;
         } catch (Exception e) {
             throw new RuntimeException("Decryption failed", e);
+        } finally {
+            decryptTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.operation = "decrypt";
+            event.commit();
         }
     }
 
     public String hash(String data) {
+        CardCryptoEvent event = new CardCryptoEvent();
+        event.begin();
+        long start = System.nanoTime();
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(hash);
+            String result = bytesToHex(hash);
+            event.succeeded = true;
+            return result;
         } catch (Exception e) {
             throw new RuntimeException("Hashing failed", e);
+        } finally {
+            hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            event.operation = "hash";
+            event.commit();
         }
     }
 
+    private static Timer operationTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("card.encryption")
+                .description("Time spent encrypting, decrypting or hashing card numbers")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
     private String bytesToHex(byte[] bytes) {
         StringBuilder hexString = new StringBuilder();
         for (byte b : bytes) {
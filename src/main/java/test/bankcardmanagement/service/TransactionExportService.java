@@ -0,0 +1,269 @@
+package test.bankcardmanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.dto.request.TransactionExportRequest;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.UserNotFoundException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.UserRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Выгрузка транзакций потоком: строки читаются курсором с фиксированным fetch size
+// и сразу пишутся в ответ, поэтому расход памяти не зависит от размера выгрузки
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    public static final String CSV_HEADER =
+            "transactionId,fromCardMasked,toCardMasked,amount,timestamp,status,description";
+    private static final String MASK = "**** **** **** ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final BankCardRepository cardRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    // Права проверяются здесь, в потоке запроса; сама запись идет уже в асинхронном потоке
+    public Export prepareMyExport(TransactionExportRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        List<Long> cardIds = cardRepository.findIdsByUserId(user.getId());
+        if (request.getCardId() != null) {
+            if (!cardIds.contains(request.getCardId())) {
+                throw new OperationNotAllowedException("Access denied to this card");
+            }
+            cardIds = List.of(request.getCardId());
+        }
+        return new Export(request, cardIds);
+    }
+
+    public Export prepareExport(TransactionExportRequest request) {
+        if (request.getCardId() != null) {
+            return new Export(request, List.of(request.getCardId()));
+        }
+        if (request.getUserId() != null) {
+            if (!userRepository.existsById(request.getUserId())) {
+                throw new UserNotFoundException(request.getUserId());
+            }
+            return new Export(request, cardRepository.findIdsByUserId(request.getUserId()));
+        }
+        // null - выгрузка по всему банку
+        return new Export(request, null);
+    }
+
+    public void write(Export export, OutputStream out) throws IOException {
+        TransactionExportRequest request = export.request();
+        OutputStream target = request.isGzip() ? new GZIPOutputStream(out, 8192) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 8192);
+        RowWriter rowWriter = request.getFormat() == TransactionExportRequest.ExportFormat.NDJSON
+                ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+
+        if (export.cardIds() == null || !export.cardIds().isEmpty()) {
+            try {
+                stream(export, rowWriter);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzip) {
+            gzip.finish();
+        }
+        out.flush();
+    }
+
+    private void stream(Export export, RowWriter rowWriter) {
+        TransactionExportRequest request = export.request();
+        StringBuilder period = new StringBuilder();
+        List<Object> periodParams = new ArrayList<>();
+        if (request.getFrom() != null) {
+            period.append(" AND t.timestamp >= ?");
+            periodParams.add(Timestamp.valueOf(request.getFrom()));
+        }
+        if (request.getTo() != null) {
+            period.append(" AND t.timestamp <= ?");
+            periodParams.add(Timestamp.valueOf(request.getTo()));
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT t.id, t.transaction_id, f.last_four_digits AS from_digits, r.last_four_digits AS to_digits, " +
+                        "t.amount, t.timestamp, t.status, t.description FROM ");
+        String cards = "JOIN bank_cards f ON f.id = t.from_card_id JOIN bank_cards r ON r.id = t.to_card_id";
+        List<Object> params = new ArrayList<>();
+        if (export.cardIds() == null) {
+            sql.append("transactions t ").append(cards).append(" WHERE 1 = 1").append(period);
+            params.addAll(periodParams);
+        } else {
+            // Две ветки по индексам (from_card_id | to_card_id, timestamp, id) вместо OR между ними;
+            // перевод между двумя картами выгрузки попадает только в первую ветку
+            String placeholders = String.join(",", Collections.nCopies(export.cardIds().size(), "?"));
+            sql.append("(SELECT t.id FROM transactions t WHERE t.from_card_id IN (").append(placeholders).append(")")
+                    .append(period)
+                    .append(" UNION ALL SELECT t.id FROM transactions t WHERE t.to_card_id IN (").append(placeholders)
+                    .append(") AND t.from_card_id NOT IN (").append(placeholders).append(")").append(period)
+                    .append(") k JOIN transactions t ON t.id = k.id ").append(cards);
+            params.addAll(export.cardIds());
+            params.addAll(periodParams);
+            params.addAll(export.cardIds());
+            params.addAll(export.cardIds());
+            params.addAll(periodParams);
+        }
+        sql.append(" ORDER BY t.timestamp, t.id");
+
+        // PostgreSQL отдает строки порциями по fetch size только внутри транзакции (autocommit off).
+        // Транзакция readOnly: самое долгое чтение в приложении уходит на реплику и не держит соединение основной БД
+        readOnlyTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(sql.toString(),
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(fetchSize);
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    return ps;
+                },
+                rs -> {
+                    try {
+                        rowWriter.write(rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+    }
+
+    public record Export(TransactionExportRequest request, List<Long> cardIds) {
+
+        public String fileName() {
+            String extension = request.getFormat() == TransactionExportRequest.ExportFormat.NDJSON ? ".ndjson" : ".csv";
+            return "transactions" + extension + (request.isGzip() ? ".gz" : "");
+        }
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    private static TransactionResponse toResponse(ResultSet rs) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        return TransactionResponse.builder()
+                .transactionId(rs.getString("transaction_id"))
+                .fromCardMasked(MASK + rs.getString("from_digits"))
+                .toCardMasked(MASK + rs.getString("to_digits"))
+                .amount(rs.getBigDecimal("amount"))
+                .timestamp(timestamp == null ? null : timestamp.toLocalDateTime())
+                .status(Transaction.TransactionStatus.valueOf(rs.getString("status")))
+                .description(rs.getString("description"))
+                .build();
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            appendCsv(writer, toResponse(rs));
+        }
+    }
+
+    // Строка CSV с переводом строки; формат общий с реактивной выгрузкой
+    public static void appendCsv(Appendable out, TransactionResponse row) throws IOException {
+        out.append(row.getTransactionId());
+        out.append(',');
+        out.append(row.getFromCardMasked());
+        out.append(',');
+        out.append(row.getToCardMasked());
+        out.append(',');
+        out.append(row.getAmount().toPlainString());
+        out.append(',');
+        out.append(row.getTimestamp() == null ? "" : row.getTimestamp().toString());
+        out.append(',');
+        out.append(row.getStatus().name());
+        out.append(',');
+        out.append(escape(row.getDescription()));
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Защита от формул при открытии выгрузки в табличном редакторе
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // Записи разделяем сами переводом строки, а не пробелом по умолчанию
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            objectMapper.writeValue(generator, toResponse(rs));
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+}
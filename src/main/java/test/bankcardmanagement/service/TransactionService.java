@@ -0,0 +1,87 @@
+package test.bankcardmanagement.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.UserNotFoundException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.util.CursorCodec;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionService {
+
+    private final TransactionRepository transactionRepository;
+    private final BankCardRepository cardRepository;
+    private final UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TransactionResponse> getMyTransactions(TransactionHistoryRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        List<Long> cardIds = cardRepository.findIdsByUserId(user.getId());
+        if (request.getCardId() != null) {
+            if (!cardIds.contains(request.getCardId())) {
+                throw new OperationNotAllowedException("Access denied to this card");
+            }
+            cardIds = List.of(request.getCardId());
+        }
+
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            String[] key = CursorCodec.decode(request.getCursor(), 2);
+            try {
+                afterTimestamp = LocalDateTime.parse(key[0]);
+                afterId = Long.parseLong(key[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+
+        // Берем на одну строку больше, чтобы узнать, есть ли следующая страница
+        List<Long> ids = transactionRepository.findHistoryIds(
+                cardIds, request, afterTimestamp, afterId, request.getSize() + 1);
+        boolean hasNext = ids.size() > request.getSize();
+        if (hasNext) {
+            ids = ids.subList(0, request.getSize());
+        }
+
+        Map<Long, Transaction> byId = ids.isEmpty() ? Map.of() :
+                transactionRepository.findAllWithCardsByIdIn(ids).stream()
+                        .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        List<Transaction> page = ids.stream().map(byId::get).toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = CursorCodec.encode(last.getTimestamp(), last.getId());
+        }
+
+        return CursorPageResponse.<TransactionResponse>builder()
+                .content(page.stream().map(TransactionResponse::fromEntity).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -1,41 +1,145 @@
 package test.bankcardmanagement.service;
 
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import test.bankcardmanagement.dto.request.TransferRequest;
+import test.bankcardmanagement.dto.response.TransactionResponse;
 import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.LedgerEntry;
 import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.exception.BusinessException;
+import test.bankcardmanagement.exception.CardNotFoundException;
 import test.bankcardmanagement.exception.InsufficientFundsException;
 import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.monitoring.TransferEvent;
 import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
 import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.service.accounting.CardBalanceShardService;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.service.journal.JournaledTransferProcessor;
+import test.bankcardmanagement.service.ledger.LedgerEngine;
+import test.bankcardmanagement.service.velocity.VelocityLimitService;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
-@RequiredArgsConstructor
 public class TransferService {
 
     private final BankCardRepository cardRepository;
     private final TransactionRepository transactionRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
     private final EncryptionService encryptionService;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final CardBalanceShardService cardBalanceShardService;
+    private final VelocityLimitService velocityLimitService;
+
+    // Есть только при app.ledger.enabled=true: балансы ведут шарды в памяти, а не строки bank_cards
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    // Есть только при app.journal.enabled=true: перевод подтверждается после записи в локальный журнал
+    @Autowired(required = false)
+    private JournaledTransferProcessor journaledTransferProcessor;
+
+    private final Map<Outcome, Timer> durations = new EnumMap<>(Outcome.class);
+    private final Map<Outcome, Counter> transfers = new EnumMap<>(Outcome.class);
+
+    public TransferService(BankCardRepository cardRepository,
+                           TransactionRepository transactionRepository,
+                           LedgerEntryRepository ledgerEntryRepository,
+                           EncryptionService encryptionService,
+                           TransactionIdGenerator transactionIdGenerator,
+                           CardBalanceShardService cardBalanceShardService,
+                           VelocityLimitService velocityLimitService,
+                           MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.encryptionService = encryptionService;
+        this.transactionIdGenerator = transactionIdGenerator;
+        this.cardBalanceShardService = cardBalanceShardService;
+        this.velocityLimitService = velocityLimitService;
+        for (Outcome outcome : Outcome.values()) {
+            durations.put(outcome, Timer.builder("transfer.duration")
+                    .description("Time to execute a transfer, without the commit")
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry));
+            transfers.put(outcome, Counter.builder("transfers")
+                    .description("Transfers by outcome")
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry));
+        }
+    }
 
     @Transactional
-    public Transaction transferBetweenOwnCards(TransferRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+    public TransactionResponse transferBetweenOwnCards(TransferRequest request) {
+        return measured(() -> {
+            String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+            String fromHash = encryptionService.hash(request.getFromCardNumber());
+            String toHash = encryptionService.hash(request.getToCardNumber());
+
+            BankCard fromCard = cardRepository.findByCardNumberHash(fromHash)
+                    .orElseThrow(() -> new CardNotFoundException("From card not found"));
+            BankCard toCard = cardRepository.findByCardNumberHash(toHash)
+                    .orElseThrow(() -> new CardNotFoundException("To card not found"));
+
+            return transfer(username, fromCard, toCard, request.getAmount(), request.getDescription());
+        });
+    }
 
-        String fromHash = encryptionService.hash(request.getFromCardNumber());
-        String toHash = encryptionService.hash(request.getToCardNumber());
+    // Плановый перевод по расписанию: контекста безопасности нет, владелец карт берется из расписания
+    @Transactional
+    public TransactionResponse transferScheduled(String username, Long fromCardId, Long toCardId,
+                                                 BigDecimal amount, String description) {
+        return measured(() -> {
+            BankCard fromCard = cardRepository.findById(fromCardId)
+                    .orElseThrow(() -> new CardNotFoundException(fromCardId));
+            BankCard toCard = cardRepository.findById(toCardId)
+                    .orElseThrow(() -> new CardNotFoundException(toCardId));
+
+            return transfer(username, fromCard, toCard, amount, description);
+        });
+    }
 
-        BankCard fromCard = cardRepository.findByCardNumberHash(fromHash)
-                .orElseThrow(() -> new RuntimeException("From card not found"));
-        BankCard toCard = cardRepository.findByCardNumberHash(toHash)
-                .orElseThrow(() -> new RuntimeException("To card not found"));
+    // Фиксация транзакции идет после выхода из метода: полное время запроса с ней - в http.server.requests
+    private TransactionResponse measured(Supplier<TransactionResponse> transfer) {
+        TransferEvent event = TransferEvent.start();
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            TransactionResponse response = transfer.get();
+            outcome = Outcome.COMPLETED;
+            return response;
+        } catch (RuntimeException e) {
+            outcome = Outcome.of(e);
+            throw e;
+        } finally {
+            durations.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            transfers.get(outcome).increment();
+            event.finish(outcome.tag);
+        }
+    }
 
+    private TransactionResponse transfer(String username, BankCard fromCard, BankCard toCard,
+                                         BigDecimal amount, String description) {
+        TransferEvent.transferring(fromCard.getId(), toCard.getId(), amount);
         if (!fromCard.getUser().getUsername().equals(username) ||
                 !toCard.getUser().getUsername().equals(username)) {
             throw new OperationNotAllowedException("You can only transfer between your own cards");
@@ -43,27 +147,54 @@ public class TransferService {
 
         checkCardStatus(fromCard);
         checkCardStatus(toCard);
+        velocityLimitService.reserve(fromCard.getId(), amount);
 
-        if (fromCard.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds");
+        if (ledgerEngine != null) {
+            return TransactionResponse.fromEntity(
+                    ledgerEngine.transfer(fromCard, toCard, amount, description));
+        }
+        if (journaledTransferProcessor != null) {
+            return TransactionResponse.fromEntity(
+                    journaledTransferProcessor.transfer(fromCard, toCard, amount, description));
         }
 
-        fromCard.setBalance(fromCard.getBalance().subtract(request.getAmount()));
-        toCard.setBalance(toCard.getBalance().add(request.getAmount()));
-
-        cardRepository.save(fromCard);
-        cardRepository.save(toCard);
+        // Строки карт блокируются сразу и по возрастанию id, как при пересчете балансов, - без взаимных блокировок.
+        // Карту-получателя с шардами не блокируем: зачисление идет в строку шарда
+        cardRepository.lockAllById(toCard.getBalanceShards() > 0
+                ? List.of(fromCard.getId())
+                : List.of(fromCard.getId(), toCard.getId()));
+
+        UUID transactionId = transactionIdGenerator.next();
+        // Баланс меняют атомарные UPDATE по заблокированным строкам: сущности загружены до блокировки,
+        // их балансы могли устареть и в проверке средств и в записи не участвуют
+        LocalDateTime now = LocalDateTime.now();
+        if (fromCard.getBalanceShards() > 0) {
+            cardBalanceShardService.debit(fromCard, amount);
+        } else if (cardRepository.debitIfSufficient(fromCard.getId(), amount, now) == 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+        if (toCard.getBalanceShards() > 0) {
+            cardBalanceShardService.credit(toCard, amount, transactionId);
+        } else {
+            cardRepository.addToBalance(toCard.getId(), amount, now);
+        }
 
         Transaction transaction = Transaction.builder()
-                .transactionId(UUID.randomUUID().toString())
+                .transactionId(transactionId)
                 .fromCard(fromCard)
                 .toCard(toCard)
-                .amount(request.getAmount())
-                .description(request.getDescription())
+                .amount(amount)
+                .description(description)
                 .status(Transaction.TransactionStatus.COMPLETED)
                 .build();
 
-        return transactionRepository.save(transaction);
+        transaction = transactionRepository.save(transaction);
+        // Проводки уходят в БД одной пачкой при коммите вместе с изменением балансов
+        ledgerEntryRepository.saveAll(List.of(
+                LedgerEntry.debit(transaction.getTransactionId(), fromCard.getId(), amount),
+                LedgerEntry.credit(transaction.getTransactionId(), toCard.getId(), amount)));
+
+        return TransactionResponse.fromEntity(transaction);
     }
 
     private void checkCardStatus(BankCard card) {
@@ -78,4 +209,28 @@ public class TransferService {
             throw new OperationNotAllowedException("Card is expired");
         }
     }
+
+    private enum Outcome {
+        COMPLETED,
+        INSUFFICIENT_FUNDS,
+        VELOCITY_LIMIT,
+        NOT_ALLOWED,
+        CARD_NOT_FOUND,
+        ERROR;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        static Outcome of(RuntimeException e) {
+            if (!(e instanceof BusinessException business)) {
+                return ERROR;
+            }
+            return switch (business.getErrorCode()) {
+                case INSUFFICIENT_FUNDS -> INSUFFICIENT_FUNDS;
+                case TRANSFER_LIMIT_EXCEEDED -> VELOCITY_LIMIT;
+                case OPERATION_NOT_ALLOWED -> NOT_ALLOWED;
+                case CARD_NOT_FOUND -> CARD_NOT_FOUND;
+                default -> ERROR;
+            };
+        }
+    }
 }
\ No newline at end of file
@@ -5,10 +5,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import test.bankcardmanagement.dto.request.UserCreateRequest;
+import test.bankcardmanagement.dto.request.UserListRequest;
+import test.bankcardmanagement.dto.request.UserSearchRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.UserResponse;
+import test.bankcardmanagement.dto.response.UserSummaryResponse;
 import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.UserAlreadyExistsException;
+import test.bankcardmanagement.exception.UserNotFoundException;
+import test.bankcardmanagement.exception.ValidationException;
 import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.repository.UserRepositoryCustom;
+import test.bankcardmanagement.util.CursorCodec;
 
 import java.util.List;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -18,23 +29,82 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
 
     @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public CursorPageResponse<UserSummaryResponse> getUsers(UserListRequest request) {
+        Long afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            try {
+                afterId = Long.parseLong(CursorCodec.decode(request.getCursor(), 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+
+        // Берем на одну строку больше, чтобы узнать, есть ли следующая страница
+        List<UserRepositoryCustom.UserSummary> page = userRepository.findSummaries(request, afterId, request.getSize() + 1);
+        boolean hasNext = page.size() > request.getSize();
+        if (hasNext) {
+            page = page.subList(0, request.getSize());
+        }
+
+        return CursorPageResponse.<UserSummaryResponse>builder()
+                .content(page.stream().map(UserSummaryResponse::fromSummary).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorCodec.encode(page.get(page.size() - 1).id()) : null)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<UserSummaryResponse> searchUsers(UserSearchRequest request) {
+        String afterKey = null;
+        Long afterId = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            // id идет первым: в username и email может встретиться разделитель курсора
+            String[] key = CursorCodec.decode(request.getCursor(), 2);
+            try {
+                afterId = Long.parseLong(key[0]);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+            afterKey = key[1];
+        }
+
+        List<UserRepositoryCustom.UserSummary> page = userRepository.searchSummaries(
+                request.getField(), request.getQ().trim(), afterKey, afterId, request.getSize() + 1);
+        boolean hasNext = page.size() > request.getSize();
+        if (hasNext) {
+            page = page.subList(0, request.getSize());
+        }
+
+        String nextCursor = null;
+        if (hasNext) {
+            UserRepositoryCustom.UserSummary last = page.get(page.size() - 1);
+            String lastKey = request.getField() == UserSearchRequest.SearchField.EMAIL ? last.email() : last.username();
+            nextCursor = CursorCodec.encode(last.id(), lastKey.toLowerCase(Locale.ROOT));
+        }
+
+        return CursorPageResponse.<UserSummaryResponse>builder()
+                .content(page.stream().map(UserSummaryResponse::fromSummary).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Transactional(readOnly = true)
-    public User getUserById(Long id) {
+    public UserResponse getUserById(Long id) {
         return userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+                .map(UserResponse::fromEntity)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
     }
 
     @Transactional
-    public User createUser(UserCreateRequest request) {
+    public UserResponse createUser(UserCreateRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists");
+            throw new UserAlreadyExistsException("Username already exists");
         }
         if (userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
+            throw new UserAlreadyExistsException("Email already exists");
         }
 
         User user = User.builder()
@@ -47,17 +117,17 @@ public class UserService {
                 .enabled(true)
                 .build();
 
-        return userRepository.save(user);
+        return UserResponse.fromEntity(userRepository.save(user));
     }
 
     @Transactional
-    public User updateUser(Long id, UserCreateRequest request) {
+    public UserResponse updateUser(Long id, UserCreateRequest request) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
 
         if (!user.getEmail().equals(request.getEmail()) &&
                 userRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
+            throw new UserAlreadyExistsException("Email already exists");
         }
 
         user.setEmail(request.getEmail());
@@ -69,13 +139,13 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
         }
 
-        return userRepository.save(user);
+        return UserResponse.fromEntity(userRepository.save(user));
     }
 
     @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
+            throw new UserNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
     }
@@ -0,0 +1,133 @@
+package test.bankcardmanagement.service.accounting;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.dto.response.BalanceCheckResponse;
+import test.bankcardmanagement.dto.response.BalanceMismatchResponse;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.service.ledger.LedgerEngine;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Сверяет bank_cards.balance с суммой проводок ledger_entries и при необходимости пересчитывает балансы.
+// Карты обрабатываются диапазонами id параллельно, каждый диапазон - в своей короткой транзакции.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceRebuildService {
+
+    // Баланс карты с шардами - сумма bank_cards.balance и ее строк card_balance_shards
+    private static final String FIND_MISMATCHES =
+            "SELECT c.id, " + CardBalanceShardService.TOTAL_BALANCE_SQL + " AS balance, " +
+                    "COALESCE(e.total, 0) AS ledger_balance FROM bank_cards c " +
+                    "LEFT JOIN (SELECT card_id, SUM(amount) AS total FROM ledger_entries " +
+                    "WHERE card_id BETWEEN ? AND ? GROUP BY card_id) e ON e.card_id = c.id " +
+                    "WHERE c.id BETWEEN ? AND ? AND " + CardBalanceShardService.TOTAL_BALANCE_SQL +
+                    " <> COALESCE(e.total, 0) ORDER BY c.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Есть только при app.ledger.enabled=true: балансы в памяти перечитываются из bank_cards лишь при старте
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Value("${app.balance-rebuild.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.balance-rebuild.parallelism:4}")
+    private int parallelism;
+
+    public BalanceCheckResponse verify() {
+        return run(false);
+    }
+
+    public BalanceCheckResponse rebuild() {
+        if (ledgerEngine != null) {
+            throw new OperationNotAllowedException("Balance rebuild is not available while the in-memory ledger is enabled");
+        }
+        return run(true);
+    }
+
+    private BalanceCheckResponse run(boolean correct) {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM bank_cards");
+        if (bounds.get("min_id") == null) {
+            return BalanceCheckResponse.builder().corrected(correct).mismatches(List.of()).build();
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<CompletableFuture<List<BalanceMismatchResponse>>> chunks = new ArrayList<>();
+            for (long start = minId; start <= maxId; start += chunkSize) {
+                long from = start;
+                long to = Math.min(maxId, start + chunkSize - 1);
+                chunks.add(CompletableFuture.supplyAsync(() -> processChunk(from, to, correct), executor));
+            }
+            List<BalanceMismatchResponse> mismatches = chunks.stream()
+                    .flatMap(chunk -> chunk.join().stream())
+                    .sorted(Comparator.comparing(BalanceMismatchResponse::getCardId))
+                    .toList();
+            if (!mismatches.isEmpty()) {
+                log.warn("Found {} card balances diverging from ledger entries{}",
+                        mismatches.size(), correct ? ", corrected" : "");
+            }
+            return BalanceCheckResponse.builder()
+                    .chunks(chunks.size())
+                    .corrected(correct)
+                    .mismatches(mismatches)
+                    .build();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<BalanceMismatchResponse> processChunk(long from, long to, boolean correct) {
+        if (!correct) {
+            return findMismatches(from, to);
+        }
+        return transactionTemplate.execute(status -> {
+            // Сначала блокируем строки карт по возрастанию id, потом их шарды - в том же порядке, что и переводы
+            // (TransferService блокирует карты по id до изменений), и только затем считаем суммы:
+            // так в них попадут все проводки переводов, закоммиченных до блокировки
+            jdbcTemplate.queryForList("SELECT id FROM bank_cards WHERE id BETWEEN ? AND ? ORDER BY id FOR UPDATE",
+                    Long.class, from, to);
+            jdbcTemplate.queryForList("SELECT id FROM card_balance_shards WHERE card_id BETWEEN ? AND ? " +
+                    "ORDER BY card_id, shard_no FOR UPDATE", Long.class, from, to);
+            List<BalanceMismatchResponse> mismatches = findMismatches(from, to);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate("UPDATE bank_cards SET balance = ?, updated_at = ? WHERE id = ?",
+                    mismatches, mismatches.size(), (ps, mismatch) -> {
+                        ps.setBigDecimal(1, mismatch.getLedgerBalance());
+                        ps.setTimestamp(2, now);
+                        ps.setLong(3, mismatch.getCardId());
+                    });
+            // Пересчитанный баланс целиком в bank_cards, шарды обнуляются
+            jdbcTemplate.batchUpdate("UPDATE card_balance_shards SET balance = 0 WHERE card_id = ?",
+                    mismatches, mismatches.size(), (ps, mismatch) -> ps.setLong(1, mismatch.getCardId()));
+            return mismatches;
+        });
+    }
+
+    private List<BalanceMismatchResponse> findMismatches(long from, long to) {
+        return jdbcTemplate.query(FIND_MISMATCHES, (rs, rowNum) -> BalanceMismatchResponse.builder()
+                .cardId(rs.getLong("id"))
+                .balance(rs.getBigDecimal("balance"))
+                .ledgerBalance(rs.getBigDecimal("ledger_balance"))
+                .build(), from, to, from, to);
+    }
+}
@@ -0,0 +1,90 @@
+package test.bankcardmanagement.service.accounting;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.CardBalanceShard;
+import test.bankcardmanagement.exception.InsufficientFundsException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.CardBalanceShardRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+// Баланс карты с шардами = bank_cards.balance + сумма ее строк card_balance_shards.
+// Зачисления идут в шард по хешу transaction_id, списания - из bank_cards.balance;
+// шарды сливаются в основной баланс, только если его не хватает для списания.
+// Порядок блокировок везде один: сначала строка карты, потом строки ее шардов.
+@Service
+@RequiredArgsConstructor
+public class CardBalanceShardService {
+
+    // Полный баланс карты (алиас c для bank_cards) для JDBC-запросов в обход сущности
+    public static final String TOTAL_BALANCE_SQL =
+            "c.balance + COALESCE((SELECT SUM(s.balance) FROM card_balance_shards s WHERE s.card_id = c.id), 0)";
+
+    private final BankCardRepository cardRepository;
+    private final CardBalanceShardRepository shardRepository;
+
+    @Value("${app.balance-shards.max-count:64}")
+    private int maxShards;
+
+    @Transactional
+    public void credit(BankCard card, BigDecimal amount, UUID transactionId) {
+        int shardNo = Math.floorMod(transactionId.hashCode(), card.getBalanceShards());
+        // Строки шарда может не быть, если число шардов меняют параллельно - тогда зачисляем в основной баланс
+        if (shardRepository.credit(card.getId(), shardNo, amount) == 0) {
+            cardRepository.addToBalance(card.getId(), amount, LocalDateTime.now());
+        }
+    }
+
+    @Transactional
+    public void debit(BankCard card, BigDecimal amount) {
+        if (cardRepository.debitIfSufficient(card.getId(), amount, LocalDateTime.now()) == 1) {
+            return;
+        }
+        consolidate(card.getId());
+        if (cardRepository.debitIfSufficient(card.getId(), amount, LocalDateTime.now()) == 0) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+    }
+
+    // Переносит накопленное в шардах в bank_cards.balance; возвращает перенесенную сумму
+    @Transactional
+    public BigDecimal consolidate(Long cardId) {
+        cardRepository.lockAllById(List.of(cardId));
+        List<CardBalanceShard> shards = shardRepository.findByCardIdOrderByShardNo(cardId);
+        BigDecimal total = shards.stream()
+                .map(CardBalanceShard::getBalance)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (total.signum() != 0) {
+            shards.forEach(shard -> shard.setBalance(BigDecimal.ZERO));
+            shardRepository.saveAll(shards);
+            cardRepository.addToBalance(cardId, total, LocalDateTime.now());
+        }
+        return total;
+    }
+
+    @Transactional
+    public void resize(BankCard card, int shardCount) {
+        if (shardCount < 0 || shardCount > maxShards) {
+            throw new ValidationException("Balance shard count must be between 0 and " + maxShards);
+        }
+        consolidate(card.getId());
+        shardRepository.deleteByCardId(card.getId());
+        shardRepository.saveAll(IntStream.range(0, shardCount)
+                .mapToObj(shardNo -> CardBalanceShard.builder()
+                        .cardId(card.getId())
+                        .shardNo(shardNo)
+                        .balance(BigDecimal.ZERO)
+                        .build())
+                .toList());
+        card.setBalanceShards(shardCount);
+    }
+}
@@ -0,0 +1,58 @@
+package test.bankcardmanagement.service.accounting;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import test.bankcardmanagement.entity.LedgerEntry;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Пакетная запись проводок для JDBC-путей (леджер в памяти и журнал переводов).
+// Вызывается внутри той же транзакции, что вставляет transactions и обновляет bank_cards.
+@Component
+@RequiredArgsConstructor
+public class LedgerEntryWriter {
+
+    // id берется из той же последовательности, что и у Hibernate: значение nextval всегда лежит
+    // в собственном диапазоне выделения и не пересекается с id, выданными пулом Hibernate
+    private static final String INSERT_ENTRY =
+            "INSERT INTO ledger_entries (id, transaction_id, card_id, entry_type, amount, created_at) " +
+                    "VALUES (nextval('ledger_entries_seq'), ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void writeTransfers(List<Posting> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        List<LedgerEntry> entries = new ArrayList<>(transfers.size() * 2);
+        for (Posting transfer : transfers) {
+            LedgerEntry debit = LedgerEntry.debit(transfer.transactionId(), transfer.fromCardId(), transfer.amount());
+            LedgerEntry credit = LedgerEntry.credit(transfer.transactionId(), transfer.toCardId(), transfer.amount());
+            debit.setCreatedAt(transfer.timestamp());
+            credit.setCreatedAt(transfer.timestamp());
+            entries.add(debit);
+            entries.add(credit);
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entries, entries.size(), (ps, entry) -> {
+            ps.setObject(1, entry.getTransactionId());
+            ps.setLong(2, entry.getCardId());
+            ps.setString(3, entry.getEntryType().name());
+            ps.setBigDecimal(4, entry.getAmount());
+            ps.setTimestamp(5, Timestamp.valueOf(entry.getCreatedAt()));
+        });
+    }
+
+    public record Posting(
+            UUID transactionId,
+            long fromCardId,
+            long toCardId,
+            BigDecimal amount,
+            LocalDateTime timestamp) {
+    }
+}
@@ -0,0 +1,361 @@
+package test.bankcardmanagement.service.accounting;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.dto.response.ReconciliationMismatchResponse;
+import test.bankcardmanagement.dto.response.ReconciliationRunResponse;
+import test.bankcardmanagement.entity.ReconciliationRun;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.ReconciliationRunNotFoundException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.repository.ReconciliationMismatchRepository;
+import test.bankcardmanagement.repository.ReconciliationRunRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Фоновая сверка bank_cards.balance с проведенными переводами: ожидаемый баланс карты - ее проводка
+// открытия плюс входящие и минус исходящие COMPLETED-переводы после этой проводки. Переводы до нее
+// уже вошли в сумму открытия (так их переносит миграция 005), поэтому не учитываются. Сверка идет по
+// transactions, а не по проводкам переводов, и этим не повторяет проверку BalanceRebuildService.
+// Пространство id карт делится на диапазоны, каждый сверяется одним агрегирующим запросом по индексам
+// на своем отрезке id, а не одним GROUP BY по всей таблице. Диапазоны обходятся задачами ограниченного ForkJoinPool.
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    // Баланс и переводы читаются одним запросом: переводы меняют их в одной транзакции, поэтому
+    // снимок запроса согласован и идущие параллельно переводы ложных расхождений не дают.
+    // Проводки открытия читаются по частичному индексу idx_ledger_entries_opening
+    private static final String OPENINGS =
+            "SELECT card_id, SUM(amount) AS total, MAX(created_at) AS opened_at FROM ledger_entries " +
+                    "WHERE card_id >= ? AND card_id < ? AND entry_type = 'OPENING' GROUP BY card_id";
+    private static final String RANGE_BALANCES =
+            "SELECT c.id, c.balance + COALESCE(s.total, 0) AS balance, " +
+                    "COALESCE(o.total, 0) + COALESCE(m.total, 0) AS expected FROM bank_cards c " +
+                    "LEFT JOIN (SELECT card_id, SUM(balance) AS total FROM card_balance_shards " +
+                    "WHERE card_id >= ? AND card_id < ? GROUP BY card_id) s ON s.card_id = c.id " +
+                    "LEFT JOIN (" + OPENINGS + ") o ON o.card_id = c.id " +
+                    "LEFT JOIN (SELECT t.card_id, SUM(t.amount) AS total FROM (" +
+                    "SELECT to_card_id AS card_id, amount, timestamp FROM transactions " +
+                    "WHERE to_card_id >= ? AND to_card_id < ? AND status = 'COMPLETED' " +
+                    "UNION ALL SELECT from_card_id AS card_id, -amount AS amount, timestamp FROM transactions " +
+                    "WHERE from_card_id >= ? AND from_card_id < ? AND status = 'COMPLETED'" +
+                    ") t LEFT JOIN (" + OPENINGS + ") p ON p.card_id = t.card_id " +
+                    "WHERE p.opened_at IS NULL OR t.timestamp > p.opened_at GROUP BY t.card_id) m ON m.card_id = c.id " +
+                    "WHERE c.id >= ? AND c.id < ?";
+    private static final String INSERT_MISMATCH =
+            "INSERT INTO reconciliation_mismatches (run_id, card_id, balance, expected_balance, detected_at) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+    private static final String RECORD_RANGE =
+            "UPDATE reconciliation_runs SET ranges_done = ranges_done + 1, cards_checked = cards_checked + ?, " +
+                    "mismatch_count = mismatch_count + ?, updated_at = ? WHERE id = ?";
+    private static final String FINISH_RUN =
+            "UPDATE reconciliation_runs SET status = ?, error = ?, finished_at = ?, updated_at = ? WHERE id = ?";
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationMismatchRepository mismatchRepository;
+    private final Timer rangeTimer;
+    private final Counter cardsChecked;
+    private final Counter mismatchesFound;
+
+    @Value("${app.reconciliation.range-size:1000}")
+    private int rangeSize;
+
+    @Value("${app.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.reconciliation.max-ranges-per-second:0}")
+    private int defaultMaxRangesPerSecond;
+
+    // start и resume не должны запустить два прохода сразу. Внутри - запросы к БД, поэтому
+    // ReentrantLock, а не synchronized: виртуальный поток не закрепляет за собой поток-носитель
+    private final ReentrantLock launchLock = new ReentrantLock();
+    private ForkJoinPool pool;
+    private volatile Job active;
+
+    public ReconciliationService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 ReconciliationRunRepository runRepository,
+                                 ReconciliationMismatchRepository mismatchRepository, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.runRepository = runRepository;
+        this.mismatchRepository = mismatchRepository;
+        this.rangeTimer = Timer.builder("reconciliation.range")
+                .description("Time to reconcile one card id range")
+                .register(meterRegistry);
+        this.cardsChecked = Counter.builder("reconciliation.cards.checked").register(meterRegistry);
+        this.mismatchesFound = Counter.builder("reconciliation.mismatches").register(meterRegistry);
+        Gauge.builder("reconciliation.progress", this, ReconciliationService::progress)
+                .description("Share of ranges done in the active reconciliation run")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Job job = active;
+        if (job != null) {
+            job.cancelled = true;
+        }
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public ReconciliationRunResponse start(Integer maxRangesPerSecond) {
+        launchLock.lock();
+        try {
+            ensureIdle();
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM bank_cards");
+            long rangeStart = bounds.get("min_id") == null ? 0 : ((Number) bounds.get("min_id")).longValue();
+            long rangeEnd = bounds.get("max_id") == null ? 0 : ((Number) bounds.get("max_id")).longValue() + 1;
+
+            ReconciliationRun run = runRepository.save(ReconciliationRun.builder()
+                    .status(ReconciliationRun.Status.RUNNING)
+                    .rangeStart(rangeStart)
+                    .rangeEnd(rangeEnd)
+                    .rangeSize(rangeSize)
+                    .rangesTotal((int) ((rangeEnd - rangeStart + rangeSize - 1) / rangeSize))
+                    .maxRangesPerSecond(throttle(maxRangesPerSecond))
+                    .startedAt(LocalDateTime.now())
+                    .build());
+            launch(run, new BitSet());
+            return ReconciliationRunResponse.fromEntity(run);
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    // Продолжает прерванный (остановкой приложения, ошибкой или отменой) запуск с сохраненных диапазонов
+    public ReconciliationRunResponse resume(Long runId, Integer maxRangesPerSecond) {
+        launchLock.lock();
+        try {
+            ensureIdle();
+            ReconciliationRun run = runRepository.findById(runId)
+                    .orElseThrow(() -> new ReconciliationRunNotFoundException(runId));
+            if (run.getStatus() == ReconciliationRun.Status.COMPLETED) {
+                throw new OperationNotAllowedException("Reconciliation run " + runId + " is already completed");
+            }
+
+            BitSet done = new BitSet(run.getRangesTotal());
+            jdbcTemplate.query("SELECT range_no FROM reconciliation_checkpoints WHERE run_id = ?",
+                    (RowCallbackHandler) rs -> done.set(rs.getInt("range_no")), runId);
+            run.setStatus(ReconciliationRun.Status.RUNNING);
+            run.setError(null);
+            run.setFinishedAt(null);
+            if (maxRangesPerSecond != null) {
+                run.setMaxRangesPerSecond(throttle(maxRangesPerSecond));
+            }
+            run = runRepository.save(run);
+            log.info("Resuming reconciliation run {}: {} of {} ranges already done", runId, done.cardinality(), run.getRangesTotal());
+            launch(run, done);
+            return ReconciliationRunResponse.fromEntity(run);
+        } finally {
+            launchLock.unlock();
+        }
+    }
+
+    // Уже начатые диапазоны дорабатываются, новые не берутся; запуск можно продолжить через resume
+    public ReconciliationRunResponse cancel(Long runId) {
+        Job job = active;
+        if (job == null || job.runId != runId) {
+            throw new OperationNotAllowedException("Reconciliation run " + runId + " is not in progress");
+        }
+        job.cancelled = true;
+        return getRun(runId);
+    }
+
+    public ReconciliationRunResponse getRun(Long runId) {
+        return runRepository.findById(runId)
+                .map(ReconciliationRunResponse::fromEntity)
+                .orElseThrow(() -> new ReconciliationRunNotFoundException(runId));
+    }
+
+    public Page<ReconciliationMismatchResponse> getMismatches(Long runId, Pageable pageable) {
+        if (!runRepository.existsById(runId)) {
+            throw new ReconciliationRunNotFoundException(runId);
+        }
+        return mismatchRepository.findByRunId(runId, pageable).map(ReconciliationMismatchResponse::fromEntity);
+    }
+
+    private void ensureIdle() {
+        Job job = active;
+        if (job != null) {
+            throw new OperationNotAllowedException("Reconciliation run " + job.runId + " is already in progress");
+        }
+    }
+
+    private int throttle(Integer maxRangesPerSecond) {
+        int value = maxRangesPerSecond == null ? defaultMaxRangesPerSecond : maxRangesPerSecond;
+        if (value < 0) {
+            throw new ValidationException("maxRangesPerSecond must not be negative");
+        }
+        return value;
+    }
+
+    private void launch(ReconciliationRun run, BitSet done) {
+        Job job = new Job(run, done);
+        active = job;
+        pool.execute(() -> runJob(job));
+    }
+
+    private void runJob(Job job) {
+        ReconciliationRun.Status status = ReconciliationRun.Status.COMPLETED;
+        String error = null;
+        try {
+            if (job.rangesTotal > 0) {
+                new RangeTask(job, 0, job.rangesTotal).invoke();
+            }
+            if (job.cancelled) {
+                status = ReconciliationRun.Status.CANCELLED;
+            }
+        } catch (RuntimeException e) {
+            log.error("Reconciliation run {} failed", job.runId, e);
+            status = ReconciliationRun.Status.FAILED;
+            error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            if (error.length() > MAX_ERROR_LENGTH) {
+                error = error.substring(0, MAX_ERROR_LENGTH);
+            }
+        } finally {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try {
+                jdbcTemplate.update(FINISH_RUN, status.name(), error, now, now, job.runId);
+            } finally {
+                active = null;
+            }
+        }
+        log.info("Reconciliation run {} finished with status {}", job.runId, status);
+    }
+
+    private void reconcileRange(Job job, int rangeNo) {
+        if (job.cancelled || job.done.get(rangeNo)) {
+            return;
+        }
+        job.throttle();
+
+        long from = job.rangeStart + (long) rangeNo * job.rangeSize;
+        long to = Math.min(job.rangeEnd, from + job.rangeSize);
+        long started = System.nanoTime();
+        AtomicInteger cards = new AtomicInteger();
+        List<Object[]> mismatches = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.query(RANGE_BALANCES, rs -> {
+            cards.incrementAndGet();
+            BigDecimal balance = rs.getBigDecimal("balance");
+            BigDecimal expected = rs.getBigDecimal("expected");
+            if (balance.compareTo(expected) != 0) {
+                mismatches.add(new Object[]{job.runId, rs.getLong("id"), balance, expected, now});
+            }
+        }, from, to, from, to, from, to, from, to, from, to, from, to);
+
+        // Расхождения, счетчики и отметка о диапазоне - атомарно: повтор после сбоя не задвоит их
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_MISMATCH, mismatches);
+            jdbcTemplate.update("INSERT INTO reconciliation_checkpoints (run_id, range_no) VALUES (?, ?)", job.runId, rangeNo);
+            jdbcTemplate.update(RECORD_RANGE, cards.get(), mismatches.size(), now, job.runId);
+        });
+        job.rangesDone.incrementAndGet();
+        rangeTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        cardsChecked.increment(cards.get());
+        mismatchesFound.increment(mismatches.size());
+        if (!mismatches.isEmpty()) {
+            log.warn("Reconciliation run {}: {} mismatches in card ids [{}, {})", job.runId, mismatches.size(), from, to);
+        }
+    }
+
+    private double progress() {
+        Job job = active;
+        return job == null || job.rangesTotal == 0 ? 0 : (double) job.rangesDone.get() / job.rangesTotal;
+    }
+
+    private static final class Job {
+        private final long runId;
+        private final long rangeStart;
+        private final long rangeEnd;
+        private final int rangeSize;
+        private final int rangesTotal;
+        private final BitSet done;
+        private final AtomicInteger rangesDone;
+        private final long intervalNanos;
+        private final AtomicLong nextPermit = new AtomicLong(System.nanoTime());
+        private volatile boolean cancelled;
+
+        private Job(ReconciliationRun run, BitSet done) {
+            this.runId = run.getId();
+            this.rangeStart = run.getRangeStart();
+            this.rangeEnd = run.getRangeEnd();
+            this.rangeSize = run.getRangeSize();
+            this.rangesTotal = run.getRangesTotal();
+            this.done = done;
+            this.rangesDone = new AtomicInteger(done.cardinality());
+            this.intervalNanos = run.getMaxRangesPerSecond() == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / run.getMaxRangesPerSecond();
+        }
+
+        // Равномерный темп: каждый диапазон получает свой слот времени, поток ждет до его начала
+        private void throttle() {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            long slot = nextPermit.getAndAccumulate(now, (next, current) -> Math.max(next, current) + intervalNanos);
+            long wait = Math.max(slot, now) - now;
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    // Делит отрезок диапазонов пополам до одного диапазона; свободные потоки пула забирают половины
+    private final class RangeTask extends RecursiveAction {
+        private final Job job;
+        private final int from;
+        private final int to;
+
+        private RangeTask(Job job, int from, int to) {
+            this.job = job;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                reconcileRange(job, from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(job, from, middle), new RangeTask(job, middle, to));
+        }
+    }
+}
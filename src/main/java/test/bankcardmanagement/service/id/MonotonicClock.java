@@ -0,0 +1,33 @@
+package test.bankcardmanagement.service.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Миллисекунды Unix-времени и 12-битный счетчик внутри миллисекунды, упакованные в один long.
+// Значения строго возрастают даже при откате системных часов: при переполнении счетчика
+// или откате время "занимается" вперед, пока реальные часы не догонят.
+final class MonotonicClock {
+
+    static final int COUNTER_BITS = 12;
+    static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final AtomicLong last = new AtomicLong();
+
+    long next() {
+        long candidate = System.currentTimeMillis() << COUNTER_BITS;
+        while (true) {
+            long previous = last.get();
+            long next = candidate > previous ? candidate : previous + 1;
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    static long millis(long value) {
+        return value >>> COUNTER_BITS;
+    }
+
+    static long counter(long value) {
+        return value & COUNTER_MASK;
+    }
+}
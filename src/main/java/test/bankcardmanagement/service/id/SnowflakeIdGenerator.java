@@ -0,0 +1,42 @@
+package test.bankcardmanagement.service.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// Snowflake-подобный id без случайности на горячем пути: время в мс, счетчик и номер узла,
+// упакованные в UUIDv8. Уникальность между инстансами обеспечивает app.transaction-id.node-id,
+// а соль, выбранная один раз при старте, защищает от повторов после перезапуска с откатом часов.
+@Component
+@ConditionalOnProperty(name = "app.transaction-id.generator", havingValue = "snowflake")
+public class SnowflakeIdGenerator implements TransactionIdGenerator {
+
+    static final int NODE_BITS = 10;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int SALT_BITS = 62 - NODE_BITS;
+
+    private final MonotonicClock clock = new MonotonicClock();
+    private final long lsb;
+
+    public SnowflakeIdGenerator(@Value("${app.transaction-id.node-id:0}") int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Transaction id node must be between 0 and " + MAX_NODE_ID);
+        }
+        long salt = new SecureRandom().nextLong() & ((1L << SALT_BITS) - 1);
+        this.lsb = 0x8000000000000000L | ((long) nodeId << SALT_BITS) | salt;
+    }
+
+    @Override
+    public UUID next() {
+        long time = clock.next();
+        long msb = (MonotonicClock.millis(time) << 16) | 0x8000L | MonotonicClock.counter(time);
+        return new UUID(msb, lsb);
+    }
+
+    static int nodeId(UUID id) {
+        return (int) ((id.getLeastSignificantBits() >>> SALT_BITS) & MAX_NODE_ID);
+    }
+}
@@ -0,0 +1,9 @@
+package test.bankcardmanagement.service.id;
+
+import java.util.UUID;
+
+// Источник transaction_id. Реализация выбирается через app.transaction-id.generator
+public interface TransactionIdGenerator {
+
+    UUID next();
+}
@@ -0,0 +1,25 @@
+package test.bankcardmanagement.service.journal;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+public record JournalRecord(
+        long sequence,
+        UUID transactionId,
+        long fromCardId,
+        long toCardId,
+        long amountMinor,
+        long timestampMicros,
+        String description) {
+
+    public LocalDateTime timestamp() {
+        return LocalDateTime.ofInstant(Instant.EPOCH.plus(timestampMicros, ChronoUnit.MICROS), ZoneId.systemDefault());
+    }
+
+    public static long toMicros(LocalDateTime timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,137 @@
+package test.bankcardmanagement.service.journal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.service.accounting.LedgerEntryWriter;
+import test.bankcardmanagement.util.MoneyUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+// Переносит подтвержденные записи журнала в transactions, ledger_entries и bank_cards.
+// Идемпотентно: записи, чей transaction_id уже есть в БД, пропускаются.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JournalRecordApplier {
+
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (transaction_id, from_card_id, to_card_id, amount, timestamp, status, description) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String APPLY_BALANCE_DELTA =
+            "UPDATE bank_cards SET balance = balance + ?, updated_at = ? WHERE id = ?";
+    private static final String INSERT_DEAD_LETTER =
+            "INSERT INTO transfer_dead_letters (source, sequence, transaction_id, from_card_id, to_card_id, amount, " +
+                    "timestamp, description, error, failed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerEntryWriter ledgerEntryWriter;
+
+    // Если БД отклоняет пачку по ограничениям (карту удалили до применения), записи применяются
+    // по одной, а отклоненные уходят в transfer_dead_letters - одна плохая запись не останавливает остальные.
+    // Возвращает отклоненные записи. Прочие ошибки (БД недоступна) пробрасываются - пачку повторят целиком.
+    public List<JournalRecord> apply(List<JournalRecord> batch, String source) {
+        List<JournalRecord> toApply = notApplied(batch);
+        if (toApply.isEmpty()) {
+            return List.of();
+        }
+        try {
+            write(toApply);
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Database rejected a batch of {} {} journal records, applying them one by one", toApply.size(), source);
+        }
+
+        List<JournalRecord> rejected = new ArrayList<>();
+        for (JournalRecord record : toApply) {
+            try {
+                write(List.of(record));
+            } catch (DataIntegrityViolationException e) {
+                deadLetter(record, source, e);
+                rejected.add(record);
+            }
+        }
+        return rejected;
+    }
+
+    private List<JournalRecord> notApplied(List<JournalRecord> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> alreadyApplied = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT transaction_id FROM transactions WHERE transaction_id IN (" +
+                        String.join(",", Collections.nCopies(batch.size(), "?")) + ")",
+                UUID.class,
+                batch.stream().map(JournalRecord::transactionId).toArray()));
+        return batch.stream()
+                .filter(record -> !alreadyApplied.contains(record.transactionId()))
+                .toList();
+    }
+
+    private void write(List<JournalRecord> records) {
+        // Дельты по карте складываем, чтобы обновлять каждую строку bank_cards один раз на пачку.
+        // TreeMap задает одинаковый порядок блокировок строк и исключает дедлоки с другими пачками.
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (JournalRecord record : records) {
+            deltas.merge(record.fromCardId(), -record.amountMinor(), Long::sum);
+            deltas.merge(record.toCardId(), record.amountMinor(), Long::sum);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, records, records.size(), (ps, record) -> {
+                ps.setObject(1, record.transactionId());
+                ps.setLong(2, record.fromCardId());
+                ps.setLong(3, record.toCardId());
+                ps.setBigDecimal(4, MoneyUtils.fromMinorUnits(record.amountMinor()));
+                ps.setTimestamp(5, Timestamp.valueOf(record.timestamp()));
+                ps.setString(6, Transaction.TransactionStatus.COMPLETED.name());
+                ps.setString(7, record.description());
+            });
+            ledgerEntryWriter.writeTransfers(records.stream()
+                    .map(record -> new LedgerEntryWriter.Posting(record.transactionId(), record.fromCardId(),
+                            record.toCardId(), MoneyUtils.fromMinorUnits(record.amountMinor()), record.timestamp()))
+                    .toList());
+            List<Map.Entry<Long, Long>> changed = deltas.entrySet().stream()
+                    .filter(delta -> delta.getValue() != 0)
+                    .toList();
+            jdbcTemplate.batchUpdate(APPLY_BALANCE_DELTA, changed, changed.size(), (ps, delta) -> {
+                ps.setBigDecimal(1, MoneyUtils.fromMinorUnits(delta.getValue()));
+                ps.setTimestamp(2, now);
+                ps.setLong(3, delta.getKey());
+            });
+        });
+    }
+
+    private void deadLetter(JournalRecord record, String source, DataIntegrityViolationException cause) {
+        String error = String.valueOf(cause.getMostSpecificCause().getMessage());
+        log.error("Moved {} journal record {} (transaction {}) to transfer_dead_letters: {}",
+                source, record.sequence(), record.transactionId(), error);
+        jdbcTemplate.update(INSERT_DEAD_LETTER,
+                source,
+                record.sequence(),
+                record.transactionId(),
+                record.fromCardId(),
+                record.toCardId(),
+                MoneyUtils.fromMinorUnits(record.amountMinor()),
+                Timestamp.valueOf(record.timestamp()),
+                record.description(),
+                error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+}
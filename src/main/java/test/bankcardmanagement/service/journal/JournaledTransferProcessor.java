@@ -0,0 +1,200 @@
+package test.bankcardmanagement.service.journal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.exception.CardNotFoundException;
+import test.bankcardmanagement.exception.InsufficientFundsException;
+import test.bankcardmanagement.monitoring.TransferEvent;
+import test.bankcardmanagement.service.accounting.CardBalanceShardService;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.util.MoneyUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Подтверждает перевод сразу после записи в журнал, а в bank_cards/transactions его переносит фоновый поток.
+// Пока запись не применена, сумма числится в pendingDebits карты отправителя и не может быть потрачена повторно.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class JournaledTransferProcessor implements SmartLifecycle {
+
+    static final String SOURCE = "journal";
+    private static final int LOCK_STRIPES = 64;
+
+    private final TransferJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final JournalRecordApplier recordApplier;
+
+    @Value("${app.journal.apply-batch-size:500}")
+    private int applyBatchSize;
+
+    @Value("${app.journal.apply-interval-ms:5}")
+    private long applyIntervalMs;
+
+    private final ReentrantLock[] stripes = createStripes();
+    private final Map<Long, Long> pendingDebits = new ConcurrentHashMap<>();
+    private Thread applier;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        // Записи после checkpoint могли не дойти до БД до остановки - применяем их до приема трафика
+        long replayed = 0;
+        List<JournalRecord> batch;
+        while (!(batch = journal.read(journal.checkpoint() + 1, applyBatchSize)).isEmpty()) {
+            apply(batch);
+            replayed += batch.size();
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} unapplied transfer journal records", replayed);
+        }
+
+        running = true;
+        applier = new Thread(this::applyLoop, "transfer-journal-applier");
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        applier.interrupt();
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public Transaction transfer(BankCard fromCard, BankCard toCard, BigDecimal amount, String description) {
+        long amountMinor = MoneyUtils.toMinorUnits(amount);
+        Instant now = Instant.now();
+        ReentrantLock lock = stripeFor(fromCard.getId());
+        JournalRecord record;
+
+        if (!lock.tryLock()) {
+            long waitStart = System.nanoTime();
+            lock.lock();
+            TransferEvent.lockWaited(System.nanoTime() - waitStart);
+        }
+        try {
+            // Баланс читаем заново, а не из сущности: фоновый поток мог уже применить часть записей
+            long available = loadBalance(fromCard.getId()) - pendingDebits.getOrDefault(fromCard.getId(), 0L);
+            if (available < amountMinor) {
+                throw new InsufficientFundsException("Insufficient funds");
+            }
+            record = journal.append(transactionIdGenerator.next(), fromCard.getId(), toCard.getId(), amountMinor,
+                    ChronoUnit.MICROS.between(Instant.EPOCH, now), description);
+            pendingDebits.merge(fromCard.getId(), amountMinor, Long::sum);
+        } finally {
+            lock.unlock();
+        }
+
+        return Transaction.builder()
+                .transactionId(record.transactionId())
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(amount)
+                .timestamp(LocalDateTime.ofInstant(now, ZoneId.systemDefault()))
+                .description(description)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .build();
+    }
+
+    private void applyLoop() {
+        while (running) {
+            try {
+                List<JournalRecord> batch = journal.read(journal.checkpoint() + 1, applyBatchSize);
+                if (batch.isEmpty()) {
+                    Thread.sleep(applyIntervalMs);
+                    continue;
+                }
+                apply(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Отклоненные БД записи recordApplier уже отложил, здесь только недоступность БД - повторяем пачку
+                log.error("Failed to apply transfer journal, retrying", e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Записи, отклоненные БД (карта удалена до применения), recordApplier переносит в transfer_dead_letters;
+    // checkpoint все равно сдвигается, а их суммы снимаются с pendingDebits, как и у примененных
+    void apply(List<JournalRecord> batch) {
+        List<JournalRecord> rejected = recordApplier.apply(batch, SOURCE);
+        if (!rejected.isEmpty()) {
+            log.error("{} journaled transfers were rejected by the database and moved to transfer_dead_letters",
+                    rejected.size());
+        }
+        journal.checkpoint(batch.get(batch.size() - 1).sequence());
+        for (JournalRecord record : batch) {
+            releasePendingDebit(record.fromCardId(), record.amountMinor());
+        }
+    }
+
+    private void releasePendingDebit(long cardId, long amountMinor) {
+        ReentrantLock lock = stripeFor(cardId);
+        lock.lock();
+        try {
+            pendingDebits.computeIfPresent(cardId, (id, pending) -> pending - amountMinor == 0 ? null : pending - amountMinor);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long loadBalance(long cardId) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT " + CardBalanceShardService.TOTAL_BALANCE_SQL + " FROM bank_cards c WHERE c.id = ?",
+                BigDecimal.class, cardId);
+        if (balances.isEmpty()) {
+            throw new CardNotFoundException(cardId);
+        }
+        return MoneyUtils.toMinorUnits(balances.get(0));
+    }
+
+    private ReentrantLock stripeFor(long cardId) {
+        return stripes[(int) Math.floorMod(cardId, (long) LOCK_STRIPES)];
+    }
+
+    private static ReentrantLock[] createStripes() {
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+}
@@ -0,0 +1,330 @@
+package test.bankcardmanagement.service.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only журнал переводов в отображенных в память сегментах с записями фиксированного размера.
+// Формат записи (RECORD_SIZE байт): magic, длина описания, sequence, UUID транзакции, id карт,
+// сумма в копейках, время в микросекундах, CRC32C заголовка и описания, описание в UTF-8.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class TransferJournal {
+
+    static final int RECORD_SIZE = 1024;
+    static final int HEADER_SIZE = 68;
+    static final int MAX_DESCRIPTION_BYTES = RECORD_SIZE - HEADER_SIZE;
+
+    private static final int MAGIC = 0x4A524E31;
+    private static final int CRC_OFFSET = 64;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    @Value("${app.journal.directory:./data/journal}")
+    private Path directory;
+
+    @Value("${app.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private FileChannel checkpointChannel;
+    private int recordsPerSegment;
+    private volatile long lastSequence;
+    private volatile long durableSequence;
+    private volatile long checkpoint;
+
+    public TransferJournal() {
+    }
+
+    // Отдельный журнал вне контекста Spring (у леджера в памяти свой каталог); open/close вызывает владелец
+    public TransferJournal(Path directory, int segmentSizeMb) {
+        this.directory = directory;
+        this.segmentSizeMb = segmentSizeMb;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        recordsPerSegment = (int) ((long) segmentSizeMb * 1024 * 1024 / RECORD_SIZE);
+
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        checkpoint = checkpointChannel.read(buffer, 0) == Long.BYTES ? buffer.flip().getLong() : 0L;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(TransferJournal::isSegment).sorted().toList()) {
+                long firstSequence = Long.parseLong(file.getFileName().toString()
+                        .substring(SEGMENT_PREFIX.length(), file.getFileName().toString().length() - SEGMENT_SUFFIX.length()));
+                segments.put(firstSequence, Segment.map(file, firstSequence, recordsPerSegment));
+            }
+        }
+
+        // Ищем конец журнала: первая пустая или битая (недописанная при сбое) запись
+        lastSequence = checkpoint;
+        for (Segment segment : segments.values()) {
+            while (segment.written < recordsPerSegment && segment.read(segment.written) != null) {
+                segment.written++;
+            }
+            if (segment.written > 0) {
+                lastSequence = Math.max(lastSequence, segment.firstSequence + segment.written - 1);
+            }
+        }
+        durableSequence = lastSequence;
+        log.info("Transfer journal opened at {}: last sequence {}, checkpoint {}", directory, lastSequence, checkpoint);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        appendLock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+            checkpointChannel.close();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Возвращает управление только после того, как запись сброшена на диск
+    public JournalRecord append(UUID transactionId, long fromCardId, long toCardId,
+                                long amountMinor, long timestampMicros, String description) {
+        byte[] descriptionBytes = description == null ? null : description.getBytes(StandardCharsets.UTF_8);
+        if (descriptionBytes != null && descriptionBytes.length > MAX_DESCRIPTION_BYTES) {
+            throw new IllegalArgumentException("Description is too long for the transfer journal");
+        }
+
+        JournalRecord record;
+        appendLock.lock();
+        try {
+            long sequence = lastSequence + 1;
+            Segment segment = segmentFor(sequence);
+            int slot = (int) (sequence - segment.firstSequence);
+            record = new JournalRecord(sequence, transactionId, fromCardId, toCardId,
+                    amountMinor, timestampMicros, description);
+            segment.write(slot, record, descriptionBytes);
+            segment.written = slot + 1;
+            lastSequence = sequence;
+        } finally {
+            appendLock.unlock();
+        }
+        forceUpTo(record.sequence());
+        return record;
+    }
+
+    // Групповой сброс: один force покрывает все записи, добавленные к этому моменту. Сбрасываем
+    // всегда префикс журнала, иначе после сбоя подтвержденная запись могла бы оказаться за дырой.
+    private void forceUpTo(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long target = lastSequence;
+            long next = durableSequence + 1;
+            while (next <= target) {
+                Segment segment = segmentContaining(next);
+                int fromSlot = (int) (next - segment.firstSequence);
+                int toSlot = (int) Math.min(target - segment.firstSequence + 1, recordsPerSegment);
+                segment.buffer.force(fromSlot * RECORD_SIZE, (toSlot - fromSlot) * RECORD_SIZE);
+                next = segment.firstSequence + toSlot;
+            }
+            durableSequence = target;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    // Читаются только сброшенные на диск записи, поэтому checkpoint никогда не обгоняет журнал
+    public List<JournalRecord> read(long fromSequence, int maxRecords) {
+        List<JournalRecord> records = new ArrayList<>();
+        long last = durableSequence;
+        for (long sequence = fromSequence; sequence <= last && records.size() < maxRecords; sequence++) {
+            Segment segment = segmentContaining(sequence);
+            JournalRecord record = segment == null ? null : segment.read((int) (sequence - segment.firstSequence));
+            if (record == null) {
+                break;
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    // Фиксирует номер последней записи, примененной к БД, и удаляет полностью примененные сегменты
+    public void checkpoint(long sequence) {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, sequence);
+        try {
+            checkpointChannel.write(buffer, 0);
+            checkpointChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write journal checkpoint", e);
+        }
+        checkpoint = sequence;
+        releaseAppliedSegments(sequence);
+    }
+
+    private void releaseAppliedSegments(long appliedSequence) {
+        appendLock.lock();
+        try {
+            while (segments.size() > 1) {
+                Map.Entry<Long, Segment> oldest = segments.firstEntry();
+                long lastInSegment = oldest.getKey() + recordsPerSegment - 1;
+                if (lastInSegment > appliedSequence || lastInSegment > durableSequence) {
+                    return;
+                }
+                segments.remove(oldest.getKey());
+                oldest.getValue().channel.close();
+                Files.deleteIfExists(oldest.getValue().file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete applied journal segment", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment segmentFor(long sequence) {
+        Map.Entry<Long, Segment> last = segments.lastEntry();
+        if (last != null && sequence < last.getKey() + recordsPerSegment) {
+            return last.getValue();
+        }
+        if (last != null) {
+            last.getValue().buffer.force();
+        }
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try {
+            Segment segment = Segment.map(file, sequence, recordsPerSegment);
+            segments.put(sequence, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + file, e);
+        }
+    }
+
+    private Segment segmentContaining(long sequence) {
+        appendLock.lock();
+        try {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(sequence);
+            return entry == null ? null : entry.getValue();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final long firstSequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int written;
+
+        private Segment(Path file, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.firstSequence = firstSequence;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, long firstSequence, int records) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE);
+            return new Segment(file, firstSequence, channel, buffer);
+        }
+
+        void write(int slot, JournalRecord record, byte[] description) {
+            int offset = slot * RECORD_SIZE;
+            int descriptionLength = description == null ? -1 : description.length;
+            buffer.putInt(offset + 4, descriptionLength);
+            buffer.putLong(offset + 8, record.sequence());
+            buffer.putLong(offset + 16, record.transactionId().getMostSignificantBits());
+            buffer.putLong(offset + 24, record.transactionId().getLeastSignificantBits());
+            buffer.putLong(offset + 32, record.fromCardId());
+            buffer.putLong(offset + 40, record.toCardId());
+            buffer.putLong(offset + 48, record.amountMinor());
+            buffer.putLong(offset + 56, record.timestampMicros());
+            if (description != null) {
+                buffer.put(offset + HEADER_SIZE, description);
+            }
+            buffer.putInt(offset + CRC_OFFSET, checksum(offset, Math.max(descriptionLength, 0)));
+            // magic пишется последним: запись без него считается незаполненной
+            buffer.putInt(offset, MAGIC);
+        }
+
+        JournalRecord read(int slot) {
+            int offset = slot * RECORD_SIZE;
+            if (buffer.getInt(offset) != MAGIC) {
+                return null;
+            }
+            int descriptionLength = buffer.getInt(offset + 4);
+            if (descriptionLength > MAX_DESCRIPTION_BYTES
+                    || buffer.getInt(offset + CRC_OFFSET) != checksum(offset, Math.max(descriptionLength, 0))) {
+                return null;
+            }
+            String description = null;
+            if (descriptionLength >= 0) {
+                byte[] bytes = new byte[descriptionLength];
+                buffer.get(offset + HEADER_SIZE, bytes);
+                description = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return new JournalRecord(
+                    buffer.getLong(offset + 8),
+                    new UUID(buffer.getLong(offset + 16), buffer.getLong(offset + 24)),
+                    buffer.getLong(offset + 32),
+                    buffer.getLong(offset + 40),
+                    buffer.getLong(offset + 48),
+                    buffer.getLong(offset + 56),
+                    description);
+        }
+
+        private int checksum(int offset, int descriptionLength) {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(offset + 4, CRC_OFFSET - 4));
+            crc.update(buffer.slice(offset + HEADER_SIZE, descriptionLength));
+            return (int) crc.getValue();
+        }
+    }
+}
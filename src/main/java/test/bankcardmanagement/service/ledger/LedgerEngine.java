@@ -0,0 +1,194 @@
+package test.bankcardmanagement.service.ledger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.service.accounting.CardBalanceShardService;
+import test.bankcardmanagement.util.MoneyUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Однопоточные шарды с балансами в памяти. Карты делятся по id, перевод идет шагами: резерв на шарде
+// отправителя, запись в журнал на диске, зачисление на шарде получателя, затем фиксация резерва.
+// Зачисление видно другим переводам только после записи в журнал, поэтому после сбоя журнал
+// не содержит переводов, потративших неподтвержденные деньги.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+public class LedgerEngine implements SmartLifecycle {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerJournal journal;
+    private final TransactionIdGenerator transactionIdGenerator;
+
+    @Value("${app.ledger.shards:8}")
+    private int shardCount;
+
+    @Value("${app.ledger.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private LedgerShard[] shards;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, this::loadBalance);
+        }
+        try {
+            journal.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ledger journal", e);
+        }
+        recover();
+        journal.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (LedgerShard shard : shards) {
+                shard.shutdown(shutdownTimeoutMs);
+            }
+            journal.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Ledger shutdown interrupted, {} journal records will be replayed on start", journal.backlog());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Стартуем раньше веб-сервера и останавливаемся после него
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // Вызывается после journal.open(): все подтвержденные переводы, в том числе не дошедшие до БД
+    // до сбоя, уже применены к bank_cards, поэтому таблица - точный снимок состояния шардов
+    void recover() {
+        long started = System.currentTimeMillis();
+        String balances = "SELECT c.id, " + CardBalanceShardService.TOTAL_BALANCE_SQL + " AS balance FROM bank_cards c";
+        jdbcTemplate.query(balances, (RowCallbackHandler) rs -> {
+            long cardId = rs.getLong("id");
+            shardFor(cardId).seed(cardId, MoneyUtils.toMinorUnits(rs.getBigDecimal("balance")));
+        });
+        int cards = 0;
+        for (LedgerShard shard : shards) {
+            cards += shard.size();
+        }
+        log.info("Ledger recovered {} cards into {} shards in {} ms",
+                cards, shards.length, System.currentTimeMillis() - started);
+    }
+
+    public Transaction transfer(BankCard fromCard, BankCard toCard, BigDecimal amount, String description) {
+        LedgerJournalEntry entry = new LedgerJournalEntry(
+                transactionIdGenerator.next(),
+                fromCard.getId(),
+                toCard.getId(),
+                MoneyUtils.toMinorUnits(amount),
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS),
+                description);
+
+        execute(entry);
+
+        return Transaction.builder()
+                .transactionId(entry.transactionId())
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(amount)
+                .timestamp(entry.timestamp())
+                .description(description)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .build();
+    }
+
+    public long getBalance(long cardId) {
+        LedgerShard shard = shardFor(cardId);
+        return shard.submit(() -> shard.available(cardId)).join();
+    }
+
+    void execute(LedgerJournalEntry entry) {
+        if (!running) {
+            throw new IllegalStateException("Ledger engine is not running");
+        }
+        long from = entry.fromCardId();
+        long to = entry.toCardId();
+        long amount = entry.amountMinor();
+        LedgerShard fromShard = shardFor(from);
+        LedgerShard toShard = shardFor(to);
+
+        journal.awaitCapacity();
+        await(fromShard.submit(() -> {
+            fromShard.reserve(from, amount);
+            return null;
+        }));
+        try {
+            // Получатель подгружается до записи в журнал: после нее зачисление уже не может не пройти
+            await(toShard.submit(() -> toShard.available(to)));
+            journal.append(entry);
+        } catch (RuntimeException e) {
+            await(fromShard.submit(() -> {
+                fromShard.release(from, amount);
+                return null;
+            }));
+            throw e;
+        }
+        CompletableFuture<Void> credited = toShard.submit(() -> {
+            toShard.credit(to, amount);
+            return null;
+        });
+        CompletableFuture<Void> committed = fromShard.submit(() -> {
+            fromShard.commit(from, amount);
+            return null;
+        });
+        await(credited);
+        await(committed);
+    }
+
+    LedgerShard shardFor(long cardId) {
+        return shards[(int) Math.floorMod(cardId, (long) shards.length)];
+    }
+
+    private Long loadBalance(long cardId) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT " + CardBalanceShardService.TOTAL_BALANCE_SQL + " FROM bank_cards c WHERE c.id = ?",
+                BigDecimal.class, cardId);
+        return balances.isEmpty() ? null : MoneyUtils.toMinorUnits(balances.get(0));
+    }
+
+    private static <T> T await(CompletableFuture<T> operation) {
+        try {
+            return operation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
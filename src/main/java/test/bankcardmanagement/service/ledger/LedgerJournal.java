@@ -0,0 +1,175 @@
+package test.bankcardmanagement.service.ledger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import test.bankcardmanagement.exception.ServiceBusyException;
+import test.bankcardmanagement.service.journal.JournalRecord;
+import test.bankcardmanagement.service.journal.JournalRecordApplier;
+import test.bankcardmanagement.service.journal.TransferJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Перевод леджера подтверждается только после записи в журнал на диске (свой каталог, формат TransferJournal),
+// а в transactions, ledger_entries и bank_cards его пачками переносит фоновый поток.
+// Записи после checkpoint применяются при следующем старте, поэтому подтвержденные переводы переживают сбой.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ledger.enabled", havingValue = "true")
+public class LedgerJournal {
+
+    static final String SOURCE = "ledger";
+
+    private final JournalRecordApplier applier;
+
+    @Value("${app.ledger.journal.directory:./data/ledger-journal}")
+    private Path directory;
+
+    @Value("${app.ledger.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${app.ledger.journal.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.ledger.journal.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${app.ledger.journal.max-backlog:100000}")
+    private long maxBacklog;
+
+    @Value("${app.ledger.journal.append-timeout-ms:1000}")
+    private long appendTimeoutMs;
+
+    @Value("${app.ledger.journal.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    private final ReentrantLock backlogLock = new ReentrantLock();
+    private final Condition drained = backlogLock.newCondition();
+    private TransferJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // Дописывает в БД записи, не дошедшие до нее до остановки или сбоя. Вызывается до чтения балансов
+    // в шарды; если БД их не принимает, исключение останавливает старт приложения
+    void open() throws IOException {
+        journal = new TransferJournal(directory, segmentSizeMb);
+        journal.open();
+        long replayed = 0;
+        List<JournalRecord> batch;
+        while (!(batch = journal.read(journal.checkpoint() + 1, batchSize)).isEmpty()) {
+            flush(batch);
+            replayed += batch.size();
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} unapplied ledger journal records", replayed);
+        }
+    }
+
+    void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "ledger-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join();
+        try {
+            List<JournalRecord> batch;
+            while (!(batch = journal.read(journal.checkpoint() + 1, batchSize)).isEmpty()) {
+                flush(batch);
+            }
+        } catch (RuntimeException e) {
+            // Записи остаются в журнале и будут применены при следующем старте
+            log.warn("Failed to flush ledger journal on shutdown, {} records will be replayed on start", backlog(), e);
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Failed to close ledger journal", e);
+        }
+    }
+
+    // Backpressure: если БД не успевает за переводами, ждем освобождения не дольше append-timeout-ms
+    // и отклоняем перевод до резерва средств
+    void awaitCapacity() {
+        if (backlog() < maxBacklog) {
+            return;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(appendTimeoutMs);
+        backlogLock.lock();
+        try {
+            while (backlog() >= maxBacklog) {
+                if (remaining <= 0) {
+                    throw new ServiceBusyException("Ledger journal backlog is full");
+                }
+                remaining = drained.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for ledger journal capacity");
+        } finally {
+            backlogLock.unlock();
+        }
+    }
+
+    // Возвращает управление после сброса записи на диск; только после этого перевод можно подтверждать
+    JournalRecord append(LedgerJournalEntry entry) {
+        return journal.append(entry.transactionId(), entry.fromCardId(), entry.toCardId(), entry.amountMinor(),
+                JournalRecord.toMicros(entry.timestamp()), entry.description());
+    }
+
+    long backlog() {
+        return journal.durableSequence() - journal.checkpoint();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                List<JournalRecord> batch = journal.read(journal.checkpoint() + 1, batchSize);
+                if (batch.isEmpty()) {
+                    Thread.sleep(flushIntervalMs);
+                    continue;
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Отклоненные БД записи applier уже отложил, здесь только недоступность БД - повторяем пачку
+                log.error("Failed to flush ledger journal, retrying in {} ms", retryDelayMs, e);
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flush(List<JournalRecord> batch) {
+        List<JournalRecord> rejected = applier.apply(batch, SOURCE);
+        if (!rejected.isEmpty()) {
+            // Шарды уже провели эти переводы в памяти: до разбора transfer_dead_letters их балансы
+            // расходятся с bank_cards, расхождение покажет сверка
+            log.error("{} ledger transfers were rejected by the database and moved to transfer_dead_letters",
+                    rejected.size());
+        }
+        journal.checkpoint(batch.get(batch.size() - 1).sequence());
+        backlogLock.lock();
+        try {
+            drained.signalAll();
+        } finally {
+            backlogLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package test.bankcardmanagement.service.ledger;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record LedgerJournalEntry(
+        UUID transactionId,
+        long fromCardId,
+        long toCardId,
+        long amountMinor,
+        LocalDateTime timestamp,
+        String description) {
+}
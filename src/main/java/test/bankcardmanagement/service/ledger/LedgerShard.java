@@ -0,0 +1,104 @@
+package test.bankcardmanagement.service.ledger;
+
+import test.bankcardmanagement.exception.CardNotFoundException;
+import test.bankcardmanagement.exception.InsufficientFundsException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+// Шард леджера: балансы своих карт меняет только собственный поток, поэтому блокировок нет
+class LedgerShard {
+
+    private final int index;
+    private final ExecutorService executor;
+    private final LongFunction<Long> balanceLoader;
+    private final Map<Long, Account> accounts = new HashMap<>();
+
+    LedgerShard(int index, LongFunction<Long> balanceLoader) {
+        this.index = index;
+        this.balanceLoader = balanceLoader;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-shard-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+
+    // Вызывается только до старта приема переводов, дальше видимость обеспечивает executor
+    void seed(long cardId, long balance) {
+        accounts.put(cardId, new Account(balance));
+    }
+
+    int size() {
+        return accounts.size();
+    }
+
+    long available(long cardId) {
+        return account(cardId).available;
+    }
+
+    void reserve(long cardId, long amount) {
+        Account account = account(cardId);
+        if (account.available < amount) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+        account.available -= amount;
+        account.reserved += amount;
+    }
+
+    void commit(long cardId, long amount) {
+        account(cardId).reserved -= amount;
+    }
+
+    void release(long cardId, long amount) {
+        Account account = account(cardId);
+        account.reserved -= amount;
+        account.available += amount;
+    }
+
+    void credit(long cardId, long amount) {
+        account(cardId).available += amount;
+    }
+
+    void shutdown(long timeoutMillis) throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private Account account(long cardId) {
+        Account account = accounts.get(cardId);
+        if (account == null) {
+            // Карта создана после восстановления шарда - подгружаем баланс из БД
+            Long balance = balanceLoader.apply(cardId);
+            if (balance == null) {
+                throw new CardNotFoundException(cardId);
+            }
+            account = new Account(balance);
+            accounts.put(cardId, account);
+        }
+        return account;
+    }
+
+    private static final class Account {
+        private long available;
+        private long reserved;
+
+        private Account(long available) {
+            this.available = available;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package test.bankcardmanagement.service.provisioning;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.dto.request.UserCreateRequest;
+import test.bankcardmanagement.dto.response.UserImportJobResponse;
+import test.bankcardmanagement.entity.UserImportJob;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.UserImportJobNotFoundException;
+import test.bankcardmanagement.repository.UserImportJobRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Массовое создание пользователей из NDJSON (по объекту UserCreateRequest в строке). Файл читается
+// потоком и обрабатывается пачками по chunk-size строк: дубликаты ищутся двумя IN-запросами на пачку,
+// BCrypt считается параллельно на пуле по числу ядер, пользователи вставляются JDBC-пачкой.
+// Пачка и счетчики задания фиксируются одной транзакцией, поэтому после сбоя повторная загрузка
+// того же файла с resumeJobId продолжает со строки, следующей за последней зафиксированной пачкой.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserProvisioningService {
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, password, email, first_name, last_name, role, enabled) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, TRUE)";
+    private static final String RECORD_CHUNK =
+            "UPDATE user_import_jobs SET lines_committed = ?, created = created + ?, skipped = skipped + ?, " +
+                    "rejected = rejected + ?, updated_at = ? WHERE id = ?";
+    private static final String FINISH_JOB =
+            "UPDATE user_import_jobs SET status = ?, error = ?, finished_at = ?, updated_at = ? WHERE id = ?";
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserImportJobRepository jobRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${app.user-import.chunk-size:1000}")
+    private int chunkSize;
+
+    // 0 - по числу ядер
+    @Value("${app.user-import.hashing-threads:0}")
+    private int hashingThreads;
+
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+    private ExecutorService hashingPool;
+
+    @PostConstruct
+    public void init() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        hashingPool = Executors.newFixedThreadPool(threads, daemonThreads("user-import-hash"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    // Блокирует вызывающий поток до конца файла; прогресс виден через getJob из других запросов
+    public UserImportJobResponse importUsers(InputStream ndjson, Long resumeJobId) {
+        UserImportJob job = resumeJobId == null ? newJob() : resumableJob(resumeJobId);
+        if (!activeJobs.add(job.getId())) {
+            throw new OperationNotAllowedException("User import job " + job.getId() + " is already in progress");
+        }
+        try {
+            job.setStatus(UserImportJob.Status.RUNNING);
+            job.setError(null);
+            job.setFinishedAt(null);
+            job = jobRepository.save(job);
+            run(job, ndjson);
+        } finally {
+            activeJobs.remove(job.getId());
+        }
+        return getJob(job.getId());
+    }
+
+    public UserImportJobResponse getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .map(UserImportJobResponse::fromEntity)
+                .orElseThrow(() -> new UserImportJobNotFoundException(jobId));
+    }
+
+    private UserImportJob newJob() {
+        return jobRepository.save(UserImportJob.builder()
+                .status(UserImportJob.Status.RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private UserImportJob resumableJob(Long jobId) {
+        UserImportJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new UserImportJobNotFoundException(jobId));
+        if (job.getStatus() == UserImportJob.Status.COMPLETED) {
+            throw new OperationNotAllowedException("User import job " + jobId + " is already completed");
+        }
+        return job;
+    }
+
+    private void run(UserImportJob job, InputStream ndjson) {
+        UserImportJob.Status status = UserImportJob.Status.COMPLETED;
+        String error = null;
+        long lineNo = 0;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+            String line;
+            while (lineNo < job.getLinesCommitted() && reader.readLine() != null) {
+                lineNo++;
+            }
+            if (lineNo > 0) {
+                log.info("Resuming user import job {} after line {}", job.getId(), lineNo);
+            }
+
+            List<String> chunk = new ArrayList<>(chunkSize);
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job.getId(), lineNo, chunk);
+                    lineNo += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job.getId(), lineNo, chunk);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("User import job {} failed", job.getId(), e);
+            status = UserImportJob.Status.FAILED;
+            error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            if (error.length() > MAX_ERROR_LENGTH) {
+                error = error.substring(0, MAX_ERROR_LENGTH);
+            }
+        } finally {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.update(FINISH_JOB, status.name(), error, now, now, job.getId());
+        }
+        log.info("User import job {} finished with status {}", job.getId(), status);
+    }
+
+    private void importChunk(Long jobId, long firstLineNo, List<String> lines) {
+        List<UserCreateRequest> candidates = new ArrayList<>(lines.size());
+        int rejected = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).isBlank()) {
+                continue;
+            }
+            UserCreateRequest request = parse(lines.get(i), firstLineNo + i + 1);
+            if (request == null) {
+                rejected++;
+            } else {
+                candidates.add(request);
+            }
+        }
+
+        // Дубликаты - и с уже существующими пользователями, и внутри файла
+        Set<String> takenUsernames = existing("username", candidates.stream().map(UserCreateRequest::getUsername).toList());
+        Set<String> takenEmails = existing("email", candidates.stream().map(UserCreateRequest::getEmail).toList());
+        List<UserCreateRequest> toCreate = new ArrayList<>(candidates.size());
+        for (UserCreateRequest candidate : candidates) {
+            if (!takenUsernames.contains(candidate.getUsername()) && !takenEmails.contains(candidate.getEmail())) {
+                takenUsernames.add(candidate.getUsername());
+                takenEmails.add(candidate.getEmail());
+                toCreate.add(candidate);
+            }
+        }
+        int skipped = candidates.size() - toCreate.size();
+
+        List<String> hashes = hash(toCreate);
+        List<Object[]> rows = new ArrayList<>(toCreate.size());
+        for (int i = 0; i < toCreate.size(); i++) {
+            UserCreateRequest request = toCreate.get(i);
+            rows.add(new Object[]{request.getUsername(), hashes.get(i), request.getEmail(),
+                    request.getFirstName(), request.getLastName(), request.getRole().name()});
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long linesCommitted = firstLineNo + lines.size();
+        int rejectedInChunk = rejected;
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER, rows);
+            jdbcTemplate.update(RECORD_CHUNK, linesCommitted, toCreate.size(), skipped, rejectedInChunk, now, jobId);
+        });
+        log.info("User import job {}: {} lines committed, chunk created {}, skipped {}, rejected {}",
+                jobId, linesCommitted, toCreate.size(), skipped, rejectedInChunk);
+    }
+
+    private UserCreateRequest parse(String line, long lineNo) {
+        try {
+            UserCreateRequest request = objectMapper.readValue(line, UserCreateRequest.class);
+            Set<ConstraintViolation<UserCreateRequest>> violations = validator.validate(request);
+            if (violations.isEmpty()) {
+                return request;
+            }
+            log.debug("User import line {} rejected: {}", lineNo, violations.iterator().next().getMessage());
+        } catch (JsonProcessingException e) {
+            log.debug("User import line {} rejected: {}", lineNo, e.getOriginalMessage());
+        }
+        return null;
+    }
+
+    private Set<String> existing(String column, Collection<String> values) {
+        if (values.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT " + column + " FROM users WHERE " + column + " IN (" +
+                        String.join(",", Collections.nCopies(values.size(), "?")) + ")",
+                String.class, values.toArray()));
+    }
+
+    private List<String> hash(List<UserCreateRequest> requests) {
+        List<Callable<String>> tasks = requests.stream()
+                .<Callable<String>>map(request -> () -> passwordEncoder.encode(request.getPassword()))
+                .toList();
+        try {
+            List<String> hashes = new ArrayList<>(tasks.size());
+            for (Future<String> future : hashingPool.invokeAll(tasks)) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash password", e.getCause());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package test.bankcardmanagement.service.recurring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.entity.RecurringTransfer;
+import test.bankcardmanagement.service.TransferService;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Выполняет пачку наступивших расписаний: одна выборка на пачку, затем каждый перевод в своей транзакции.
+// Запуск "захватывается" условным UPDATE по ожидаемому next_run_at, поэтому повтор таймера в колесе
+// или второй экземпляр приложения не проведут один и тот же запуск дважды.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecurringTransferExecutor {
+
+    private static final String LOAD_DUE =
+            "SELECT r.id, u.username, r.from_card_id, r.to_card_id, r.amount, r.description, r.frequency, r.next_run_at " +
+                    "FROM recurring_transfers r JOIN users u ON u.id = r.user_id " +
+                    "WHERE r.status = 'ACTIVE' AND r.id IN (";
+    private static final String CLAIM_SUCCEEDED =
+            "UPDATE recurring_transfers SET next_run_at = ?, last_run_at = ?, failure_count = 0, last_error = NULL " +
+                    "WHERE id = ? AND next_run_at = ? AND status = 'ACTIVE'";
+    private static final String CLAIM_FAILED =
+            "UPDATE recurring_transfers SET next_run_at = ?, last_run_at = ?, failure_count = failure_count + 1, last_error = ? " +
+                    "WHERE id = ? AND next_run_at = ? AND status = 'ACTIVE'";
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferService transferService;
+
+    record DueTransfer(long id, String username, long fromCardId, long toCardId, BigDecimal amount,
+                       String description, RecurringTransfer.Frequency frequency, LocalDateTime nextRunAt) {
+    }
+
+    // Возвращает новые сроки обработанных расписаний; еще не наступившие и отмененные пропускаются
+    Map<Long, LocalDateTime> run(Collection<Long> scheduleIds, LocalDateTime now) {
+        List<DueTransfer> due = jdbcTemplate.query(
+                LOAD_DUE + String.join(",", Collections.nCopies(scheduleIds.size(), "?")) + ") ORDER BY r.next_run_at",
+                (rs, rowNum) -> new DueTransfer(
+                        rs.getLong("id"),
+                        rs.getString("username"),
+                        rs.getLong("from_card_id"),
+                        rs.getLong("to_card_id"),
+                        rs.getBigDecimal("amount"),
+                        rs.getString("description"),
+                        RecurringTransfer.Frequency.valueOf(rs.getString("frequency")),
+                        rs.getTimestamp("next_run_at").toLocalDateTime()),
+                scheduleIds.toArray());
+
+        Map<Long, LocalDateTime> rescheduled = new HashMap<>();
+        for (DueTransfer transfer : due) {
+            if (transfer.nextRunAt().isAfter(now)) {
+                continue;
+            }
+            LocalDateTime nextRunAt = nextRun(transfer, now);
+            if (execute(transfer, nextRunAt, now)) {
+                rescheduled.put(transfer.id(), nextRunAt);
+            }
+        }
+        return rescheduled;
+    }
+
+    private boolean execute(DueTransfer transfer, LocalDateTime nextRunAt, LocalDateTime now) {
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(CLAIM_SUCCEEDED, Timestamp.valueOf(nextRunAt), Timestamp.valueOf(now),
+                        transfer.id(), Timestamp.valueOf(transfer.nextRunAt())) == 0) {
+                    return false;
+                }
+                transferService.transferScheduled(transfer.username(), transfer.fromCardId(), transfer.toCardId(),
+                        transfer.amount(), transfer.description());
+                return true;
+            });
+            return Boolean.TRUE.equals(claimed);
+        } catch (RuntimeException e) {
+            // Перевод отклонен (нет средств, лимит, карта заблокирована) - этот запуск пропускается
+            log.warn("Recurring transfer {} failed: {}", transfer.id(), e.getMessage());
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            return transactionTemplate.execute(status -> jdbcTemplate.update(CLAIM_FAILED,
+                    Timestamp.valueOf(nextRunAt), Timestamp.valueOf(now),
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                    transfer.id(), Timestamp.valueOf(transfer.nextRunAt()))) > 0;
+        }
+    }
+
+    // Пропущенные за время простоя запуски не догоняются: следующий срок - первый после now
+    private static LocalDateTime nextRun(DueTransfer transfer, LocalDateTime now) {
+        LocalDateTime next = transfer.frequency().next(transfer.nextRunAt());
+        while (!next.isAfter(now)) {
+            next = transfer.frequency().next(next);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,200 @@
+package test.bankcardmanagement.service.recurring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Планировщик регулярных переводов. В памяти только расписания со сроком до loadedUntil (горизонт
+// вперед от текущего времени): загрузчик раз в load-interval дочитывает из индекса по next_run_at
+// следующий отрезок, а не сканирует таблицу. Сроки лежат в TimingWheel; наступившие тикер
+// отдает пачками в пул из concurrency потоков.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecurringTransferScheduler implements SmartLifecycle {
+
+    private static final String LOAD_HORIZON =
+            "SELECT id, next_run_at FROM recurring_transfers " +
+                    "WHERE status = 'ACTIVE' AND next_run_at < ? AND (next_run_at, id) > (?, ?) " +
+                    "ORDER BY next_run_at, id LIMIT ?";
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RecurringTransferExecutor executor;
+
+    @Value("${app.recurring-transfers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.recurring-transfers.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${app.recurring-transfers.wheel-size:1024}")
+    private int wheelSize;
+
+    @Value("${app.recurring-transfers.horizon-ms:600000}")
+    private long horizonMs;
+
+    @Value("${app.recurring-transfers.load-interval-ms:60000}")
+    private long loadIntervalMs;
+
+    @Value("${app.recurring-transfers.load-page-size:1000}")
+    private int loadPageSize;
+
+    @Value("${app.recurring-transfers.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.recurring-transfers.concurrency:4}")
+    private int concurrency;
+
+    @Value("${app.recurring-transfers.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private TimingWheel wheel;
+    private ScheduledExecutorService timer;
+    private ExecutorService workers;
+    private volatile LocalDateTime loadedUntil = BEGINNING;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel = new TimingWheel(wheelSize, tickMs, clock.millis());
+        workers = Executors.newFixedThreadPool(concurrency, daemonThreads("recurring-transfer-worker"));
+        timer = Executors.newScheduledThreadPool(2, daemonThreads("recurring-transfer-timer"));
+        running = true;
+        // Первая загрузка берет и просроченные за время простоя расписания
+        timer.scheduleWithFixedDelay(this::loadHorizonSafely, 0, loadIntervalMs, TimeUnit.MILLISECONDS);
+        timer.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        timer.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // После восстановления счетчиков лимитов (фаза 1): плановые переводы проходят те же проверки
+    @Override
+    public int getPhase() {
+        return 2;
+    }
+
+    // Вызывается после коммита создания или выполнения расписания. Сроки за горизонтом подхватит
+    // загрузчик; loadedUntil он сдвигает до выборки, поэтому запись не теряется между ними.
+    // Двойная постановка безопасна: второй запуск не пройдет захват в RecurringTransferExecutor.
+    public void schedule(long scheduleId, LocalDateTime nextRunAt) {
+        if (running && nextRunAt.isBefore(loadedUntil)) {
+            wheel.schedule(scheduleId, toMillis(nextRunAt));
+        }
+    }
+
+    void loadHorizon() {
+        LocalDateTime from = loadedUntil;
+        LocalDateTime until = LocalDateTime.now(clock).plusNanos(horizonMs * 1_000_000);
+        if (!until.isAfter(from)) {
+            return;
+        }
+        loadedUntil = until;
+
+        LocalDateTime cursorRunAt = from;
+        long cursorId = 0;
+        int loaded = 0;
+        try {
+            while (true) {
+                List<Map<String, Object>> page = jdbcTemplate.queryForList(LOAD_HORIZON,
+                        Timestamp.valueOf(until), Timestamp.valueOf(cursorRunAt), cursorId, loadPageSize);
+                for (Map<String, Object> row : page) {
+                    cursorId = ((Number) row.get("id")).longValue();
+                    cursorRunAt = ((Timestamp) row.get("next_run_at")).toLocalDateTime();
+                    wheel.schedule(cursorId, toMillis(cursorRunAt));
+                }
+                loaded += page.size();
+                if (page.size() < loadPageSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Отрезок перечитаем целиком в следующий раз; уже поставленные таймеры задублируются безопасно
+            loadedUntil = from;
+            throw e;
+        }
+        if (loaded > 0) {
+            log.debug("Loaded {} recurring transfers due before {}", loaded, until);
+        }
+    }
+
+    void tick() {
+        List<TimingWheel.Timeout> due = wheel.advance(clock.millis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<TimingWheel.Timeout> batch = due.subList(from, Math.min(due.size(), from + batchSize));
+            workers.execute(() -> runBatch(batch));
+        }
+    }
+
+    private void runBatch(List<TimingWheel.Timeout> batch) {
+        try {
+            executor.run(batch.stream().map(TimingWheel.Timeout::scheduleId).toList(), LocalDateTime.now(clock))
+                    .forEach(this::schedule);
+        } catch (RuntimeException e) {
+            // Эти сроки уже до loadedUntil и загрузчик их не вернет - ставим повторно сами
+            log.error("Failed to run {} recurring transfers, retrying in {} ms", batch.size(), retryDelayMs, e);
+            long retryAt = clock.millis() + retryDelayMs;
+            batch.forEach(timeout -> wheel.schedule(timeout.scheduleId(), retryAt));
+        }
+    }
+
+    private void loadHorizonSafely() {
+        try {
+            loadHorizon();
+        } catch (RuntimeException e) {
+            log.error("Failed to load recurring transfers", e);
+        }
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
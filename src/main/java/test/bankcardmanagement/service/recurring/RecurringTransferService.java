@@ -0,0 +1,94 @@
+package test.bankcardmanagement.service.recurring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import test.bankcardmanagement.dto.request.RecurringTransferRequest;
+import test.bankcardmanagement.dto.response.RecurringTransferResponse;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.RecurringTransfer;
+import test.bankcardmanagement.exception.CardNotFoundException;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.RecurringTransferNotFoundException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.RecurringTransferRepository;
+import test.bankcardmanagement.service.EncryptionService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Service
+@RequiredArgsConstructor
+public class RecurringTransferService {
+
+    private final RecurringTransferRepository recurringTransferRepository;
+    private final BankCardRepository cardRepository;
+    private final EncryptionService encryptionService;
+    private final RecurringTransferScheduler scheduler;
+
+    @Transactional
+    public RecurringTransferResponse createRecurringTransfer(RecurringTransferRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        BankCard fromCard = cardRepository.findByCardNumberHash(encryptionService.hash(request.getFromCardNumber()))
+                .orElseThrow(() -> new CardNotFoundException("From card not found"));
+        BankCard toCard = cardRepository.findByCardNumberHash(encryptionService.hash(request.getToCardNumber()))
+                .orElseThrow(() -> new CardNotFoundException("To card not found"));
+
+        if (!fromCard.getUser().getUsername().equals(username) ||
+                !toCard.getUser().getUsername().equals(username)) {
+            throw new OperationNotAllowedException("You can only transfer between your own cards");
+        }
+
+        // Срок в прошлом означает "выполнить сразу"
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime firstRunAt = request.getFirstRunAt() == null || request.getFirstRunAt().isBefore(now)
+                ? now
+                : request.getFirstRunAt().truncatedTo(ChronoUnit.SECONDS);
+
+        RecurringTransfer recurringTransfer = recurringTransferRepository.save(RecurringTransfer.builder()
+                .user(fromCard.getUser())
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .frequency(request.getFrequency())
+                .nextRunAt(firstRunAt)
+                .build());
+
+        // Ставим в колесо только после коммита, иначе исполнитель может не увидеть запись
+        Long id = recurringTransfer.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                scheduler.schedule(id, firstRunAt);
+            }
+        });
+        return RecurringTransferResponse.fromEntity(recurringTransfer);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<RecurringTransferResponse> getMyRecurringTransfers(Pageable pageable) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return recurringTransferRepository.findByUserUsername(username, pageable)
+                .map(RecurringTransferResponse::fromEntity);
+    }
+
+    @Transactional
+    public void cancelRecurringTransfer(Long id) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        RecurringTransfer recurringTransfer = recurringTransferRepository.findById(id)
+                .orElseThrow(() -> new RecurringTransferNotFoundException(id));
+
+        if (!recurringTransfer.getUser().getUsername().equals(username)) {
+            throw new OperationNotAllowedException("You can only cancel your own recurring transfers");
+        }
+        // Таймер в колесе останется, но исполнитель пропустит отмененное расписание
+        recurringTransfer.setStatus(RecurringTransfer.Status.CANCELLED);
+    }
+}
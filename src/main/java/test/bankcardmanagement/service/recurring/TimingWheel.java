@@ -0,0 +1,88 @@
+package test.bankcardmanagement.service.recurring;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Хешированное колесо таймеров: слот = номер тика срока по модулю размера колеса, так что
+// постановка - O(1), а тик просматривает только свой слот. Записи дальше одного оборота
+// лежат в том же слоте и пропускаются, пока не наступит их тик. Запись отдается, только когда наступил
+// сам срок, а не его тик: иначе срок не на границе тика сработал бы раньше времени.
+// schedule() потокобезопасен; advance() вызывается только из одного потока-тикера.
+final class TimingWheel {
+
+    record Timeout(long scheduleId, long deadlineMillis) {
+    }
+
+    private final long tickMs;
+    private final List<Timeout>[] slots;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private long tick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(int wheelSize, long tickMs, long startMillis) {
+        this.tickMs = tickMs;
+        this.slots = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ArrayList<>();
+        }
+        this.tick = startMillis / tickMs;
+    }
+
+    void schedule(long scheduleId, long deadlineMillis) {
+        incoming.add(new Timeout(scheduleId, deadlineMillis));
+    }
+
+    // Проходит все тики до nowMillis включительно и возвращает записи со сроком не позже nowMillis
+    List<Timeout> advance(long nowMillis) {
+        List<Timeout> due = new ArrayList<>();
+        long target = nowMillis / tickMs;
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            long deadlineTick = timeout.deadlineMillis() / tickMs;
+            if (deadlineTick < tick) {
+                due.add(timeout);
+            } else {
+                slots[slot(deadlineTick)].add(timeout);
+                size++;
+            }
+        }
+
+        // После долгой паузы достаточно одного прохода по всем слотам вместо перебора каждого тика
+        if (target - tick >= slots.length) {
+            for (List<Timeout> slot : slots) {
+                expire(slot, target, nowMillis, due);
+            }
+        } else {
+            for (long t = tick; t <= target; t++) {
+                expire(slots[slot(t)], t, nowMillis, due);
+            }
+        }
+        // Текущий тик просматривается и в следующий раз: в нем могут остаться записи с еще не наступившим сроком
+        tick = Math.max(tick, target);
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void expire(List<Timeout> slot, long upToTick, long nowMillis, List<Timeout> due) {
+        Iterator<Timeout> iterator = slot.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.deadlineMillis() / tickMs <= upToTick && timeout.deadlineMillis() <= nowMillis) {
+                iterator.remove();
+                due.add(timeout);
+                size--;
+            }
+        }
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.length);
+    }
+}
@@ -0,0 +1,21 @@
+package test.bankcardmanagement.service.velocity;
+
+import java.time.Duration;
+
+// Лимит на исходящие переводы карты за скользящее окно; 0 в maxCount/maxAmountMinor - без ограничения
+public record VelocityLimit(String name, Duration window, int buckets, int maxCount, long maxAmountMinor) {
+
+    public VelocityLimit {
+        if (buckets < 1 || window.toMillis() % buckets != 0) {
+            throw new IllegalArgumentException("Window " + window + " must split into " + buckets + " equal buckets");
+        }
+    }
+
+    long bucketMillis() {
+        return window.toMillis() / buckets;
+    }
+
+    boolean isEnabled() {
+        return maxCount > 0 || maxAmountMinor > 0;
+    }
+}
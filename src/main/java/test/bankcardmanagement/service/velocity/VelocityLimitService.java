@@ -0,0 +1,259 @@
+package test.bankcardmanagement.service.velocity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.exception.VelocityLimitExceededException;
+import test.bankcardmanagement.util.MoneyUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Лимиты на число и сумму исходящих переводов карты за час и за сутки. Счетчики живут в памяти
+// (VelocityWindow на карту и лимит), так что проверка не читает transactions; при старте они
+// восстанавливаются по проведенным переводам за самое длинное окно.
+@Slf4j
+@Service
+public class VelocityLimitService implements SmartLifecycle {
+
+    private static final String RECENT_TRANSFERS =
+            "SELECT from_card_id, amount, timestamp FROM transactions WHERE status = ? AND timestamp >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer checkTimer;
+
+    @Value("${app.velocity.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.velocity.hourly.max-count:0}")
+    private int hourlyMaxCount;
+
+    @Value("${app.velocity.hourly.max-amount:0}")
+    private BigDecimal hourlyMaxAmount;
+
+    @Value("${app.velocity.hourly.buckets:60}")
+    private int hourlyBuckets;
+
+    @Value("${app.velocity.daily.max-count:0}")
+    private int dailyMaxCount;
+
+    @Value("${app.velocity.daily.max-amount:0}")
+    private BigDecimal dailyMaxAmount;
+
+    @Value("${app.velocity.daily.buckets:96}")
+    private int dailyBuckets;
+
+    @Value("${app.velocity.sweep-interval-ms:600000}")
+    private long sweepIntervalMs;
+
+    private Clock clock = Clock.systemDefaultZone();
+    private final Map<Long, CardWindows> cards = new ConcurrentHashMap<>();
+    private List<VelocityLimit> limits = List.of();
+    private ScheduledExecutorService sweeper;
+    private volatile boolean running;
+
+    public VelocityLimitService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkTimer = Timer.builder("transfer.velocity.check")
+                .description("Time spent checking and recording transfer velocity limits")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (enabled) {
+            limits = Stream.of(
+                            new VelocityLimit("Hourly", Duration.ofHours(1), hourlyBuckets,
+                                    hourlyMaxCount, MoneyUtils.toMinorUnits(hourlyMaxAmount)),
+                            new VelocityLimit("Daily", Duration.ofDays(1), dailyBuckets,
+                                    dailyMaxCount, MoneyUtils.toMinorUnits(dailyMaxAmount)))
+                    .filter(VelocityLimit::isEnabled)
+                    .toList();
+        }
+
+        if (!limits.isEmpty()) {
+            rebuild();
+            sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "velocity-limit-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // После восстановления журнала переводов (фаза 0): его записи тоже должны попасть в счетчики
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    // Проверяет лимиты карты-отправителя и сразу учитывает перевод. Внутри транзакции учет
+    // откатывается вместе с ней, поэтому неудавшийся перевод лимит не расходует.
+    public void reserve(Long cardId, BigDecimal amount) {
+        if (limits.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        long amountMinor = MoneyUtils.toMinorUnits(amount);
+        long now = clock.millis();
+        CardWindows card = enter(cardId);
+        VelocityWindow[] windows = card.windows;
+        long[] epochs = new long[windows.length];
+        try {
+            for (int i = 0; i < windows.length; i++) {
+                epochs[i] = windows[i].tryAdd(now, amountMinor);
+                if (epochs[i] < 0) {
+                    release(windows, epochs, i, amountMinor);
+                    throw new VelocityLimitExceededException(limits.get(i).name() + " transfer limit exceeded for the card");
+                }
+            }
+        } finally {
+            card.exit();
+            checkTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(windows, epochs, windows.length, amountMinor);
+                    }
+                }
+            });
+        }
+    }
+
+    void rebuild() {
+        Duration longest = limits.stream().map(VelocityLimit::window).max(Comparator.naturalOrder()).orElseThrow();
+        long since = clock.millis() - longest.toMillis();
+        AtomicLong restored = new AtomicLong();
+        jdbcTemplate.query(RECENT_TRANSFERS, rs -> {
+            long amountMinor = MoneyUtils.toMinorUnits(rs.getBigDecimal("amount"));
+            long time = rs.getTimestamp("timestamp").getTime();
+            for (VelocityWindow window : cards.computeIfAbsent(rs.getLong("from_card_id"), id -> newCard()).windows) {
+                window.add(time, amountMinor);
+            }
+            restored.incrementAndGet();
+        }, Transaction.TransactionStatus.COMPLETED.name(), new Timestamp(since));
+        log.info("Velocity counters restored from {} transfers of {} cards", restored.get(), cards.size());
+    }
+
+    // Карты без переводов за самое длинное окно не держим в памяти. Окна сначала списываются (reserve
+    // в них больше не пишет), и только потом проверяются еще раз: перевод, учтенный между первой
+    // проверкой и списанием, оставляет окна в cards, а не в удаленном массиве
+    void sweep() {
+        long now = clock.millis();
+        for (Map.Entry<Long, CardWindows> entry : cards.entrySet()) {
+            CardWindows card = entry.getValue();
+            if (card.isExpired(now) && card.retire()) {
+                if (card.isExpired(now)) {
+                    cards.remove(entry.getKey(), card);
+                } else {
+                    card.restore();
+                }
+            }
+        }
+    }
+
+    // Списанные sweep окна ждут удаления из cards; reserve берет окна, созданные после них
+    private CardWindows enter(Long cardId) {
+        while (true) {
+            CardWindows card = cards.computeIfAbsent(cardId, id -> newCard());
+            if (card.enter()) {
+                return card;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private CardWindows newCard() {
+        return new CardWindows(limits.stream().map(VelocityWindow::new).toArray(VelocityWindow[]::new));
+    }
+
+    private static void release(VelocityWindow[] windows, long[] epochs, int reserved, long amountMinor) {
+        for (int i = 0; i < reserved; i++) {
+            windows[i].release(epochs[i], amountMinor);
+        }
+    }
+
+    // Окна карты и число идущих в них reserve; RETIRED - окна списаны sweep
+    private static final class CardWindows {
+        private static final int RETIRED = -1;
+
+        private final VelocityWindow[] windows;
+        private final AtomicInteger users = new AtomicInteger();
+
+        private CardWindows(VelocityWindow[] windows) {
+            this.windows = windows;
+        }
+
+        private boolean enter() {
+            while (true) {
+                int current = users.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                if (users.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void exit() {
+            users.decrementAndGet();
+        }
+
+        private boolean retire() {
+            return users.compareAndSet(0, RETIRED);
+        }
+
+        private void restore() {
+            users.set(0);
+        }
+
+        private boolean isExpired(long nowMillis) {
+            for (VelocityWindow window : windows) {
+                if (!window.isExpired(nowMillis)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
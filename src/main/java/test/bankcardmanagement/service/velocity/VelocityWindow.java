@@ -0,0 +1,101 @@
+package test.bankcardmanagement.service.velocity;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Кольцевой буфер счетчиков одной карты для одного лимита. Окно делится на buckets интервалов,
+// слот хранит неизменяемый Bucket с номером своего интервала; устаревший слот переиспользуется.
+// Все изменения - CAS слота текущего интервала, поэтому проверка и учет перевода атомарны без блокировок.
+final class VelocityWindow {
+
+    private record Bucket(long epoch, int count, long amountMinor) {
+    }
+
+    private static final Bucket EMPTY = new Bucket(Long.MIN_VALUE, 0, 0);
+
+    private final VelocityLimit limit;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    VelocityWindow(VelocityLimit limit) {
+        this.limit = limit;
+        this.ring = new AtomicReferenceArray<>(limit.buckets());
+        for (int i = 0; i < limit.buckets(); i++) {
+            ring.set(i, EMPTY);
+        }
+    }
+
+    // Учитывает перевод, если он укладывается в лимит. Возвращает номер интервала для release или -1.
+    // Параллельный перевод, попавший уже в следующий интервал, эта проверка не видит - на границе
+    // интервала лимит может быть превышен на несколько одновременных переводов.
+    long tryAdd(long nowMillis, long amountMinor) {
+        long epoch = nowMillis / limit.bucketMillis();
+        int slot = slot(epoch);
+        while (true) {
+            Bucket current = ring.get(slot);
+            Bucket base = current.epoch() >= epoch ? current : new Bucket(epoch, 0, 0);
+            int count = base.count() + 1;
+            long amount = base.amountMinor() + amountMinor;
+            for (int i = 0; i < ring.length(); i++) {
+                Bucket bucket = ring.get(i);
+                if (i != slot && bucket.epoch() > epoch - ring.length() && bucket.epoch() < epoch) {
+                    count += bucket.count();
+                    amount += bucket.amountMinor();
+                }
+            }
+            if ((limit.maxCount() > 0 && count > limit.maxCount())
+                    || (limit.maxAmountMinor() > 0 && amount > limit.maxAmountMinor())) {
+                return -1;
+            }
+            if (ring.compareAndSet(slot, current,
+                    new Bucket(base.epoch(), base.count() + 1, base.amountMinor() + amountMinor))) {
+                return base.epoch();
+            }
+        }
+    }
+
+    // Учет без проверки лимита - для восстановления из истории; записи старше слота отбрасываются
+    void add(long timeMillis, long amountMinor) {
+        long epoch = timeMillis / limit.bucketMillis();
+        int slot = slot(epoch);
+        while (true) {
+            Bucket current = ring.get(slot);
+            if (current.epoch() > epoch) {
+                return;
+            }
+            Bucket base = current.epoch() == epoch ? current : new Bucket(epoch, 0, 0);
+            if (ring.compareAndSet(slot, current,
+                    new Bucket(epoch, base.count() + 1, base.amountMinor() + amountMinor))) {
+                return;
+            }
+        }
+    }
+
+    // Откат учтенного перевода; если интервал уже вытеснен, откатывать нечего
+    void release(long epoch, long amountMinor) {
+        int slot = slot(epoch);
+        while (true) {
+            Bucket current = ring.get(slot);
+            if (current.epoch() != epoch) {
+                return;
+            }
+            if (ring.compareAndSet(slot, current,
+                    new Bucket(epoch, current.count() - 1, current.amountMinor() - amountMinor))) {
+                return;
+            }
+        }
+    }
+
+    // Окно пусто, если последний учтенный интервал уже вышел из него
+    boolean isExpired(long nowMillis) {
+        long oldestLive = nowMillis / limit.bucketMillis() - ring.length();
+        for (int i = 0; i < ring.length(); i++) {
+            if (ring.get(i).epoch() > oldestLive) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length());
+    }
+}
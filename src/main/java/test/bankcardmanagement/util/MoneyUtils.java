@@ -0,0 +1,25 @@
+package test.bankcardmanagement.util;
+
+import test.bankcardmanagement.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Суммы в копейках: движки балансов вне JPA считают в long, а не в BigDecimal
+public final class MoneyUtils {
+
+    private MoneyUtils() {
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ValidationException("Amount must have at most 2 decimal places");
+        }
+    }
+
+    public static BigDecimal fromMinorUnits(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, 2);
+    }
+}
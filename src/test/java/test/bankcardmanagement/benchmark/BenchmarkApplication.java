@@ -0,0 +1,129 @@
+package test.bankcardmanagement.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import test.bankcardmanagement.BankCardManagementApplication;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.LedgerEntry;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.reactive.ReactiveReadApplication;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.EncryptionService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Поднимает приложение без веб-сервера на H2 и готовит данные для бенчмарков сервисного слоя
+final class BenchmarkApplication {
+
+    static final String USERNAME = "bench";
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return start(applicationContext -> {
+        }, properties);
+    }
+
+    static ConfigurableApplicationContext start(
+            ApplicationContextInitializer<ConfigurableApplicationContext> initializer, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BankCardManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(initializer)
+                .run(arguments(properties));
+
+        // Потоки JMH отличаются от потока @Setup, поэтому контекст безопасности делаем глобальным
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                USERNAME, null, List.of(new SimpleGrantedAuthority(Role.ROLE_USER.name()))));
+        return context;
+    }
+
+    // Полноценный Tomcat на случайном порту (local.server.port) для нагрузочных тестов по HTTP
+    static ConfigurableApplicationContext startServer(
+            ApplicationContextInitializer<ConfigurableApplicationContext> initializer, String... properties) {
+        return new SpringApplicationBuilder(BankCardManagementApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .initializers(initializer)
+                .run(arguments(properties));
+    }
+
+    // Реактивный сервис чтения (Netty, R2DBC) на той же базе H2, что и приложение из startServer:
+    // схему и данные готовит основное приложение
+    static ConfigurableApplicationContext startReactiveServer(String... properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "spring.r2dbc.url=r2dbc:h2:mem:///bench?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "management.server.port=0"));
+        all.addAll(List.of(properties));
+        return new SpringApplicationBuilder(ReactiveReadApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("reactive")
+                .run(arguments(all.toArray(String[]::new)));
+    }
+
+    // Передаем как аргументы командной строки: у них приоритет выше, чем у application.yml.
+    // Повторный ключ Spring склеил бы через запятую, поэтому свойства бенчмарка заменяют значения по умолчанию.
+    private static String[] arguments(String... properties) {
+        Map<String, String> all = new LinkedHashMap<>();
+        for (String property : List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.jpa.show-sql=false",
+                // Бенчмарки гоняют тысячи переводов с одной карты
+                "app.velocity.enabled=false",
+                "app.rate-limit.enabled=false",
+                "app.bulkhead.enabled=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")) {
+            all.put(property.substring(0, property.indexOf('=')), property);
+        }
+        for (String property : properties) {
+            all.put(property.substring(0, property.indexOf('=')), property);
+        }
+        return all.values().stream().map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    static User createUser(ConfigurableApplicationContext context) {
+        return context.getBean(UserRepository.class).save(User.builder()
+                .username(USERNAME)
+                .password("benchmark")
+                .email("bench@bank.com")
+                .firstName("Bench")
+                .lastName("Mark")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+    }
+
+    static BankCard createCard(ConfigurableApplicationContext context, User user, String cardNumber, BigDecimal balance) {
+        EncryptionService encryptionService = context.getBean(EncryptionService.class);
+        BankCard card = context.getBean(BankCardRepository.class).save(BankCard.builder()
+                .cardNumberEncrypted(encryptionService.encrypt(cardNumber))
+                .cardNumberHash(encryptionService.hash(cardNumber))
+                .lastFourDigits(cardNumber.substring(12))
+                .cardHolderName("Bench Mark")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .balance(balance)
+                .user(user)
+                .build());
+        context.getBean(LedgerEntryRepository.class).save(LedgerEntry.opening(card.getId(), balance));
+        return card;
+    }
+}
@@ -0,0 +1,88 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import test.bankcardmanagement.dto.request.TransferRequest;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.service.CardService;
+import test.bankcardmanagement.service.TransferService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Зачисления на одну "горячую" карту из многих потоков: каждый поток переводит со своей карты,
+// так что конкуренция только за баланс получателя. shards=1 - все зачисления в одну строку
+// (как с единым bank_cards.balance), дальше строки блокировок делятся на K шардов.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=HotCardCreditBenchmark
+// Блокировка строки держится до коммита, то есть несколько сетевых round-trip; их имитирует dbLatencyMs
+// на каждый запрос (0 - без задержки, тогда на малом числе ядер упираемся в CPU, а не в блокировку). Вместо H2 в памяти можно взять PostgreSQL (пустая БД bench):
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark="HotCardCreditBenchmark -p dbLatencyMs=0 -jvmArgs -Dbench.jdbc-url=jdbc:postgresql://localhost/bench?user=bench&password=bench"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+public class HotCardCreditBenchmark {
+
+    private static final String HOT_CARD = "5555555555554444";
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int shards;
+
+    @Param({"10"})
+    public long dbLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private User user;
+    private final AtomicInteger senders = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String jdbcUrl = System.getProperty("bench.jdbc-url");
+        ApplicationContextInitializer<ConfigurableApplicationContext> slowDatabase = applicationContext ->
+                applicationContext.getBeanFactory().addBeanPostProcessor(new SlowDatabasePostProcessor(dbLatencyMs));
+        context = jdbcUrl == null
+                // Ожидание блокировки строки под нагрузкой дольше стандартной секунды H2
+                ? BenchmarkApplication.start(slowDatabase,
+                        "spring.datasource.hikari.connection-init-sql=SET LOCK_TIMEOUT 10000",
+                        "spring.datasource.hikari.maximum-pool-size=16")
+                : BenchmarkApplication.start(slowDatabase,
+                        "spring.datasource.url=" + jdbcUrl,
+                        "spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                        "spring.datasource.hikari.maximum-pool-size=16");
+        user = BenchmarkApplication.createUser(context);
+        BankCard hotCard = BenchmarkApplication.createCard(context, user, HOT_CARD, BigDecimal.ZERO);
+        context.getBean(CardService.class).updateBalanceShards(hotCard.getId(), shards);
+        transferService = context.getBean(TransferService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Sender {
+
+        private TransferRequest credit;
+
+        @Setup(Level.Trial)
+        public void setUp(HotCardCreditBenchmark benchmark) {
+            String cardNumber = String.format("4000000000%06d", benchmark.senders.incrementAndGet());
+            BenchmarkApplication.createCard(benchmark.context, benchmark.user, cardNumber, new BigDecimal("10000000000.00"));
+            credit = TransferRequest.builder().fromCardNumber(cardNumber).toCardNumber(HOT_CARD).amount(BigDecimal.ONE).build();
+        }
+    }
+
+    @Benchmark
+    public Object credit(Sender sender) {
+        return transferService.transferBetweenOwnCards(sender.credit);
+    }
+}
@@ -0,0 +1,106 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.security.jwt.JwtUtil;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Пропускная способность GET /api/cards/my при логировании по умолчанию (show-sql, форматирование SQL,
+// синхронный консольный вывод каждого оператора) и в профиле prod (асинхронный JSON, выборка SQL).
+// stdout в обоих режимах перенаправлен в target/logging-benchmark-<mode>.log, чтобы вывод не шел в отчет JMH.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark="LoggingBenchmark -p sqlSampleRate=0.01,1"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+@Threads(64)
+public class LoggingBenchmark {
+
+    private static final String CARD_A = "4111111111111111";
+    private static final String CARD_B = "5555555555554444";
+
+    @Param({"default", "prod"})
+    public String mode;
+
+    // Доля SQL-операторов в логе профиля prod
+    @Param({"0.01"})
+    public double sqlSampleRate;
+
+    private PrintStream stdout;
+    private PrintStream logFile;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stdout = System.out;
+        logFile = new PrintStream(new FileOutputStream("target/logging-benchmark-" + mode + ".log"), true);
+        System.setOut(logFile);
+
+        context = "prod".equals(mode)
+                ? BenchmarkApplication.startServer(applicationContext -> {
+                },
+                "spring.profiles.active=prod",
+                // Профиль prod смотрит в PostgreSQL; для бенчмарка - та же H2, что и в режиме default
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "logging.level.root=INFO",
+                "logging.level.org.hibernate.SQL=DEBUG",
+                "app.logging.sql.sample-rate=" + sqlSampleRate)
+                : BenchmarkApplication.startServer(applicationContext -> {
+                },
+                // Настройки логирования из application.yml, которые BenchmarkApplication по умолчанию глушит
+                "spring.jpa.show-sql=true",
+                "spring.jpa.properties.hibernate.format_sql=true",
+                "logging.level.root=INFO",
+                "logging.level.org.hibernate.SQL=DEBUG",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=TRACE");
+        User user = BenchmarkApplication.createUser(context);
+        BenchmarkApplication.createCard(context, user, CARD_A, BigDecimal.TEN);
+        BenchmarkApplication.createCard(context, user, CARD_B, BigDecimal.TEN);
+
+        String token = context.getBean(JwtUtil.class).generateToken(user);
+        int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cards/my"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.setOut(stdout);
+        logFile.close();
+    }
+
+    @Benchmark
+    public int getMyCards() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,97 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.security.jwt.JwtUtil;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/cards/my при connections одновременных соединениях: основное приложение (Tomcat, JPA)
+// против реактивного сервиса чтения (Netty, R2DBC) на той же базе.
+// Одна операция - пачка из connections параллельных запросов; память на запрос -
+// gc.alloc.rate.norm из -prof gc, деленный на connections (клиент в том же процессе и одинаков для обоих режимов).
+// Пиковое число потоков процесса печатается в конце каждого прогона.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark="ReactiveReadBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+public class ReactiveReadBenchmark {
+
+    private static final String CARD_A = "4111111111111111";
+    private static final String CARD_B = "5555555555554444";
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    @Param({"64", "512"})
+    public int connections;
+
+    private ConfigurableApplicationContext servlet;
+    private ConfigurableApplicationContext reactive;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        servlet = BenchmarkApplication.startServer(applicationContext -> {
+        });
+        User user = BenchmarkApplication.createUser(servlet);
+        BenchmarkApplication.createCard(servlet, user, CARD_A, BigDecimal.TEN);
+        BenchmarkApplication.createCard(servlet, user, CARD_B, BigDecimal.TEN);
+        String token = servlet.getBean(JwtUtil.class).generateToken(user);
+
+        ConfigurableApplicationContext target = servlet;
+        if ("reactive".equals(stack)) {
+            reactive = BenchmarkApplication.startReactiveServer();
+            target = reactive;
+        }
+        int port = Integer.parseInt(target.getEnvironment().getProperty("local.server.port"));
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cards/my"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("\nPeak threads (" + stack + ", " + connections + " connections): " +
+                ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        if (reactive != null) {
+            reactive.close();
+        }
+        servlet.close();
+    }
+
+    @Benchmark
+    public int getMyCardsConcurrently() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return connections;
+    }
+}
@@ -0,0 +1,69 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import test.bankcardmanagement.dto.response.ErrorResponse;
+import test.bankcardmanagement.exception.GlobalExceptionHandler;
+import test.bankcardmanagement.exception.InsufficientFundsException;
+
+import java.util.concurrent.TimeUnit;
+
+// Путь отказа в переводе: исключение бросается на глубине depth кадров (перевод через прокси Spring,
+// фильтры безопасности и Tomcat - это 100-150 кадров) и превращается в ответ на верхнем уровне.
+// stackful - прежний вариант с RuntimeException и снятием стека, stackless - бизнес-исключение без стека
+// и ответ из GlobalExceptionHandler по коду ошибки.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RejectionBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectionBenchmark {
+
+    @Param({"20", "150"})
+    public int depth;
+
+    @Param({"stackful", "stackless"})
+    public String exception;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private boolean stackless;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stackless = "stackless".equals(exception);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object singleThread() {
+        return reject();
+    }
+
+    // Всплеск отказов: снятие стека не делит общих ресурсов, но упирается в CPU и аллокации
+    @Benchmark
+    @Threads(8)
+    public Object contended() {
+        return reject();
+    }
+
+    private Object reject() {
+        try {
+            return descend(depth);
+        } catch (InsufficientFundsException e) {
+            return handler.handleBusiness(e);
+        } catch (RuntimeException e) {
+            return handler.handleGenericException(e);
+        }
+    }
+
+    private ResponseEntity<ErrorResponse> descend(int frames) {
+        if (frames > 0) {
+            return descend(frames - 1);
+        }
+        throw stackless
+                ? new InsufficientFundsException("Insufficient funds")
+                : new RuntimeException("Insufficient funds");
+    }
+}
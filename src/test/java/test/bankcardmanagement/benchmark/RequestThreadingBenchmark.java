@@ -0,0 +1,85 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.security.jwt.JwtUtil;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Нагрузочный тест по HTTP: пропускная способность и хвостовые задержки GET /api/cards/my
+// при медленной БД в режиме потоков платформы (200 потоков Tomcat) и виртуальных потоков.
+// Каждый SQL-запрос задерживается на dbLatencyMs; пул соединений задается poolSize.
+// Режим virtual требует запуска на Java 21+:
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark="RequestThreadingBenchmark -t 400"
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(1)
+@Threads(400)
+public class RequestThreadingBenchmark {
+
+    private static final String CARD_A = "4111111111111111";
+    private static final String CARD_B = "5555555555554444";
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"20"})
+    public long dbLatencyMs;
+
+    @Param({"400"})
+    public int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.startServer(
+                applicationContext -> applicationContext.getBeanFactory()
+                        .addBeanPostProcessor(new SlowDatabasePostProcessor(dbLatencyMs)),
+                "app.threads.virtual.enabled=" + "virtual".equals(mode),
+                "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "spring.datasource.hikari.connection-timeout=60000");
+        User user = BenchmarkApplication.createUser(context);
+        BenchmarkApplication.createCard(context, user, CARD_A, BigDecimal.TEN);
+        BenchmarkApplication.createCard(context, user, CARD_B, BigDecimal.TEN);
+
+        String token = context.getBean(JwtUtil.class).generateToken(user);
+        int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/cards/my"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getMyCards() throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,48 @@
+package test.bankcardmanagement.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+// Имитирует сетевую задержку БД: каждое выполнение запроса держит соединение latencyMs
+record SlowDatabasePostProcessor(long latencyMs) implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || latencyMs == 0) {
+            return bean;
+        }
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection connection ? proxy(Connection.class, connection, (c, m, a) -> {
+                Object statement = m.invoke(c, a);
+                return statement instanceof PreparedStatement ps ? proxy(PreparedStatement.class, ps, (p, sm, sa) -> {
+                    if (sm.getName().startsWith("execute")) {
+                        Thread.sleep(latencyMs);
+                    }
+                    return sm.invoke(p, sa);
+                }) : statement;
+            }) : result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private interface Handler<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+}
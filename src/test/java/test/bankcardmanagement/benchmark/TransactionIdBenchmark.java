@@ -0,0 +1,47 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import test.bankcardmanagement.service.id.SnowflakeIdGenerator;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.service.id.UuidV7Generator;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Стоимость генерации transaction_id: UUID.randomUUID() (общий SecureRandom) против UUIDv7 и Snowflake.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionIdBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionIdBenchmark {
+
+    @Param({"random", "uuidv7", "snowflake"})
+    public String generator;
+
+    private TransactionIdGenerator idGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        idGenerator = switch (generator) {
+            case "random" -> UUID::randomUUID;
+            case "uuidv7" -> new UuidV7Generator();
+            case "snowflake" -> new SnowflakeIdGenerator(1);
+            default -> throw new IllegalArgumentException(generator);
+        };
+    }
+
+    @Benchmark
+    @Threads(1)
+    public UUID singleThread() {
+        return idGenerator.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UUID contended() {
+        return idGenerator.next();
+    }
+}
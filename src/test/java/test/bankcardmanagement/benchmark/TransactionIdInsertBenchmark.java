@@ -0,0 +1,121 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import test.bankcardmanagement.service.id.SnowflakeIdGenerator;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.service.id.UuidV7Generator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Скорость вставки в таблицу с уникальным индексом по ключу, когда в ней уже rows строк.
+// Случайные ключи пишут в произвольные страницы индекса и расщепляют их, упорядоченные по времени - в правый край.
+// По умолчанию H2 в памяти; для замеров на десятках миллионов строк и статистики индекса - PostgreSQL:
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark="TransactionIdInsertBenchmark -p rows=20000000 -jvmArgs -Dbench.jdbc-url=jdbc:postgresql://localhost/bench?user=bench&password=bench"
+// Размер индекса печатается после каждого прогона, плотность листьев - если установлено расширение pgstattuple.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransactionIdInsertBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ROWS_PER_ITERATION = 100_000;
+
+    @Param({"random-varchar", "random", "uuidv7", "snowflake"})
+    public String keyType;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private Connection connection;
+    private TransactionIdGenerator idGenerator;
+    private boolean postgres;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc-url", "jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1");
+        connection = DriverManager.getConnection(url);
+        connection.setAutoCommit(false);
+        postgres = url.startsWith("jdbc:postgresql:");
+        idGenerator = switch (keyType) {
+            case "random", "random-varchar" -> UUID::randomUUID;
+            case "uuidv7" -> new UuidV7Generator();
+            case "snowflake" -> new SnowflakeIdGenerator(1);
+            default -> throw new IllegalArgumentException(keyType);
+        };
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS id_bench");
+            statement.execute("CREATE TABLE id_bench (id BIGINT PRIMARY KEY, transaction_id "
+                    + ("random-varchar".equals(keyType) ? "VARCHAR(50)" : "UUID") + " NOT NULL)");
+            statement.execute("CREATE UNIQUE INDEX id_bench_transaction_id ON id_bench (transaction_id)");
+        }
+        connection.commit();
+        insert(0, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printIndexStats() throws SQLException {
+        if (!postgres) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT pg_size_pretty(pg_relation_size('id_bench_transaction_id'))")) {
+                rs.next();
+                System.out.println("index size: " + rs.getString(1));
+            }
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT avg_leaf_density, leaf_fragmentation FROM pgstatindex('id_bench_transaction_id')")) {
+                rs.next();
+                System.out.println("avg leaf density: " + rs.getDouble(1) + ", leaf fragmentation: " + rs.getDouble(2));
+            } catch (SQLException e) {
+                connection.rollback();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_ITERATION)
+    public void insert() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM id_bench")) {
+            rs.next();
+            insert(rs.getLong(1), ROWS_PER_ITERATION);
+        }
+    }
+
+    private void insert(long lastId, int count) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO id_bench (id, transaction_id) VALUES (?, ?)")) {
+            for (int i = 1; i <= count; i++) {
+                ps.setLong(1, lastId + i);
+                if ("random-varchar".equals(keyType)) {
+                    ps.setString(2, idGenerator.next().toString());
+                } else {
+                    ps.setObject(2, idGenerator.next());
+                }
+                ps.addBatch();
+                if (i % BATCH_SIZE == 0 || i == count) {
+                    ps.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+}
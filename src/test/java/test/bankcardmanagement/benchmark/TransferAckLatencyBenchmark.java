@@ -0,0 +1,62 @@
+package test.bankcardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import test.bankcardmanagement.dto.request.TransferRequest;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.service.TransferService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Время подтверждения перевода: синхронный JPA-путь против журнала с fsync и фоновым применением.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransferAckLatencyBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(1)
+public class TransferAckLatencyBenchmark {
+
+    private static final String CARD_A = "4111111111111111";
+    private static final String CARD_B = "5555555555554444";
+
+    @Param({"jpa", "journal"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private TransferRequest forward;
+    private TransferRequest backward;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path journalDirectory = Files.createTempDirectory("transfer-journal");
+        context = BenchmarkApplication.start(
+                "app.journal.enabled=" + "journal".equals(mode),
+                "app.journal.directory=" + journalDirectory);
+        User user = BenchmarkApplication.createUser(context);
+        BenchmarkApplication.createCard(context, user, CARD_A, new BigDecimal("10000000000.00"));
+        BenchmarkApplication.createCard(context, user, CARD_B, new BigDecimal("10000000000.00"));
+        transferService = context.getBean(TransferService.class);
+        forward = TransferRequest.builder().fromCardNumber(CARD_A).toCardNumber(CARD_B).amount(BigDecimal.ONE).build();
+        backward = TransferRequest.builder().fromCardNumber(CARD_B).toCardNumber(CARD_A).amount(BigDecimal.ONE).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object transfer() {
+        flip = !flip;
+        return transferService.transferBetweenOwnCards(flip ? forward : backward);
+    }
+}
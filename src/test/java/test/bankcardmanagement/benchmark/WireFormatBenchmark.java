@@ -0,0 +1,107 @@
+package test.bankcardmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import test.bankcardmanagement.dto.response.CardResponse;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Transaction;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Кодирование ответов API в JSON и CBOR с одинаковыми настройками Jackson (как у конвертеров приложения):
+// карта, перевод и страница из 20 карт. Время - на один ответ; размер ответа в байтах печатается
+// перед измерением каждой комбинации.
+// mvn -Pbenchmark test-compile exec:exec -Dbenchmark="WireFormatBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    @Param({"card", "transaction", "cardPage"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Object response;
+    private byte[] encoded;
+    private Class<?> responseType;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = "cbor".equals(format)
+                ? Jackson2ObjectMapperBuilder.cbor().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        switch (payload) {
+            case "card" -> {
+                response = card(42);
+                responseType = CardResponse.class;
+            }
+            case "transaction" -> {
+                response = transaction();
+                responseType = TransactionResponse.class;
+            }
+            default -> {
+                List<CardResponse> cards = LongStream.rangeClosed(1, 20).mapToObj(WireFormatBenchmark::card).toList();
+                response = new PageImpl<>(cards, PageRequest.of(0, 20, Sort.by("createdAt")), 57);
+                responseType = null;
+            }
+        }
+        encoded = mapper.writeValueAsBytes(response);
+        System.out.println("\nBytes on the wire (" + format + ", " + payload + "): " + encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    // Клиент читает ответ в DTO; страницу - в дерево, PageImpl не десериализуется
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return responseType == null ? mapper.readTree(encoded) : mapper.readValue(encoded, responseType);
+    }
+
+    private static CardResponse card(long id) {
+        LocalDateTime created = LocalDateTime.of(2024, 3, 15, 10, 30, 12, 345_678_000).plusMinutes(id);
+        return CardResponse.builder()
+                .id(id)
+                .maskedCardNumber("**** **** **** " + (1000 + id))
+                .cardHolderName("IVAN PETROV")
+                .expirationDate(LocalDate.of(2028, 12, 31))
+                .status(BankCard.CardStatus.ACTIVE)
+                .balance(new BigDecimal("15230.75"))
+                .createdAt(created)
+                .updatedAt(created.plusDays(3))
+                .userId(7L)
+                .build();
+    }
+
+    private static TransactionResponse transaction() {
+        return TransactionResponse.builder()
+                .transactionId(UUID.fromString("0190a6e1-7c3b-7d2e-9f41-5b8a2c6d1e03").toString())
+                .fromCardMasked("**** **** **** 1111")
+                .toCardMasked("**** **** **** 4444")
+                .amount(new BigDecimal("100.50"))
+                .timestamp(LocalDateTime.of(2024, 3, 15, 10, 30, 12, 345_678_000))
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .description("Savings")
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package test.bankcardmanagement.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.EncryptionService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Prometheus-эндпоинт на отдельном порту management.server.port отдается без JWT
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void prometheusEndpoint_ShouldExposeHotPathAndPoolMetrics() {
+        encryptionService.hash("4111111111111111");
+        userRepository.findByUsername("admin");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        assertTrue(body.contains("transfers_total{application=\"bank-card-management\",outcome=\"insufficient_funds\""));
+        assertTrue(body.contains("transfer_duration_seconds_bucket{application=\"bank-card-management\",outcome=\"completed\""));
+        assertTrue(body.contains("card_encryption_seconds_count{application=\"bank-card-management\",operation=\"hash\""));
+        assertTrue(body.contains("security_jwt_authentication_seconds_count"));
+        assertTrue(body.contains("spring_data_repository_invocations_seconds_count"));
+        assertTrue(body.contains("hikaricp_connections_active"));
+    }
+}
@@ -0,0 +1,196 @@
+package test.bankcardmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import test.bankcardmanagement.dto.request.CardCreateRequest;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.CardService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Основная БД и реплика - две H2 в памяти; репликация имитируется копированием основной БД
+// в реплику командой SCRIPT, отставание - изменениями основной БД после копирования
+@SpringBootTest(properties = {
+        "app.datasource.replica.enabled=true",
+        "app.datasource.replica.url=jdbc:h2:mem:replicadb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.max-lag-ms=5000",
+        // Проверки отставания запускает тест
+        "app.datasource.replica.heartbeat-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private Long cardId;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .password("encoded")
+                .email("alice@example.com")
+                .firstName("Alice")
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        cardId = cardService.createCard(CardCreateRequest.builder()
+                .cardNumber("4111111111111111")
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .userId(user.getId())
+                .initialBalance(new BigDecimal("100.00"))
+                .build()).getId();
+        lagMonitor.check();
+        replicate();
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+        replica.execute("DROP ALL OBJECTS");
+        lagMonitor.markUnavailable();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldReadFromReplicaWhileLagIsWithinLimit() throws Exception {
+        assertTrue(lagMonitor.isReplicaUsable());
+        primary.update("UPDATE bank_cards SET card_holder_name = 'Updated On Primary' WHERE id = ?", cardId);
+        double replicaConnections = routed("replica");
+
+        // getCardById - транзакция readOnly, изменение еще не дошло до реплики
+        mockMvc.perform(get("/api/cards/{id}", cardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardHolderName").value("Alice Smith"));
+        assertEquals(replicaConnections + 1, routed("replica"));
+
+        // Изменяющая транзакция читает и пишет в основной БД
+        mockMvc.perform(patch("/api/cards/{id}/status", cardId).param("status", "BLOCKED")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardHolderName").value("Updated On Primary"));
+        assertEquals(BankCard.CardStatus.BLOCKED.name(),
+                primary.queryForObject("SELECT status FROM bank_cards WHERE id = ?", String.class, cardId));
+        assertEquals(BankCard.CardStatus.ACTIVE.name(),
+                replica.queryForObject("SELECT status FROM bank_cards WHERE id = ?", String.class, cardId));
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldFallBackToPrimaryWhenReplicaLags() throws Exception {
+        primary.update("UPDATE bank_cards SET card_holder_name = 'Updated On Primary' WHERE id = ?", cardId);
+        replica.update("UPDATE replication_heartbeat SET beat_at = ?", LocalDateTime.now().minusMinutes(1));
+        lagMonitor.check();
+        assertFalse(lagMonitor.isReplicaUsable());
+        double lagFallbacks = fallbacks("lag");
+
+        mockMvc.perform(get("/api/cards/{id}", cardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardHolderName").value("Updated On Primary"));
+        assertEquals(lagFallbacks + 1, fallbacks("lag"));
+        assertTrue(meterRegistry.get("datasource.replica.lag").gauge().value() >= 60_000);
+
+        // Реплика догнала основную БД
+        replicate();
+        lagMonitor.check();
+        mockMvc.perform(get("/api/admin/users").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("alice"));
+        assertTrue(lagMonitor.isReplicaUsable());
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldFallBackToPrimaryWhenReplicaIsUnavailable() throws Exception {
+        replica.execute("DROP ALL OBJECTS");
+        lagMonitor.check();
+        assertFalse(lagMonitor.isReplicaUsable());
+
+        mockMvc.perform(get("/api/cards/{id}", cardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cardHolderName").value("Alice Smith"));
+    }
+
+    @Test
+    void pools_ShouldPublishMetricsPerPool() {
+        assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", "primary").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", "replica").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica").timer());
+    }
+
+    // Полная копия основной БД в реплику
+    private void replicate() {
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT", String.class)) {
+            replica.execute(statement);
+        }
+    }
+
+    private double routed(String target) {
+        return meterRegistry.get("datasource.routing.connections").tag("target", target).counter().count();
+    }
+
+    private double fallbacks(String reason) {
+        return meterRegistry.get("datasource.replica.fallbacks").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,214 @@
+package test.bankcardmanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import test.bankcardmanagement.dto.request.CardCreateRequest;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.CardBalanceShardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.CardService;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static test.bankcardmanagement.monitoring.SqlStatements.sqlStatements;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CardControllerTest {
+
+    private static final String CARD_A = "4111111111111111";
+    private static final String CARD_B = "5555555555554444";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private CardBalanceShardRepository shardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long hotCardId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .password("encoded")
+                .email("alice@example.com")
+                .firstName("Alice")
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        createCard(user, CARD_A, new BigDecimal("1000.00"));
+        hotCardId = createCard(user, CARD_B, new BigDecimal("10.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shardedCard_ShouldCollectCreditsInShardsAndConsolidateOnDebit() throws Exception {
+        mockMvc.perform(patch("/api/cards/{id}/balance-shards", hotCardId).param("count", "4")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(10.00));
+
+        for (int i = 0; i < 10; i++) {
+            transfer(CARD_A, CARD_B, "5.00").andExpect(status().isOk());
+        }
+
+        // Строка карты не менялась, зачисления лежат в шардах, а чтение возвращает сумму
+        assertEquals(0, new BigDecimal("10.00").compareTo(mainBalance(hotCardId)));
+        mockMvc.perform(get("/api/cards/{id}", hotCardId).with(user("admin").roles("ADMIN")))
+                .andExpect(jsonPath("$.balance").value(60.00));
+
+        // Основного баланса не хватает - шарды сливаются в него перед списанием
+        transfer(CARD_B, CARD_A, "55.00").andExpect(status().isOk());
+        assertEquals(0, new BigDecimal("5.00").compareTo(mainBalance(hotCardId)));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT SUM(balance) FROM card_balance_shards WHERE card_id = ?", BigDecimal.class, hotCardId).signum());
+
+        transfer(CARD_B, CARD_A, "5.01").andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/admin/ledger/verify").with(user("admin").roles("ADMIN")))
+                .andExpect(jsonPath("$.mismatches").isEmpty());
+    }
+
+    @Test
+    void cardPages_ShouldNotLoadOwnersPerCard() throws Exception {
+        User bob = userRepository.save(User.builder()
+                .username("bob")
+                .password("encoded")
+                .email("bob@example.com")
+                .firstName("Bob")
+                .lastName("Brown")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        for (String cardNumber : List.of("4000000000000101", "4000000000000119", "4000000000000127",
+                "4000000000000135", "4000000000000143", "4000000000000150", "4000000000000168", "4000000000000176")) {
+            createCard(bob, cardNumber, new BigDecimal("1.00"));
+        }
+
+        // Страница карт и, если она полная, count; владельцы карт не подгружаются
+        mockMvc.perform(get("/api/cards").param("size", "20").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(10))
+                .andExpect(sqlStatements().atMost(2));
+        mockMvc.perform(get("/api/cards/my").with(user("bob")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(8))
+                .andExpect(sqlStatements().atMost(3));
+    }
+
+    @Test
+    void getCardById_WithCborAccept_ShouldReturnSameFieldsAsJson() throws Exception {
+        String json = mockMvc.perform(get("/api/cards/{id}", hotCardId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        byte[] cbor = mockMvc.perform(get("/api/cards/{id}", hotCardId).with(user("admin").roles("ADMIN"))
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectNode fromJson = (ObjectNode) new ObjectMapper().readTree(json);
+        ObjectNode fromCbor = (ObjectNode) new CBORMapper().readTree(cbor);
+        // readTree читает число из JSON как double, а из CBOR - как BigDecimal; сравниваем значения
+        assertEquals(0, fromJson.remove("balance").decimalValue().compareTo(fromCbor.remove("balance").decimalValue()));
+        assertEquals(fromJson, fromCbor);
+        assertTrue(cbor.length < json.getBytes(StandardCharsets.UTF_8).length);
+
+        // Ошибки в запрошенном формате
+        byte[] notFound = mockMvc.perform(get("/api/cards/{id}", 999_999).with(user("admin").roles("ADMIN"))
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("Card not found with id: 999999", new CBORMapper().readTree(notFound).get("message").asText());
+    }
+
+    @Test
+    void updateBalanceShards_WithTooManyShards_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/cards/{id}/balance-shards", hotCardId).param("count", "1000")
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateBalanceShards_WithoutAdminRole_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(patch("/api/cards/{id}/balance-shards", hotCardId).param("count", "4")
+                        .with(user("alice")))
+                .andExpect(status().isForbidden());
+    }
+
+    private ResultActions transfer(String from, String to, String amount) throws Exception {
+        return mockMvc.perform(post("/api/transfers/own")
+                .with(user("alice"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromCardNumber\": \"" + from + "\", \"toCardNumber\": \"" + to + "\", \"amount\": " + amount + "}"));
+    }
+
+    private BigDecimal mainBalance(Long cardId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM bank_cards WHERE id = ?", BigDecimal.class, cardId);
+    }
+
+    private Long createCard(User user, String cardNumber, BigDecimal balance) {
+        return cardService.createCard(CardCreateRequest.builder()
+                .cardNumber(cardNumber)
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .userId(user.getId())
+                .initialBalance(balance)
+                .build()).getId();
+    }
+}
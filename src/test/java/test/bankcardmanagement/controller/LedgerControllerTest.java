@@ -0,0 +1,160 @@
+package test.bankcardmanagement.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import test.bankcardmanagement.dto.request.CardCreateRequest;
+import test.bankcardmanagement.entity.LedgerEntry;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.CardService;
+import test.bankcardmanagement.service.accounting.BalanceRebuildService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LedgerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private BalanceRebuildService balanceRebuildService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long fromCardId;
+    private Long toCardId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .password("encoded")
+                .email("alice@example.com")
+                .firstName("Alice")
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        fromCardId = createCard(user, "4111111111111111", new BigDecimal("1000.00"));
+        toCardId = createCard(user, "5555555555554444", new BigDecimal("10.00"));
+        // По карте в диапазоне: проверяем, что диапазоны обрабатываются независимо
+        ReflectionTestUtils.setField(balanceRebuildService, "chunkSize", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(balanceRebuildService, "chunkSize", 1000);
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void transfer_ShouldWriteBalancedLedgerEntries() throws Exception {
+        String body = mockMvc.perform(post("/api/transfers/own")
+                        .with(user("alice"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber": "4111111111111111", "toCardNumber": "5555555555554444", "amount": 100.50}
+                                """))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        UUID transactionId = UUID.fromString(body.replaceAll(".*\"transactionId\":\"([^\"]+)\".*", "$1"));
+
+        List<LedgerEntry> entries = ledgerEntryRepository.findByTransactionId(transactionId);
+        assertEquals(2, entries.size());
+        assertEquals(0, entries.stream().map(LedgerEntry::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add).signum());
+        assertEquals(0, new BigDecimal("899.50").compareTo(ledgerSum(fromCardId)));
+        assertEquals(0, new BigDecimal("110.50").compareTo(ledgerSum(toCardId)));
+
+        mockMvc.perform(get("/api/admin/ledger/verify").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chunks").value(2))
+                .andExpect(jsonPath("$.mismatches").isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldRestoreBalanceFromLedgerEntries() throws Exception {
+        jdbcTemplate.update("UPDATE bank_cards SET balance = 0 WHERE id = ?", fromCardId);
+
+        mockMvc.perform(get("/api/admin/ledger/verify").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.corrected").value(false))
+                .andExpect(jsonPath("$.mismatches.length()").value(1))
+                .andExpect(jsonPath("$.mismatches[0].cardId").value(fromCardId))
+                .andExpect(jsonPath("$.mismatches[0].ledgerBalance").value(1000.00));
+
+        mockMvc.perform(post("/api/admin/ledger/rebuild").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.corrected").value(true))
+                .andExpect(jsonPath("$.mismatches.length()").value(1));
+
+        assertEquals(0, new BigDecimal("1000.00").compareTo(cardRepository.findById(fromCardId).orElseThrow().getBalance()));
+        mockMvc.perform(get("/api/admin/ledger/verify").with(user("admin").roles("ADMIN")))
+                .andExpect(jsonPath("$.mismatches").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void rebuild_WithoutAdminRole_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/ledger/rebuild"))
+                .andExpect(status().isForbidden());
+    }
+
+    private BigDecimal ledgerSum(Long cardId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(amount), 0) FROM ledger_entries WHERE card_id = ?",
+                BigDecimal.class, cardId);
+    }
+
+    private Long createCard(User user, String cardNumber, BigDecimal balance) {
+        return cardService.createCard(CardCreateRequest.builder()
+                .cardNumber(cardNumber)
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .userId(user.getId())
+                .initialBalance(balance)
+                .build()).getId();
+    }
+}
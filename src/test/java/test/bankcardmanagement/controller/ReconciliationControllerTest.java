@@ -0,0 +1,255 @@
+package test.bankcardmanagement.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import test.bankcardmanagement.dto.request.CardCreateRequest;
+import test.bankcardmanagement.entity.ReconciliationRun;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.ReconciliationMismatchRepository;
+import test.bankcardmanagement.repository.ReconciliationRunRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.CardService;
+import test.bankcardmanagement.service.accounting.ReconciliationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReconciliationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationMismatchRepository mismatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long firstCardId;
+    private Long secondCardId;
+    private Long thirdCardId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .password("encoded")
+                .email("alice@example.com")
+                .firstName("Alice")
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        firstCardId = createCard(user, "4111111111111111", new BigDecimal("1000.00"));
+        secondCardId = createCard(user, "5555555555554444", new BigDecimal("10.00"));
+        thirdCardId = createCard(user, "4000056655665556", new BigDecimal("0.00"));
+        // По карте в диапазоне: запуск состоит из нескольких диапазонов
+        ReflectionTestUtils.setField(reconciliationService, "rangeSize", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(reconciliationService, "rangeSize", 1000);
+        jdbcTemplate.update("DELETE FROM reconciliation_checkpoints");
+        mismatchRepository.deleteAll();
+        runRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void start_ShouldReportCorruptedBalance() throws Exception {
+        mockMvc.perform(post("/api/transfers/own")
+                        .with(user("alice"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber": "4111111111111111", "toCardNumber": "5555555555554444", "amount": 100.50}
+                                """))
+                .andExpect(status().isOk());
+        jdbcTemplate.update("UPDATE bank_cards SET balance = balance + 1 WHERE id = ?", secondCardId);
+
+        String body = mockMvc.perform(post("/api/admin/reconciliation/runs").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rangesTotal").value(3))
+                .andReturn().getResponse().getContentAsString();
+        Long runId = Long.valueOf(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        ReconciliationRun run = awaitFinished(runId);
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getRangesDone());
+        assertEquals(3, run.getCardsChecked());
+
+        mockMvc.perform(get("/api/admin/reconciliation/runs/{id}", runId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.progressPercent").value(100.0))
+                .andExpect(jsonPath("$.mismatchCount").value(1));
+        mockMvc.perform(get("/api/admin/reconciliation/runs/{id}/mismatches", runId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].cardId").value(secondCardId))
+                .andExpect(jsonPath("$.content[0].balance").value(111.50))
+                .andExpect(jsonPath("$.content[0].expectedBalance").value(110.50));
+    }
+
+    @Test
+    void start_CardsWithTransfersBeforeLedgerBackfill_ShouldMatch() throws Exception {
+        mockMvc.perform(post("/api/transfers/own")
+                        .with(user("alice"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber": "4111111111111111", "toCardNumber": "5555555555554444", "amount": 100.50}
+                                """))
+                .andExpect(status().isOk());
+        // Как у карт, созданных до ledger_entries: переводы есть, проводки открытия взяты из текущего баланса
+        jdbcTemplate.update("DELETE FROM ledger_entries");
+        jdbcTemplate.update("INSERT INTO ledger_entries (id, transaction_id, card_id, entry_type, amount, created_at) " +
+                "SELECT nextval('ledger_entries_seq'), NULL, id, 'OPENING', balance, CURRENT_TIMESTAMP " +
+                "FROM bank_cards WHERE balance <> 0");
+
+        String body = mockMvc.perform(post("/api/admin/reconciliation/runs").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long runId = Long.valueOf(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        ReconciliationRun run = awaitFinished(runId);
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getCardsChecked());
+        assertEquals(0, run.getMismatchCount());
+    }
+
+    @Test
+    void start_TransferWithoutLedgerEntries_ShouldReportBothCards() throws Exception {
+        // Перевод есть в transactions, но балансы и проводки он не изменил: сверка идет по transactions,
+        // поэтому находит расхождение, которое сумма проводок не показала бы
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, from_card_id, to_card_id, amount, timestamp, status) " +
+                        "VALUES (?, ?, ?, 25.00, CURRENT_TIMESTAMP, 'COMPLETED')",
+                UUID.randomUUID(), firstCardId, secondCardId);
+
+        String body = mockMvc.perform(post("/api/admin/reconciliation/runs").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Long runId = Long.valueOf(body.replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        ReconciliationRun run = awaitFinished(runId);
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(2, run.getMismatchCount());
+        mockMvc.perform(get("/api/admin/reconciliation/runs/{id}/mismatches", runId).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.cardId == %d)].expectedBalance", firstCardId).value(975.00))
+                .andExpect(jsonPath("$.content[?(@.cardId == %d)].expectedBalance", secondCardId).value(35.00));
+    }
+
+    @Test
+    void resume_ShouldSkipCheckpointedRanges() throws Exception {
+        // Расхождение в первом диапазоне, который прерванный запуск уже успел обработать
+        jdbcTemplate.update("UPDATE bank_cards SET balance = 0 WHERE id = ?", firstCardId);
+        ReconciliationRun interrupted = runRepository.save(ReconciliationRun.builder()
+                .status(ReconciliationRun.Status.FAILED)
+                .rangeStart(firstCardId)
+                .rangeEnd(thirdCardId + 1)
+                .rangeSize(1)
+                .rangesTotal(3)
+                .rangesDone(1)
+                .cardsChecked(1)
+                .error("Connection reset")
+                .startedAt(LocalDateTime.now())
+                .build());
+        jdbcTemplate.update("INSERT INTO reconciliation_checkpoints (run_id, range_no) VALUES (?, 0)", interrupted.getId());
+
+        mockMvc.perform(post("/api/admin/reconciliation/runs/{id}/resume", interrupted.getId())
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+
+        ReconciliationRun run = awaitFinished(interrupted.getId());
+        assertEquals(ReconciliationRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3, run.getRangesDone());
+        assertEquals(3, run.getCardsChecked());
+        assertEquals(0, run.getMismatchCount());
+
+        mockMvc.perform(post("/api/admin/reconciliation/runs/{id}/resume", interrupted.getId())
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getRun_Unknown_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/admin/reconciliation/runs/{id}", 999999).with(user("admin").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void start_WithoutAdminRole_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/reconciliation/runs"))
+                .andExpect(status().isForbidden());
+    }
+
+    private ReconciliationRun awaitFinished(Long runId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ReconciliationRun run = runRepository.findById(runId).orElseThrow();
+            if (run.getFinishedAt() != null) {
+                return run;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Reconciliation run did not finish");
+    }
+
+    private Long createCard(User user, String cardNumber, BigDecimal balance) {
+        return cardService.createCard(CardCreateRequest.builder()
+                .cardNumber(cardNumber)
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .userId(user.getId())
+                .initialBalance(balance)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,225 @@
+package test.bankcardmanagement.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.RecurringTransfer;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.RecurringTransferRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.EncryptionService;
+import test.bankcardmanagement.service.recurring.RecurringTransferScheduler;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Без @Transactional: планировщик выполняет переводы в своих потоках и должен видеть закоммиченные данные
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecurringTransferControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private RecurringTransferRepository recurringTransferRepository;
+
+    @Autowired
+    private RecurringTransferScheduler scheduler;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    private BankCard fromCard;
+    private BankCard toCard;
+
+    @BeforeEach
+    void setUp() {
+        User alice = createUser("alice");
+        createUser("bob");
+        fromCard = createCard(alice, "4111111111111111", new BigDecimal("1000.00"));
+        toCard = createCard(alice, "5555555555554444", new BigDecimal("10.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recurringTransferRepository.deleteAll();
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createRecurringTransfer_DueNow_ShouldRunAndScheduleNextPeriod() throws Exception {
+        mockMvc.perform(post("/api/transfers/recurring")
+                        .with(user("alice").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber":"4111111111111111","toCardNumber":"5555555555554444",
+                                 "amount":25.00,"description":"Savings","frequency":"DAILY"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fromCardMasked").value("**** **** **** 1111"))
+                .andExpect(jsonPath("$.frequency").value("DAILY"))
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+
+        RecurringTransfer recurringTransfer = awaitRun();
+        assertEquals(1, transactionRepository.count());
+        assertEquals(0, new BigDecimal("975.00").compareTo(cardRepository.findById(fromCard.getId()).orElseThrow().getBalance()));
+        assertEquals(0, new BigDecimal("35.00").compareTo(cardRepository.findById(toCard.getId()).orElseThrow().getBalance()));
+        assertEquals(recurringTransfer.getLastRunAt().toLocalDate().plusDays(1), recurringTransfer.getNextRunAt().toLocalDate());
+        assertEquals(0, recurringTransfer.getFailureCount());
+
+        mockMvc.perform(get("/api/transfers/recurring").with(user("alice").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].toCardMasked").value("**** **** **** 4444"))
+                .andExpect(jsonPath("$.content[0].lastRunAt").exists());
+    }
+
+    @Test
+    void createRecurringTransfer_InsufficientFunds_ShouldSkipRunAndRecordError() throws Exception {
+        mockMvc.perform(post("/api/transfers/recurring")
+                        .with(user("alice").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber":"5555555555554444","toCardNumber":"4111111111111111",
+                                 "amount":50.00,"frequency":"WEEKLY"}
+                                """))
+                .andExpect(status().isOk());
+
+        RecurringTransfer recurringTransfer = awaitRun();
+        assertEquals(1, recurringTransfer.getFailureCount());
+        assertEquals("Insufficient funds", recurringTransfer.getLastError());
+        assertEquals(0, transactionRepository.count());
+        assertTrue(recurringTransfer.getNextRunAt().isAfter(LocalDateTime.now().plusDays(6)));
+    }
+
+    @Test
+    void loadHorizon_ShouldPickUpOverdueScheduleFromDatabase() throws Exception {
+        // Как после рестарта: запись есть только в БД, в колесо ее кладет загрузчик
+        recurringTransferRepository.save(RecurringTransfer.builder()
+                .user(fromCard.getUser())
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(BigDecimal.TEN)
+                .frequency(RecurringTransfer.Frequency.MONTHLY)
+                .nextRunAt(LocalDateTime.now().minusHours(2))
+                .build());
+        ReflectionTestUtils.setField(scheduler, "loadedUntil", LocalDateTime.now().minusDays(1));
+
+        ReflectionTestUtils.invokeMethod(scheduler, "loadHorizon");
+
+        RecurringTransfer recurringTransfer = awaitRun();
+        assertEquals(0, recurringTransfer.getFailureCount());
+        assertEquals(1, transactionRepository.count());
+        assertTrue(recurringTransfer.getNextRunAt().isAfter(LocalDateTime.now().plusDays(27)));
+    }
+
+    @Test
+    void cancelRecurringTransfer_ShouldOnlyAllowOwner() throws Exception {
+        RecurringTransfer recurringTransfer = recurringTransferRepository.save(RecurringTransfer.builder()
+                .user(fromCard.getUser())
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(BigDecimal.TEN)
+                .frequency(RecurringTransfer.Frequency.MONTHLY)
+                .nextRunAt(LocalDateTime.now().plusMonths(1))
+                .build());
+
+        mockMvc.perform(delete("/api/transfers/recurring/{id}", recurringTransfer.getId())
+                        .with(user("bob").roles("USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/transfers/recurring/{id}", recurringTransfer.getId())
+                        .with(user("alice").roles("USER")))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/transfers/recurring/{id}", 999_999L)
+                        .with(user("alice").roles("USER")))
+                .andExpect(status().isNotFound());
+
+        assertEquals(RecurringTransfer.Status.CANCELLED,
+                recurringTransferRepository.findById(recurringTransfer.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void createRecurringTransfer_ForeignCard_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/api/transfers/recurring")
+                        .with(user("bob").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber":"4111111111111111","toCardNumber":"5555555555554444",
+                                 "amount":25.00,"frequency":"DAILY"}
+                                """))
+                .andExpect(status().isForbidden());
+
+        assertEquals(0, recurringTransferRepository.count());
+    }
+
+    // Тикер срабатывает раз в секунду; ждем, пока запуск отразится в расписании
+    private RecurringTransfer awaitRun() throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            RecurringTransfer recurringTransfer = recurringTransferRepository.findAll().get(0);
+            if (recurringTransfer.getLastRunAt() != null) {
+                return recurringTransfer;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Recurring transfer did not run");
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .password("encoded")
+                .email(username + "@example.com")
+                .firstName(username)
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+    }
+
+    private BankCard createCard(User owner, String cardNumber, BigDecimal balance) {
+        return cardRepository.save(BankCard.builder()
+                .cardNumberEncrypted(encryptionService.encrypt(cardNumber))
+                .cardNumberHash(encryptionService.hash(cardNumber))
+                .lastFourDigits(cardNumber.substring(12))
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .balance(balance)
+                .user(owner)
+                .build());
+    }
+}
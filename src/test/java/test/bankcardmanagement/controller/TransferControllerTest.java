@@ -0,0 +1,207 @@
+package test.bankcardmanagement.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.EncryptionService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static test.bankcardmanagement.monitoring.SqlStatements.sqlStatements;
+
+// Тест без @Transactional: сериализация ответа идет вне транзакции, как в проде,
+// и любая ленивая загрузка из сущности в ответе падает с LazyInitializationException
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransferControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .password("encoded")
+                .email("alice@example.com")
+                .firstName("Alice")
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        createCard(user, "4111111111111111", new BigDecimal("1000.00"));
+        createCard(user, "5555555555554444", new BigDecimal("10.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void transferBetweenOwnCards_ShouldReturnTransactionDto() throws Exception {
+        mockMvc.perform(post("/api/transfers/own")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"fromCardNumber": "4111111111111111", "toCardNumber": "5555555555554444",
+                                 "amount": 100.50, "description": "Savings"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").isString())
+                .andExpect(jsonPath("$.fromCardMasked").value("**** **** **** 1111"))
+                .andExpect(jsonPath("$.toCardMasked").value("**** **** **** 4444"))
+                .andExpect(jsonPath("$.amount").value(100.50))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.fromCard").doesNotExist())
+                .andExpect(jsonPath("$.toCard").doesNotExist())
+                .andExpect(sqlStatements().atMost(8));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void transferBetweenOwnCards_WithCbor_ShouldAcceptAndReturnCbor() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+        byte[] request = cbor.writeValueAsBytes(Map.of(
+                "fromCardNumber", "4111111111111111",
+                "toCardNumber", "5555555555554444",
+                "amount", new BigDecimal("100.50")));
+
+        byte[] response = mockMvc.perform(post("/api/transfers/own")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode transaction = cbor.readTree(response);
+        assertEquals("**** **** **** 1111", transaction.get("fromCardMasked").asText());
+        assertEquals(0, new BigDecimal("100.50").compareTo(transaction.get("amount").decimalValue()));
+        assertEquals("COMPLETED", transaction.get("status").asText());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    void getMyTransactions_ShouldNotLoadCardsPerTransaction() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/transfers/own")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("""
+                                    {"fromCardNumber": "4111111111111111", "toCardNumber": "5555555555554444",
+                                     "amount": 10.00}
+                                    """))
+                    .andExpect(status().isOk());
+        }
+
+        // Пользователь, его карты, id страницы и транзакции вместе с картами - без запроса на каждую карту
+        mockMvc.perform(get("/api/transactions/my"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.content[0].fromCardMasked").value("**** **** **** 1111"))
+                .andExpect(sqlStatements().atMost(4));
+    }
+
+    // Параллельные списания с одной карты: баланс проверяется и меняется под блокировкой строки,
+    // поэтому ни одно списание не теряется и карта не уходит в минус
+    @Test
+    void transferBetweenOwnCards_ConcurrentDebitsFromSameCard_ShouldNotLoseUpdates() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/api/transfers/own")
+                                    .with(user("alice"))
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("""
+                                            {"fromCardNumber": "4111111111111111", "toCardNumber": "5555555555554444",
+                                             "amount": 300.00}
+                                            """))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            int completed = 0;
+            for (Future<Integer> status : statuses) {
+                if (status.get() == 200) {
+                    completed++;
+                }
+            }
+
+            BankCard from = cardRepository.findByCardNumberHash(encryptionService.hash("4111111111111111")).orElseThrow();
+            BankCard to = cardRepository.findByCardNumberHash(encryptionService.hash("5555555555554444")).orElseThrow();
+            assertTrue(completed > 0 && completed <= 3, "completed transfers: " + completed);
+            assertEquals(completed, transactionRepository.count());
+            BigDecimal moved = new BigDecimal("300.00").multiply(BigDecimal.valueOf(completed));
+            assertEquals(0, new BigDecimal("1000.00").subtract(moved).compareTo(from.getBalance()));
+            assertEquals(0, new BigDecimal("10.00").add(moved).compareTo(to.getBalance()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void createCard(User user, String cardNumber, BigDecimal balance) {
+        cardRepository.save(BankCard.builder()
+                .cardNumberEncrypted(encryptionService.encrypt(cardNumber))
+                .cardNumberHash(encryptionService.hash(cardNumber))
+                .lastFourDigits(cardNumber.substring(12))
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .balance(balance)
+                .user(user)
+                .build());
+    }
+}
@@ -0,0 +1,310 @@
+package test.bankcardmanagement.controller;
+
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.entity.UserImportJob;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.UserImportJobRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.provisioning.UserProvisioningService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static test.bankcardmanagement.monitoring.SqlStatements.sqlStatements;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class UserControllerTest {
+
+    // Строки: новый пользователь, занятый username, не JSON, пустая, повтор email из файла, новый пользователь
+    private static final String IMPORT_FILE = """
+            {"username":"carol","password":"secret1","email":"carol@example.com","firstName":"Carol","lastName":"White","role":"ROLE_USER"}
+            {"username":"bob","password":"secret1","email":"other@example.com","firstName":"Bob","lastName":"Other","role":"ROLE_USER"}
+            not json
+
+            {"username":"carol2","password":"secret1","email":"carol@example.com","firstName":"Carol","lastName":"White","role":"ROLE_USER"}
+            {"username":"dave","password":"secret1","email":"dave@example.com","firstName":"Dave","lastName":"Green","role":"ROLE_ADMIN"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private UserImportJobRepository importJobRepository;
+
+    @Autowired
+    private UserProvisioningService provisioningService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("bob")
+                .password("encoded-secret")
+                .email("bob@example.com")
+                .firstName("Bob")
+                .lastName("Brown")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        cardRepository.save(BankCard.builder()
+                .cardNumberEncrypted("encrypted")
+                .cardNumberHash("hash-bob")
+                .lastFourDigits("1234")
+                .cardHolderName("Bob Brown")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .balance(BigDecimal.TEN)
+                .user(user)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(provisioningService, "chunkSize", 1000);
+        importJobRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getUsers_ShouldReturnSummariesWithoutPasswordOrCards() throws Exception {
+        mockMvc.perform(get("/api/admin/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("bob"))
+                .andExpect(jsonPath("$.content[0].cardCount").value(1))
+                .andExpect(jsonPath("$.content[0].password").doesNotExist())
+                .andExpect(jsonPath("$.content[0].cards").doesNotExist())
+                .andExpect(jsonPath("$.content[0].authorities").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(sqlStatements().atMost(2));
+    }
+
+    @Test
+    void getUsers_ShouldFilterAndPageByCursor() throws Exception {
+        userRepository.save(User.builder()
+                .username("bobby")
+                .password("encoded-secret")
+                .email("bobby@example.com")
+                .firstName("Bobby")
+                .lastName("Brown")
+                .role(Role.ROLE_USER)
+                .enabled(false)
+                .build());
+        userRepository.save(User.builder()
+                .username("bob_admin")
+                .password("encoded-secret")
+                .email("bob.admin@example.com")
+                .firstName("Bob")
+                .lastName("Admin")
+                .role(Role.ROLE_ADMIN)
+                .enabled(true)
+                .build());
+
+        String body = mockMvc.perform(get("/api/admin/users")
+                        .param("usernamePrefix", "bob")
+                        .param("role", "ROLE_USER")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("bob"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = body.replaceAll(".*\"nextCursor\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/admin/users")
+                        .param("usernamePrefix", "bob")
+                        .param("role", "ROLE_USER")
+                        .param("size", "1")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("bobby"))
+                .andExpect(jsonPath("$.content[0].cardCount").value(0))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        // "_" в префиксе - обычный символ, а не шаблон LIKE
+        mockMvc.perform(get("/api/admin/users").param("usernamePrefix", "bob_"))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].username").value("bob_admin"));
+        mockMvc.perform(get("/api/admin/users").param("enabled", "false"))
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].username").value("bobby"));
+    }
+
+    @Test
+    void searchUsers_ShouldMatchPrefixIgnoringCaseAndPageByCursor() throws Exception {
+        for (String username : List.of("Bobcat", "bobsled", "alice")) {
+            userRepository.save(User.builder()
+                    .username(username)
+                    .password("encoded-secret")
+                    .email(username.toLowerCase() + "@Support.example.com")
+                    .firstName("Test")
+                    .lastName("User")
+                    .role(Role.ROLE_USER)
+                    .enabled(true)
+                    .build());
+        }
+
+        String body = mockMvc.perform(get("/api/admin/users/search").param("q", "BOB").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].username").value("bob"))
+                .andExpect(jsonPath("$.content[0].cardCount").value(1))
+                .andExpect(jsonPath("$.content[1].username").value("Bobcat"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = body.replaceAll(".*\"nextCursor\":\"([^\"]+)\".*", "$1");
+
+        mockMvc.perform(get("/api/admin/users/search").param("q", "BOB").param("size", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].username").value("bobsled"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/admin/users/search").param("q", "alice@support").param("field", "EMAIL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].username").value("alice"));
+    }
+
+    @Test
+    void searchUsers_WithoutQuery_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/admin/users/search"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importUsers_ShouldCreateValidUsersAndCountDuplicatesAndInvalidLines() throws Exception {
+        ReflectionTestUtils.setField(provisioningService, "chunkSize", 2);
+
+        mockMvc.perform(post("/api/admin/users/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(IMPORT_FILE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.linesCommitted").value(6))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.skipped").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        User carol = userRepository.findByUsername("carol").orElseThrow();
+        assertTrue(passwordEncoder.matches("secret1", carol.getPassword()));
+        assertTrue(userRepository.findByUsername("dave").isPresent());
+        assertTrue(userRepository.findByUsername("carol2").isEmpty());
+    }
+
+    @Test
+    void importUsers_Resume_ShouldSkipCommittedLines() throws Exception {
+        ReflectionTestUtils.setField(provisioningService, "chunkSize", 2);
+        UserImportJob interrupted = importJobRepository.save(UserImportJob.builder()
+                .status(UserImportJob.Status.FAILED)
+                .linesCommitted(4)
+                .created(1)
+                .skipped(1)
+                .rejected(1)
+                .error("Connection reset")
+                .startedAt(LocalDateTime.now())
+                .build());
+
+        mockMvc.perform(post("/api/admin/users/bulk")
+                        .param("resumeJobId", interrupted.getId().toString())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(IMPORT_FILE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.linesCommitted").value(6))
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.error").doesNotExist());
+
+        // Первые четыре строки уже были обработаны, поэтому carol не создается, а carol2 - создается
+        assertTrue(userRepository.findByUsername("carol").isEmpty());
+        assertTrue(userRepository.findByUsername("carol2").isPresent());
+        assertTrue(userRepository.findByUsername("dave").isPresent());
+
+        mockMvc.perform(get("/api/admin/users/bulk/{jobId}", interrupted.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        mockMvc.perform(post("/api/admin/users/bulk")
+                        .param("resumeJobId", interrupted.getId().toString())
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(IMPORT_FILE))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getUserById_ShouldReturnDto() throws Exception {
+        mockMvc.perform(get("/api/admin/users/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("bob@example.com"))
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(sqlStatements().atMost(1));
+    }
+
+    @Test
+    void getUserById_WhenMissing_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/admin/users/{id}", user.getId() + 1000))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("User Not Found"))
+                .andExpect(jsonPath("$.message").value("User not found with id: " + (user.getId() + 1000)));
+    }
+
+    @Test
+    void createUser_WithTakenUsername_ShouldReturnConflict() throws Exception {
+        mockMvc.perform(post("/api/admin/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"bob","password":"secret1","email":"other@example.com",\
+                                "firstName":"Bob","lastName":"Other","role":"ROLE_USER"}"""))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.error").value("User Already Exists"))
+                .andExpect(jsonPath("$.message").value("Username already exists"));
+    }
+
+    @Test
+    void openInView_ShouldBeDisabled() {
+        assertTrue(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class).isEmpty());
+    }
+
+    @Test
+    void lazyLoadOutsideTransaction_ShouldFail() {
+        User detached = userRepository.findById(user.getId()).orElseThrow();
+
+        assertThrows(LazyInitializationException.class, () -> detached.getCards().size());
+    }
+}
@@ -0,0 +1,118 @@
+package test.bankcardmanagement.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import test.bankcardmanagement.service.EncryptionService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void transferEvent_ShouldCarryCardsAmountBucketAndLockWait() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            TransferEvent event = TransferEvent.start();
+            TransferEvent.transferring(1L, 2L, new BigDecimal("250.00"));
+            TransferEvent.lockWaited(1_000);
+            TransferEvent.lockWaited(2_000);
+            event.finish("completed");
+        }, "bankcard.Transfer");
+
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(1L, event.getLong("fromCardId"));
+        assertEquals(2L, event.getLong("toCardId"));
+        assertEquals("100-1000", event.getString("amountBucket"));
+        assertEquals(Duration.ofNanos(3_000), event.getDuration("lockWait"));
+        assertEquals("completed", event.getString("outcome"));
+    }
+
+    @Test
+    void transferEvent_WhenDisabled_ShouldIgnoreLockWaits() {
+        TransferEvent event = TransferEvent.start();
+        TransferEvent.lockWaited(1_000);
+        event.finish("completed");
+
+        assertEquals(0, event.lockWait);
+    }
+
+    @Test
+    void transferEvent_RecordingStoppedMidTransfer_ShouldReleaseThread() throws IOException {
+        TransferEvent[] inFlight = new TransferEvent[1];
+        record(() -> inFlight[0] = TransferEvent.start(), "bankcard.Transfer");
+
+        inFlight[0].finish("completed");
+        TransferEvent.lockWaited(1_000);
+
+        assertEquals(0, inFlight[0].lockWait);
+    }
+
+    @Test
+    void transferEvent_RecordingStartedMidTransfer_ShouldNotCommit() throws IOException {
+        TransferEvent event = TransferEvent.start();
+
+        List<RecordedEvent> events = record(() -> event.finish("completed"), "bankcard.Transfer");
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void encryptionService_ShouldEmitCryptoEventsPerOperation() throws IOException {
+        EncryptionService encryptionService = new EncryptionService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "encryptionKey", "12345678901234567890123456789012");
+        ReflectionTestUtils.setField(encryptionService, "algorithm", "AES/CBC/PKCS5Padding");
+
+        List<RecordedEvent> events = record(() -> {
+            encryptionService.decrypt(encryptionService.encrypt("4111111111111111"));
+            encryptionService.hash("4111111111111111");
+        }, "bankcard.CardCrypto");
+
+        assertEquals(List.of("encrypt", "decrypt", "hash"),
+                events.stream().map(event -> event.getString("operation")).toList());
+        assertTrue(events.stream().allMatch(event -> event.getBoolean("succeeded")));
+    }
+
+    @Test
+    void recordingProfile_ShouldEnableAllApplicationEvents() throws Exception {
+        Configuration configuration = Configuration.create(Path.of("src/main/jfr/bank-card-management.jfc"));
+
+        for (String event : List.of("bankcard.Transfer", "bankcard.CardCrypto",
+                "bankcard.JwtVerification", "bankcard.UserLookup")) {
+            assertEquals("true", configuration.getSettings().get(event + "#enabled"));
+            assertEquals("false", configuration.getSettings().get(event + "#stackTrace"));
+        }
+    }
+
+    private List<RecordedEvent> record(Runnable action, String eventName) throws IOException {
+        Path file = tempDir.resolve("test.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withoutThreshold();
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .toList();
+    }
+}
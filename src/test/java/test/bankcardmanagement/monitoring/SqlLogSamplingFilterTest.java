@@ -0,0 +1,61 @@
+package test.bankcardmanagement.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlLogSamplingFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger sqlLogger = loggerContext.getLogger("org.hibernate.SQL");
+    private SqlLogSamplingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SqlLogSamplingFilter();
+    }
+
+    @Test
+    void decide_WithZeroRate_ShouldDenySqlDebugChecks() {
+        filter.setSampleRate(0);
+
+        assertEquals(FilterReply.DENY, filter.decide(null, sqlLogger, Level.DEBUG, null, null, null));
+    }
+
+    @Test
+    void decide_WithFullRate_ShouldPassSqlDebugChecks() {
+        filter.setSampleRate(1);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sqlLogger, Level.DEBUG, null, null, null));
+    }
+
+    @Test
+    void decide_ShouldPassAboutSampleRateOfChecks() {
+        filter.setSampleRate(0.1);
+        int passed = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.decide(null, sqlLogger, Level.DEBUG, null, null, null) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+
+        assertTrue(passed > 9_000 && passed < 11_000, "passed " + passed);
+    }
+
+    // Сообщение уже прошло выборку на isDebugEnabled; остальные логгеры и уровни не трогаем
+    @Test
+    void decide_ShouldNotFilterMessagesOtherLoggersOrHigherLevels() {
+        filter.setSampleRate(0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sqlLogger, Level.DEBUG, "select 1", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, sqlLogger, Level.WARN, null, null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(null, loggerContext.getLogger("test.bankcardmanagement"), Level.DEBUG, null, null, null));
+    }
+}
@@ -0,0 +1,70 @@
+package test.bankcardmanagement.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SqlStatementListenerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate requiresNew;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DataSource dataSource = ProxyDataSourceBuilder.create(
+                        new DriverManagerDataSource("jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1", "sa", ""))
+                .listener(new SqlStatementListener(meterRegistry, 0))
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS items (id INT PRIMARY KEY)");
+        jdbcTemplate.execute("DELETE FROM items");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Test
+    void statements_ShouldBeCountedPerTypeAndBatchOnce() {
+        jdbcTemplate.batchUpdate("INSERT INTO items (id) VALUES (?)", List.of(new Object[]{1}, new Object[]{2}));
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class);
+
+        assertEquals(1, count("insert"));
+        assertEquals(1, count("select"));
+    }
+
+    @Test
+    void transactions_ShouldRecordOwnStatementsIncludingAroundRequiresNew() {
+        transactionTemplate.executeWithoutResult(outer -> {
+            jdbcTemplate.update("INSERT INTO items (id) VALUES (1)");
+            requiresNew.executeWithoutResult(inner ->
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+            jdbcTemplate.update("INSERT INTO items (id) VALUES (2)");
+            jdbcTemplate.update("INSERT INTO items (id) VALUES (3)");
+        });
+
+        DistributionSummary perTransaction = meterRegistry.get("sql.statements.per.transaction").summary();
+        assertEquals(2, perTransaction.count());
+        assertEquals(4, perTransaction.totalAmount());
+        assertEquals(3, perTransaction.max());
+    }
+
+    private double count(String type) {
+        return meterRegistry.get("sql.statements").tag("type", type).counter().count();
+    }
+}
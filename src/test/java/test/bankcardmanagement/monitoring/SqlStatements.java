@@ -0,0 +1,38 @@
+package test.bankcardmanagement.monitoring;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Бюджет SQL-операторов на запрос в MockMvc-тестах: .andExpect(sqlStatements().atMost(3)).
+// Число берется из SqlStatementCountingFilter, поэтому в него входят все операторы потока запроса.
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    public static SqlStatements sqlStatements() {
+        return new SqlStatements();
+    }
+
+    public ResultMatcher atMost(int max) {
+        return result -> {
+            int executed = executed(result.getRequest().getAttribute(SqlStatementCountingFilter.STATEMENTS_ATTRIBUTE));
+            assertTrue(executed <= max, "Expected at most " + max + " SQL statements, but " + executed
+                    + " were executed for " + result.getRequest().getRequestURI());
+        };
+    }
+
+    public ResultMatcher exactly(int expected) {
+        return result -> assertEquals(expected,
+                executed(result.getRequest().getAttribute(SqlStatementCountingFilter.STATEMENTS_ATTRIBUTE)),
+                "SQL statements executed for " + result.getRequest().getRequestURI());
+    }
+
+    private static int executed(Object attribute) {
+        assertNotNull(attribute, "SQL statements were not counted: is app.sql.instrumentation.enabled off?");
+        return (Integer) attribute;
+    }
+}
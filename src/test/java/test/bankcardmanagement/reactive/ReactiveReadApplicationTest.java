@@ -0,0 +1,239 @@
+package test.bankcardmanagement.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.security.jwt.JwtUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Сервис чтения на своей базе H2: схему создает Liquibase, данные пишутся через JDBC, как их писало бы основное приложение
+@SpringBootTest(classes = ReactiveReadApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "spring.liquibase.enabled=true",
+                "spring.liquibase.url=" + ReactiveReadApplicationTest.JDBC_URL,
+                "spring.liquibase.user=sa",
+                "management.server.port=0"
+        })
+@ActiveProfiles("reactive")
+class ReactiveReadApplicationTest {
+
+    static final String JDBC_URL = "jdbc:h2:mem:reactivedb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(JDBC_URL, "sa", ""));
+
+    private long aliceCardA;
+    private long aliceCardB;
+    private long bobCard;
+
+    @BeforeEach
+    void setUp() {
+        long alice = createUser("alice", "ROLE_USER");
+        long bob = createUser("bob", "ROLE_USER");
+        createUser("auditor", "ROLE_ADMIN");
+        aliceCardA = createCard(alice, "1111", "1000.00", 0, "2024-01-01T10:00:00");
+        aliceCardB = createCard(alice, "4444", "10.00", 2, "2024-01-02T10:00:00");
+        bobCard = createCard(bob, "0004", "500.00", 0, "2024-01-03T10:00:00");
+        jdbcTemplate.update("INSERT INTO card_balance_shards (card_id, shard_no, balance) VALUES (?, 0, 5.00), (?, 1, 7.50)",
+                aliceCardB, aliceCardB);
+
+        for (int i = 1; i <= 5; i++) {
+            createTransaction(aliceCardA, bobCard, i + ".00", "2024-02-01T10:0" + i + ":00", "Payment " + i);
+        }
+        createTransaction(bobCard, aliceCardB, "3.00", "2024-02-02T10:00:00", "=refund, \"partial\"");
+        createTransaction(bobCard, bobCard, "1.00", "2024-02-03T10:00:00", "Not visible to alice");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transactions");
+        jdbcTemplate.update("DELETE FROM card_balance_shards");
+        jdbcTemplate.update("DELETE FROM bank_cards");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void myCards_ShouldReturnOwnCardsPageWithShardedBalance() {
+        webTestClient.get().uri("/api/cards/my?size=1&page=1")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(2)
+                .jsonPath("$.totalPages").isEqualTo(2)
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo(aliceCardB)
+                .jsonPath("$.content[0].maskedCardNumber").isEqualTo("**** **** **** 4444")
+                .jsonPath("$.content[0].balance").isEqualTo(22.5);
+    }
+
+    @Test
+    void cardById_ShouldCheckOwnershipLikeServletApi() {
+        webTestClient.get().uri("/api/cards/{id}", aliceCardA)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.cardHolderName").isEqualTo("ALICE SMITH");
+
+        webTestClient.get().uri("/api/cards/{id}", bobCard)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("$.message").isEqualTo("Access denied to this card");
+
+        byte[] cbor = webTestClient.get().uri("/api/cards/{id}", bobCard)
+                .header(HttpHeaders.AUTHORIZATION, bearer("auditor"))
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals("**** **** **** 0004", readCbor(cbor).get("maskedCardNumber").asText());
+
+        webTestClient.get().uri("/api/cards/{id}", 999_999)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Card Not Found")
+                .jsonPath("$.message").isEqualTo("Card not found with id: 999999");
+    }
+
+    @Test
+    void requestsWithoutValidToken_ShouldBeForbidden() {
+        webTestClient.get().uri("/api/cards/my").exchange().expectStatus().isForbidden();
+        webTestClient.get().uri("/api/cards/my")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void history_ShouldPageThroughOwnTransactionsWithCursor() {
+        CursorPage first = webTestClient.get().uri("/api/transactions/my?size=4")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CursorPage.class).returnResult().getResponseBody();
+        assertTrue(first.hasNext());
+        assertEquals(List.of("=refund, \"partial\"", "Payment 5", "Payment 4", "Payment 3"),
+                first.content().stream().map(Row::description).toList());
+
+        CursorPage second = webTestClient.get().uri("/api/transactions/my?size=4&cursor={cursor}", first.nextCursor())
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CursorPage.class).returnResult().getResponseBody();
+        assertFalse(second.hasNext());
+        assertEquals(List.of("Payment 2", "Payment 1"), second.content().stream().map(Row::description).toList());
+
+        webTestClient.get().uri("/api/transactions/my?cardId={id}", bobCard)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/api/transactions/my?size=500")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.size").isEqualTo("Page size cannot exceed 100");
+    }
+
+    @Test
+    void export_ShouldStreamCsvAndNdjson() {
+        String csv = webTestClient.get().uri("/api/transactions/export?cardId={id}", aliceCardB)
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(new MediaType("text", "csv"))
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.csv\"")
+                .expectBody(String.class).returnResult().getResponseBody();
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("transactionId,fromCardMasked,toCardMasked,amount,timestamp,status,description", lines[0]);
+        assertTrue(lines[1].endsWith(",**** **** **** 0004,**** **** **** 4444,3.00,2024-02-02T10:00,COMPLETED," +
+                "\"'=refund, \"\"partial\"\"\""), lines[1]);
+
+        List<Row> rows = webTestClient.get().uri("/api/transactions/export?format=NDJSON")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Row.class).getResponseBody().collectList().block();
+        assertEquals(List.of("Payment 1", "Payment 2", "Payment 3", "Payment 4", "Payment 5", "=refund, \"partial\""),
+                rows.stream().map(Row::description).toList());
+
+        webTestClient.get().uri("/api/transactions/export?gzip=true")
+                .header(HttpHeaders.AUTHORIZATION, bearer("alice"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private record Row(String transactionId, String description) {
+    }
+
+    private record CursorPage(List<Row> content, boolean hasNext, String nextCursor) {
+    }
+
+    private static JsonNode readCbor(byte[] body) {
+        try {
+            return new CBORMapper().readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String bearer(String username) {
+        return "Bearer " + jwtUtil.generateToken(User.builder().username(username).build());
+    }
+
+    private long createUser(String username, String role) {
+        jdbcTemplate.update("INSERT INTO users (username, password, email, first_name, last_name, role, enabled) " +
+                "VALUES (?, 'encoded', ?, 'First', 'Last', ?, TRUE)", username, username + "@example.com", role);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+    }
+
+    private long createCard(long userId, String lastFour, String balance, int shards, String createdAt) {
+        jdbcTemplate.update("INSERT INTO bank_cards (card_number_encrypted, card_number_hash, last_four_digits, " +
+                        "card_holder_name, expiration_date, status, balance, balance_shards, user_id, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, 'ALICE SMITH', DATE '2030-01-01', 'ACTIVE', ?, ?, ?, ?, ?)",
+                "enc" + lastFour, "hash" + lastFour, lastFour, new BigDecimal(balance), shards, userId,
+                LocalDateTime.parse(createdAt), LocalDateTime.parse(createdAt));
+        return jdbcTemplate.queryForObject("SELECT id FROM bank_cards WHERE card_number_hash = ?", Long.class,
+                "hash" + lastFour);
+    }
+
+    private void createTransaction(long fromCardId, long toCardId, String amount, String timestamp, String description) {
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, from_card_id, to_card_id, amount, timestamp, status, description) " +
+                        "VALUES (RANDOM_UUID(), ?, ?, ?, ?, 'COMPLETED', ?)",
+                fromCardId, toCardId, new BigDecimal(amount), LocalDateTime.parse(timestamp), description);
+    }
+}
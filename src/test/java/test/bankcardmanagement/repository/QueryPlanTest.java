@@ -0,0 +1,278 @@
+package test.bankcardmanagement.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+import test.bankcardmanagement.dto.request.UserListRequest;
+import test.bankcardmanagement.dto.request.UserSearchRequest;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Схема из миграций Liquibase на настоящем PostgreSQL, таблицы заполнены до размеров, при которых
+// планировщик выбирает Seq Scan, если подходящего индекса нет. SQL каждого метода репозитория
+// перехватывается у Hibernate и проверяется через EXPLAIN (GENERIC_PLAN): план не должен зависеть
+// от удачных значений параметров.
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=test.bankcardmanagement.repository.QueryPlanTest$CapturingInspector",
+        "spring.jpa.show-sql=false",
+        "app.recurring-transfers.enabled=false"
+})
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private static final Set<String> LARGE_TABLES = Set.of(
+            "users", "bank_cards", "transactions", "ledger_entries", "recurring_transfers", "reconciliation_mismatches");
+    private static final Pageable CARD_PAGE = PageRequest.of(1, 10, Sort.by("createdAt"));
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private CardBalanceShardRepository shardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RecurringTransferRepository recurringTransferRepository;
+
+    @Autowired
+    private ReconciliationMismatchRepository mismatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        try {
+            // Процесс сервера останавливается shutdown hook'ом при завершении JVM
+            postgres = EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private JdbcTemplate explainTemplate;
+
+    @BeforeAll
+    void seed() {
+        // Простой протокол: иначе драйвер сам подготавливает EXPLAIN и требует значения для $1, $2...
+        explainTemplate = new JdbcTemplate(
+                new DriverManagerDataSource(postgres.getJdbcUrl("postgres", "postgres") + "&preferQueryMode=simple"));
+        jdbcTemplate.update("INSERT INTO users (username, password, email, first_name, last_name, role, enabled) " +
+                "SELECT 'user' || g, 'x', 'user' || g || '@bank.com', 'First', 'Last', " +
+                "CASE WHEN g % 100 = 0 THEN 'ROLE_ADMIN' ELSE 'ROLE_USER' END, g % 50 <> 0 " +
+                "FROM generate_series(1, 20000) g");
+        jdbcTemplate.update("INSERT INTO bank_cards (card_number_encrypted, card_number_hash, last_four_digits, " +
+                "card_holder_name, expiration_date, status, balance, balance_shards, user_id, created_at, updated_at) " +
+                "SELECT 'enc' || g, 'hash' || g, lpad((g % 10000)::text, 4, '0'), 'HOLDER', " +
+                "DATE '2020-01-01' + g % 3000, " +
+                "CASE WHEN g % 20 = 0 THEN 'BLOCKED' WHEN g % 25 = 0 THEN 'EXPIRED' ELSE 'ACTIVE' END, " +
+                "1000, 0, (SELECT min(id) FROM users) + g % 20000, " +
+                "TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute', TIMESTAMP '2024-01-01' " +
+                "FROM generate_series(1, 100000) g");
+        jdbcTemplate.update("INSERT INTO transactions (transaction_id, from_card_id, to_card_id, amount, timestamp, status, description) " +
+                "SELECT gen_random_uuid(), c.min_id + g % 100000, c.min_id + (g * 7 + 1) % 100000, 10, " +
+                "TIMESTAMP '2024-01-01' + g * INTERVAL '1 second', 'COMPLETED', 'Transfer' " +
+                "FROM generate_series(1, 200000) g, (SELECT min(id) AS min_id FROM bank_cards) c");
+        jdbcTemplate.update("INSERT INTO ledger_entries (id, transaction_id, card_id, entry_type, amount, created_at) " +
+                "SELECT nextval('ledger_entries_seq'), NULL, id, 'OPENING', 1000, created_at FROM bank_cards");
+        jdbcTemplate.update("INSERT INTO ledger_entries (id, transaction_id, card_id, entry_type, amount, created_at) " +
+                "SELECT nextval('ledger_entries_seq'), transaction_id, from_card_id, 'DEBIT', -amount, timestamp FROM transactions " +
+                "UNION ALL SELECT nextval('ledger_entries_seq'), transaction_id, to_card_id, 'CREDIT', amount, timestamp FROM transactions");
+        jdbcTemplate.update("INSERT INTO recurring_transfers (user_id, from_card_id, to_card_id, amount, description, " +
+                "frequency, next_run_at, failure_count, status, created_at) " +
+                "SELECT user_id, id, id, 10, 'Rent', 'MONTHLY', TIMESTAMP '2030-01-01' + id * INTERVAL '1 minute', 0, " +
+                "CASE WHEN id % 10 = 0 THEN 'ACTIVE' ELSE 'CANCELLED' END, created_at FROM bank_cards WHERE id % 2 = 0");
+        jdbcTemplate.update("INSERT INTO reconciliation_mismatches (run_id, card_id, balance, expected_balance, detected_at) " +
+                "SELECT g % 20, g, 1000, 990, TIMESTAMP '2024-01-01' FROM generate_series(1, 100000) g");
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    @Test
+    void bankCardQueriesUseIndexes() {
+        User user = userRepository.findByUsername("user42").orElseThrow();
+        Long cardId = cardRepository.findIdsByUserId(user.getId()).get(0);
+        assertIndexed(() -> {
+            cardRepository.findByCardNumberHash("hash42");
+            cardRepository.existsByCardNumberHash("hash42");
+            cardRepository.findByUser(user, CARD_PAGE);
+            cardRepository.findByUserId(user.getId(), CARD_PAGE);
+            cardRepository.findByUserIdAndStatus(user.getId(), BankCard.CardStatus.ACTIVE, CARD_PAGE);
+            cardRepository.findByStatus(BankCard.CardStatus.BLOCKED, CARD_PAGE);
+            cardRepository.findByExpirationDateBefore(LocalDate.of(2020, 1, 10));
+            cardRepository.findIdsByUserId(user.getId());
+            cardRepository.debitIfSufficient(cardId, BigDecimal.ONE, LocalDateTime.now());
+            cardRepository.addToBalance(cardId, BigDecimal.ONE, LocalDateTime.now());
+        });
+    }
+
+    @Test
+    void transactionQueriesUseIndexes() {
+        User user = userRepository.findByUsername("user42").orElseThrow();
+        List<Long> cardIds = cardRepository.findIdsByUserId(user.getId());
+        assertIndexed(() -> {
+            transactionRepository.findByTransactionId(UUID.randomUUID());
+            transactionRepository.findByFromCard_User_Id(user.getId(), PageRequest.of(0, 20));
+            transactionRepository.findByToCard_User_Id(user.getId(), PageRequest.of(0, 20));
+            transactionRepository.findAllWithCardsByIdIn(List.of(1L, 2L, 3L));
+            transactionRepository.findHistoryIds(cardIds, new TransactionHistoryRequest(), null, null, 21);
+            transactionRepository.findHistoryIds(cardIds, TransactionHistoryRequest.builder()
+                            .from(LocalDateTime.of(2024, 1, 1, 0, 0))
+                            .minAmount(BigDecimal.ONE)
+                            .build(),
+                    LocalDateTime.of(2024, 1, 3, 0, 0), 100L, 21);
+        });
+    }
+
+    @Test
+    void ledgerQueriesUseIndexes() {
+        Long cardId = cardRepository.findIdsByUserId(userRepository.findByUsername("user42").orElseThrow().getId()).get(0);
+        assertIndexed(() -> {
+            ledgerEntryRepository.findByTransactionId(UUID.randomUUID());
+            cardRepository.lockAllById(List.of(cardId));
+            shardRepository.findByCardIdOrderByShardNo(cardId);
+            shardRepository.credit(cardId, 0, BigDecimal.ONE);
+            shardRepository.deleteByCardId(cardId);
+        });
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        assertIndexed(() -> {
+            userRepository.findByUsername("user42");
+            userRepository.findByEmail("user42@bank.com");
+            userRepository.existsByUsername("user42");
+            userRepository.existsByEmail("user42@bank.com");
+            userRepository.findSummaries(new UserListRequest(), 100L, 21);
+            userRepository.findSummaries(UserListRequest.builder().role(Role.ROLE_ADMIN).build(), null, 21);
+            userRepository.findSummaries(UserListRequest.builder().enabled(false).build(), 100L, 21);
+            userRepository.findSummaries(UserListRequest.builder().usernamePrefix("user4").build(), null, 21);
+            userRepository.searchSummaries(UserSearchRequest.SearchField.USERNAME, "USER4", null, null, 21);
+            userRepository.searchSummaries(UserSearchRequest.SearchField.EMAIL, "user4", "user42@bank.com", 43L, 21);
+        });
+    }
+
+    @Test
+    void recurringTransferAndReconciliationQueriesUseIndexes() {
+        assertIndexed(() -> {
+            recurringTransferRepository.findByUserUsername("user42", PageRequest.of(0, 10, Sort.by("nextRunAt")));
+            mismatchRepository.findByRunId(3L, PageRequest.of(1, 50, Sort.by("cardId")));
+        });
+    }
+
+    // Выполняет вызовы в откатываемой транзакции и проверяет план каждого выданного ими запроса
+    private void assertIndexed(Runnable repositoryCalls) {
+        CapturingInspector.STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            repositoryCalls.run();
+            status.setRollbackOnly();
+        });
+        List<String> statements;
+        synchronized (CapturingInspector.STATEMENTS) {
+            statements = new ArrayList<>(CapturingInspector.STATEMENTS);
+        }
+        assertFalse(statements.isEmpty(), "No statements captured");
+
+        for (String sql : statements) {
+            String plan = explainTemplate.queryForObject(
+                    "EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numberParameters(sql), String.class);
+            List<String> seqScans = new ArrayList<>();
+            try {
+                collectSeqScans(objectMapper.readTree(plan).get(0).get("Plan"), seqScans);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!seqScans.isEmpty()) {
+                fail("Seq Scan on " + seqScans + " for query:\n" + sql + "\nplan:\n" + plan);
+            }
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && LARGE_TABLES.contains(node.path("Relation Name").asText())) {
+            seqScans.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+
+    // EXPLAIN принимает параметры только в виде $1, $2...
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length());
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final Set<String> STATEMENTS = Collections.synchronizedSet(new LinkedHashSet<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package test.bankcardmanagement.security.throttling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private BulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new BulkheadFilter(new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "transfersMaxConcurrent", 1);
+        ReflectionTestUtils.setField(filter, "transfersMaxQueue", 0);
+        ReflectionTestUtils.setField(filter, "transfersMaxWaitMs", 0L);
+        ReflectionTestUtils.setField(filter, "readsMaxConcurrent", 1);
+        ReflectionTestUtils.setField(filter, "readsMaxQueue", 0);
+        ReflectionTestUtils.setField(filter, "readsMaxWaitMs", 0L);
+        ReflectionTestUtils.setField(filter, "adminMaxConcurrent", 1);
+        ReflectionTestUtils.setField(filter, "adminMaxQueue", 0);
+        ReflectionTestUtils.setField(filter, "adminMaxWaitMs", 0L);
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void saturatedReads_ShouldBeRejectedWhileTransfersPass() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<MockHttpServletResponse> slowRead = executor.submit(() -> perform("GET", "/api/cards/my",
+                new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest request, HttpServletResponse response) {
+                        entered.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse rejected = perform("GET", "/api/transactions/my", null);
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("\"error\":\"Service Busy\""));
+        assertEquals(200, perform("POST", "/api/transfers/own", null).getStatus());
+        assertEquals(200, perform("PATCH", "/api/cards/1/status", null).getStatus());
+        assertEquals(1, gauge("http.bulkhead.active", "reads"));
+
+        release.countDown();
+        assertEquals(200, slowRead.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(200, perform("GET", "/api/transactions/my", null).getStatus());
+        assertEquals(0, gauge("http.bulkhead.active", "reads"));
+        assertEquals(1, meterRegistry.get("http.bulkhead.rejected").tag("group", "reads").counter().count());
+        assertEquals(0, meterRegistry.get("http.bulkhead.rejected").tag("group", "transfers").counter().count());
+    }
+
+    @Test
+    void asyncResponse_ShouldHoldSlotUntilCompleted() throws Exception {
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/api/transactions/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.startAsync();
+            }
+        }));
+
+        assertEquals(503, perform("GET", "/api/cards/my", null).getStatus());
+
+        export.getAsyncContext().complete();
+        assertEquals(200, perform("GET", "/api/cards/my", null).getStatus());
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, HttpServlet servlet) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response,
+                servlet == null ? new MockFilterChain() : new MockFilterChain(servlet));
+        return response;
+    }
+
+    private double gauge(String name, String group) {
+        return meterRegistry.get(name).tag("group", group).gauge().value();
+    }
+}
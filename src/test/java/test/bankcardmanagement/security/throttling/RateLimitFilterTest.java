@@ -0,0 +1,74 @@
+package test.bankcardmanagement.security.throttling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Корзина на два запроса, которая за время теста не пополняется
+@SpringBootTest(properties = {
+        "app.rate-limit.capacity=2",
+        "app.rate-limit.tokens-per-second=0.01"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void requestsOverUserLimit_ShouldBeRejectedForThatUserOnly() throws Exception {
+        double limited = rejected("user");
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/admin/users").with(user("alice").roles("ADMIN")))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/admin/users").with(user("alice").roles("ADMIN")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"))
+                .andExpect(jsonPath("$.error").value("Too Many Requests"))
+                .andExpect(jsonPath("$.path").value("/api/admin/users"));
+        mockMvc.perform(get("/api/admin/users").with(user("carol").roles("ADMIN")))
+                .andExpect(status().isOk());
+        assertEquals(limited + 1, rejected("user"));
+    }
+
+    @Test
+    void anonymousRequests_ShouldBeLimitedPerClientAddress() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/auth/login").with(request -> {
+                        request.setRemoteAddr("10.0.0.1");
+                        return request;
+                    })
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"username\":\"nobody\",\"password\":\"wrong\"}"));
+        }
+
+        mockMvc.perform(post("/api/auth/login").with(request -> {
+                    request.setRemoteAddr("10.0.0.1");
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"nobody\",\"password\":\"wrong\"}"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private double rejected(String client) {
+        return meterRegistry.get("http.rate.limit.rejected").tag("client", client).counter().count();
+    }
+}
@@ -0,0 +1,64 @@
+package test.bankcardmanagement.security.throttling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketStoreTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenRefillAtRate() {
+        TokenBucketStore store = new TokenBucketStore(3, 2, 4);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryAcquire("alice", now));
+        }
+        assertEquals(SECOND / 2, store.tryAcquire("alice", now));
+        // Отказ токен не расходует
+        assertEquals(SECOND / 4, store.tryAcquire("alice", now + SECOND / 4));
+
+        assertEquals(0, store.tryAcquire("alice", now + SECOND / 2));
+        assertTrue(store.tryAcquire("alice", now + SECOND / 2) > 0);
+        // Через секунду простоя - два токена, но не больше емкости
+        assertEquals(0, store.tryAcquire("alice", now + 3 * SECOND / 2));
+        assertEquals(0, store.tryAcquire("alice", now + 3 * SECOND / 2));
+        assertTrue(store.tryAcquire("alice", now + 3 * SECOND / 2) > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldKeepSeparateBucketsPerKey() {
+        TokenBucketStore store = new TokenBucketStore(1, 1, 1);
+
+        assertEquals(0, store.tryAcquire("alice", 0));
+        assertTrue(store.tryAcquire("alice", 0) > 0);
+        assertEquals(0, store.tryAcquire("bob", 0));
+    }
+
+    @Test
+    void tryAcquire_ShouldDropRefilledBucketsWhenStripeGrows() {
+        TokenBucketStore store = new TokenBucketStore(10, 1, 1);
+        for (int i = 0; i < 64; i++) {
+            store.tryAcquire("user" + i, 0);
+        }
+        assertEquals(64, store.size());
+
+        // Корзины без активности дольше одного токена снова полные и не нужны
+        store.tryAcquire("active", SECOND);
+        store.tryAcquire("active", SECOND);
+        store.tryAcquire("newcomer", 2 * SECOND);
+
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void constructor_WithStripesNotPowerOfTwo_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketStore(10, 1, 3));
+    }
+}
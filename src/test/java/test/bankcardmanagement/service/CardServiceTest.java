@@ -18,12 +18,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import test.bankcardmanagement.dto.request.CardCreateRequest;
 import test.bankcardmanagement.dto.response.CardResponse;
 import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.LedgerEntry;
 import test.bankcardmanagement.entity.Role;
 import test.bankcardmanagement.entity.User;
 import test.bankcardmanagement.exception.CardNotFoundException;
 import test.bankcardmanagement.exception.OperationNotAllowedException;
 import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
 import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.accounting.CardBalanceShardService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +37,7 @@ import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,9 +49,15 @@ class CardServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
     @Mock
     private EncryptionService encryptionService;
 
+    @Mock
+    private CardBalanceShardService cardBalanceShardService;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -111,6 +121,9 @@ class CardServiceTest {
         assertEquals(BigDecimal.valueOf(1000), result.getBalance());
         assertEquals("Test User", result.getCardHolderName());
         verify(cardRepository).save(any(BankCard.class));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getEntryType() == LedgerEntry.EntryType.OPENING
+                && entry.getCardId().equals(1L)
+                && entry.getAmount().equals(BigDecimal.valueOf(1000))));
     }
 
 
@@ -125,6 +138,7 @@ class CardServiceTest {
         // Act & Assert
         assertThrows(RuntimeException.class, () -> cardService.createCard(validRequest));
         verify(cardRepository, never()).save(any());
+        verify(ledgerEntryRepository, never()).save(any());
     }
 
     @Test
@@ -311,6 +325,39 @@ class CardServiceTest {
         verify(cardRepository, never()).delete(any());
     }
 
+    @Test
+    void deleteCard_WithBalanceShards_ShouldConsolidateShardsFirst() {
+        // Arrange
+        testCard.setBalanceShards(4);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+
+        Set<SimpleGrantedAuthority> authorities = Set.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        when(authentication.getAuthorities()).thenAnswer(invocation -> authorities);
+
+        // Act
+        cardService.deleteCard(1L);
+
+        // Assert
+        verify(cardBalanceShardService).resize(testCard, 0);
+        verify(cardRepository).delete(testCard);
+    }
+
+    @Test
+    void updateBalanceShards_ShouldResizeAndReturnTotalBalance() {
+        // Arrange
+        testCard.setShardedBalance(BigDecimal.valueOf(250));
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.save(testCard)).thenReturn(testCard);
+
+        // Act
+        CardResponse result = cardService.updateBalanceShards(1L, 8);
+
+        // Assert
+        verify(cardBalanceShardService).resize(testCard, 8);
+        assertEquals(BigDecimal.valueOf(1250), result.getBalance());
+    }
+
     @Test
     void testCardNumberValidation_ValidNumbers() {
 
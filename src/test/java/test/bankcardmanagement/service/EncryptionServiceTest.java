@@ -1,10 +1,9 @@
 package test.bankcardmanagement.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.nio.charset.StandardCharsets;
@@ -12,11 +11,11 @@ import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@ExtendWith(MockitoExtension.class)
 class EncryptionServiceTest {
 
-    @InjectMocks
-    private EncryptionService encryptionService;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EncryptionService encryptionService = new EncryptionService(meterRegistry);
 
     private final String testEncryptionKey = "12345678901234567890123456789012"; // 32 bytes for AES-256
     private final String testAlgorithm = "AES/CBC/PKCS5Padding";
@@ -289,9 +288,22 @@ class EncryptionServiceTest {
     }
 
     @Test
-    void service_WithDefaultConstructor_ShouldInitialize() {
+    void operations_ShouldBeTimedPerOperation() {
+        // Act
+        encryptionService.decrypt(encryptionService.encrypt(testData));
+        encryptionService.hash(testData);
+        assertThrows(RuntimeException.class, () -> encryptionService.decrypt("not-base64!"));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("card.encryption").tag("operation", "encrypt").timer().count());
+        assertEquals(2, meterRegistry.get("card.encryption").tag("operation", "decrypt").timer().count());
+        assertEquals(1, meterRegistry.get("card.encryption").tag("operation", "hash").timer().count());
+    }
+
+    @Test
+    void service_WithMeterRegistry_ShouldInitialize() {
         // Arrange & Act
-        EncryptionService service = new EncryptionService();
+        EncryptionService service = new EncryptionService(new SimpleMeterRegistry());
 
         // Assert
         assertNotNull(service);
@@ -0,0 +1,216 @@
+package test.bankcardmanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import test.bankcardmanagement.dto.request.TransactionExportRequest;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.UserNotFoundException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.UserRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private BankCardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @InjectMocks
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(exportService, "fetchSize", 500);
+        exportService.init();
+    }
+
+    @Test
+    void prepareMyExport_ShouldLimitExportToOwnCards() {
+        mockCurrentUser();
+
+        TransactionExportService.Export export = exportService.prepareMyExport(new TransactionExportRequest());
+
+        assertEquals(List.of(10L, 20L), export.cardIds());
+    }
+
+    @Test
+    void prepareMyExport_WithForeignCard_ShouldThrowOperationNotAllowedException() {
+        mockCurrentUser();
+        TransactionExportRequest request = TransactionExportRequest.builder().cardId(99L).build();
+
+        assertThrows(OperationNotAllowedException.class, () -> exportService.prepareMyExport(request));
+    }
+
+    @Test
+    void prepareExport_WithUnknownUser_ShouldThrowUserNotFoundException() {
+        when(userRepository.existsById(5L)).thenReturn(false);
+        TransactionExportRequest request = TransactionExportRequest.builder().userId(5L).build();
+
+        assertThrows(UserNotFoundException.class, () -> exportService.prepareExport(request));
+    }
+
+    @Test
+    void write_Csv_ShouldStreamRowsWithEscaping() throws Exception {
+        mockRows();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.write(exportService.prepareExport(new TransactionExportRequest()), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("transactionId,fromCardMasked,toCardMasked,amount,timestamp,status,description", lines[0]);
+        assertEquals("tx-1,**** **** **** 1111,**** **** **** 2222,10.50,2026-01-15T12:00,COMPLETED,\"Rent, \"\"May\"\"\"",
+                lines[1]);
+        assertEquals("tx-2,**** **** **** 2222,**** **** **** 1111,1.00,2026-01-15T12:00,COMPLETED,'=SUM(A1)", lines[2]);
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void write_ForCards_ShouldQuerySenderAndRecipientBranchesSeparately() throws Exception {
+        mockRows();
+        TransactionExportRequest request = TransactionExportRequest.builder()
+                .from(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .build();
+
+        exportService.write(new TransactionExportService.Export(request, List.of(10L, 20L)), new ByteArrayOutputStream());
+
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(connection.prepareStatement(sql.capture(), anyInt(), anyInt())).thenReturn(statement);
+        creator.getValue().createPreparedStatement(connection);
+
+        assertTrue(sql.getValue().contains("WHERE t.from_card_id IN (?,?) AND t.timestamp >= ? UNION ALL "));
+        assertTrue(sql.getValue().contains("WHERE t.to_card_id IN (?,?) AND t.from_card_id NOT IN (?,?) AND t.timestamp >= ?"));
+        assertFalse(sql.getValue().contains(" OR "));
+        verify(statement).setObject(1, 10L);
+        verify(statement).setObject(3, Timestamp.valueOf(request.getFrom()));
+        verify(statement).setObject(7, 20L);
+        verify(statement).setObject(8, Timestamp.valueOf(request.getFrom()));
+    }
+
+    @Test
+    void write_NdjsonGzip_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        mockRows();
+        TransactionExportRequest request = TransactionExportRequest.builder()
+                .format(TransactionExportRequest.ExportFormat.NDJSON)
+                .gzip(true)
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        TransactionExportService.Export export = exportService.prepareExport(request);
+        exportService.write(export, out);
+
+        assertEquals("transactions.ndjson.gz", export.fileName());
+        String[] lines = gunzip(out.toByteArray()).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("tx-1", objectMapper.readTree(lines[0]).get("transactionId").asText());
+        assertEquals("2026-01-15T12:00:00", objectMapper.readTree(lines[1]).get("timestamp").asText());
+    }
+
+    @Test
+    void write_UserWithoutCards_ShouldWriteOnlyHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.write(new TransactionExportService.Export(new TransactionExportRequest(), List.of()), out);
+
+        assertEquals("transactionId,fromCardMasked,toCardMasked,amount,timestamp,status,description\n",
+                out.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void mockCurrentUser() {
+        SecurityContext securityContext = mock(SecurityContext.class);
+        Authentication authentication = mock(Authentication.class);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(User.builder().id(1L).build()));
+        when(cardRepository.findIdsByUserId(1L)).thenReturn(List.of(10L, 20L));
+    }
+
+    private void mockRows() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        Timestamp timestamp = Timestamp.valueOf(LocalDateTime.of(2026, 1, 15, 12, 0));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row("tx-1", "1111", "2222", new BigDecimal("10.50"), timestamp, "Rent, \"May\""));
+            handler.processRow(row("tx-2", "2222", "1111", new BigDecimal("1.00"), timestamp, "=SUM(A1)"));
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private ResultSet row(String transactionId, String fromDigits, String toDigits,
+                          BigDecimal amount, Timestamp timestamp, String description) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("transaction_id")).thenReturn(transactionId);
+        when(rs.getString("from_digits")).thenReturn(fromDigits);
+        when(rs.getString("to_digits")).thenReturn(toDigits);
+        when(rs.getBigDecimal("amount")).thenReturn(amount);
+        when(rs.getTimestamp("timestamp")).thenReturn(timestamp);
+        when(rs.getString("status")).thenReturn("COMPLETED");
+        when(rs.getString("description")).thenReturn(description);
+        return rs;
+    }
+
+    private String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
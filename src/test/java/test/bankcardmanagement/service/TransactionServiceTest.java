@@ -0,0 +1,152 @@
+package test.bankcardmanagement.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import test.bankcardmanagement.dto.request.TransactionHistoryRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.TransactionResponse;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.util.CursorCodec;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private BankCardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    private BankCard fromCard;
+    private BankCard toCard;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        User testUser = User.builder().id(1L).username("testuser").build();
+        fromCard = BankCard.builder().id(10L).lastFourDigits("1111").user(testUser).build();
+        toCard = BankCard.builder().id(20L).lastFourDigits("2222").user(testUser).build();
+        now = LocalDateTime.of(2026, 1, 15, 12, 0);
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(cardRepository.findIdsByUserId(1L)).thenReturn(List.of(10L, 20L));
+    }
+
+    @Test
+    void getMyTransactions_ShouldReturnPageInKeyOrderWithCursor() {
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder().size(2).build();
+        when(transactionRepository.findHistoryIds(List.of(10L, 20L), request, null, null, 3))
+                .thenReturn(List.of(3L, 2L, 1L));
+        when(transactionRepository.findAllWithCardsByIdIn(List.of(3L, 2L)))
+                .thenReturn(List.of(transaction(2L, now.minusMinutes(1)), transaction(3L, now)));
+
+        CursorPageResponse<TransactionResponse> result = transactionService.getMyTransactions(request);
+
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals(transactionId(3L).toString(), result.getContent().get(0).getTransactionId());
+        assertEquals(transactionId(2L).toString(), result.getContent().get(1).getTransactionId());
+        assertEquals("**** **** **** 1111", result.getContent().get(0).getFromCardMasked());
+        assertArrayEquals(new String[]{now.minusMinutes(1).toString(), "2"},
+                CursorCodec.decode(result.getNextCursor(), 2));
+    }
+
+    @Test
+    void getMyTransactions_WithCursor_ShouldContinueAfterKey() {
+        String cursor = CursorCodec.encode(now, 5L);
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder().cursor(cursor).size(20).build();
+        when(transactionRepository.findHistoryIds(List.of(10L, 20L), request, now, 5L, 21))
+                .thenReturn(List.of(4L));
+        when(transactionRepository.findAllWithCardsByIdIn(List.of(4L)))
+                .thenReturn(List.of(transaction(4L, now.minusHours(1))));
+
+        CursorPageResponse<TransactionResponse> result = transactionService.getMyTransactions(request);
+
+        assertEquals(1, result.getSize());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getMyTransactions_WithOwnCardFilter_ShouldQueryOnlyThatCard() {
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder().cardId(20L).size(20).build();
+        when(transactionRepository.findHistoryIds(List.of(20L), request, null, null, 21)).thenReturn(List.of());
+
+        CursorPageResponse<TransactionResponse> result = transactionService.getMyTransactions(request);
+
+        assertTrue(result.getContent().isEmpty());
+        verify(transactionRepository, never()).findAllWithCardsByIdIn(any());
+    }
+
+    @Test
+    void getMyTransactions_WithForeignCardFilter_ShouldThrowOperationNotAllowedException() {
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder().cardId(99L).build();
+
+        assertThrows(OperationNotAllowedException.class, () -> transactionService.getMyTransactions(request));
+        verify(transactionRepository, never()).findHistoryIds(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getMyTransactions_WithMalformedCursor_ShouldThrowValidationException() {
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .cursor(CursorCodec.encode("not-a-date", "x"))
+                .build();
+
+        assertThrows(ValidationException.class, () -> transactionService.getMyTransactions(request));
+    }
+
+    private Transaction transaction(Long id, LocalDateTime timestamp) {
+        return Transaction.builder()
+                .id(id)
+                .transactionId(transactionId(id))
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .amount(BigDecimal.TEN)
+                .timestamp(timestamp)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .build();
+    }
+
+    private UUID transactionId(Long id) {
+        return new UUID(0L, id);
+    }
+}
@@ -1,29 +1,44 @@
 package test.bankcardmanagement.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 import test.bankcardmanagement.dto.request.TransferRequest;
+import test.bankcardmanagement.dto.response.TransactionResponse;
 import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.LedgerEntry;
 import test.bankcardmanagement.entity.Transaction;
 import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.CardNotFoundException;
 import test.bankcardmanagement.exception.InsufficientFundsException;
 import test.bankcardmanagement.exception.OperationNotAllowedException;
+import test.bankcardmanagement.exception.VelocityLimitExceededException;
 import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
 import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.service.accounting.CardBalanceShardService;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.service.journal.JournaledTransferProcessor;
+import test.bankcardmanagement.service.ledger.LedgerEngine;
+import test.bankcardmanagement.service.velocity.VelocityLimitService;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,16 +50,35 @@ class TransferServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
     @Mock
     private EncryptionService encryptionService;
 
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    private CardBalanceShardService cardBalanceShardService;
+
+    @Mock
+    private VelocityLimitService velocityLimitService;
+
     @Mock
     private SecurityContext securityContext;
 
     @Mock
     private Authentication authentication;
 
-    @InjectMocks
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private JournaledTransferProcessor journaledTransferProcessor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private TransferService transferService;
 
     private User testUser;
@@ -54,6 +88,9 @@ class TransferServiceTest {
 
     @BeforeEach
     void setUp() {
+        transferService = new TransferService(cardRepository, transactionRepository, ledgerEntryRepository,
+                encryptionService, transactionIdGenerator, cardBalanceShardService, velocityLimitService, meterRegistry);
+
         testUser = User.builder()
                 .id(1L)
                 .username("testuser")
@@ -102,27 +139,195 @@ class TransferServiceTest {
         when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
         when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction transaction = invocation.getArgument(0);
             transaction.setId(1L);
             return transaction;
         });
+        UUID transactionId = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        when(transactionIdGenerator.next()).thenReturn(transactionId);
 
-        Transaction result = transferService.transferBetweenOwnCards(transferRequest);
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
 
         assertNotNull(result);
+        assertEquals(transactionId.toString(), result.getTransactionId());
         assertEquals(Transaction.TransactionStatus.COMPLETED, result.getStatus());
         assertEquals(BigDecimal.valueOf(100), result.getAmount());
         assertEquals("Test transfer", result.getDescription());
-        assertEquals(fromCard, result.getFromCard());
-        assertEquals(toCard, result.getToCard());
-
-        assertEquals(BigDecimal.valueOf(900), fromCard.getBalance());
-        assertEquals(BigDecimal.valueOf(600), toCard.getBalance());
+        assertEquals("**** **** **** 1111", result.getFromCardMasked());
+        assertEquals("**** **** **** 2222", result.getToCardMasked());
 
-        verify(cardRepository).save(fromCard);
-        verify(cardRepository).save(toCard);
+        InOrder balances = inOrder(cardRepository);
+        balances.verify(cardRepository).lockAllById(List.of(1L, 2L));
+        balances.verify(cardRepository).debitIfSufficient(eq(1L), eq(BigDecimal.valueOf(100)), any());
+        balances.verify(cardRepository).addToBalance(eq(2L), eq(BigDecimal.valueOf(100)), any());
+        verify(cardRepository, never()).save(any());
         verify(transactionRepository).save(any(Transaction.class));
+        verify(ledgerEntryRepository).saveAll(argThat((List<LedgerEntry> entries) -> entries.size() == 2
+                && entries.get(0).getEntryType() == LedgerEntry.EntryType.DEBIT
+                && entries.get(0).getCardId().equals(1L)
+                && entries.get(0).getAmount().equals(BigDecimal.valueOf(-100))
+                && entries.get(1).getEntryType() == LedgerEntry.EntryType.CREDIT
+                && entries.get(1).getCardId().equals(2L)
+                && entries.get(1).getAmount().equals(BigDecimal.valueOf(100))
+                && entries.stream().allMatch(entry -> transactionId.equals(entry.getTransactionId()))));
+    }
+
+    @Test
+    void transferBetweenOwnCards_ToShardedCard_ShouldCreditShardWithoutTouchingCardRow() {
+        toCard.setBalanceShards(4);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
+        when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
+        when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        UUID transactionId = UUID.randomUUID();
+        when(transactionIdGenerator.next()).thenReturn(transactionId);
+
+        transferService.transferBetweenOwnCards(transferRequest);
+
+        verify(cardRepository).debitIfSufficient(eq(1L), eq(BigDecimal.valueOf(100)), any());
+        verify(cardRepository, never()).addToBalance(any(), any(), any());
+        verify(cardRepository).lockAllById(List.of(1L));
+        verify(cardBalanceShardService).credit(toCard, BigDecimal.valueOf(100), transactionId);
+        verify(cardBalanceShardService, never()).debit(any(), any());
+    }
+
+    @Test
+    void transferBetweenOwnCards_FromShardedCard_ShouldLeaveFundsCheckToShardService() {
+        fromCard.setBalanceShards(4);
+        fromCard.setBalance(BigDecimal.ZERO);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
+        when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
+        when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionIdGenerator.next()).thenReturn(UUID.randomUUID());
+
+        transferService.transferBetweenOwnCards(transferRequest);
+
+        assertEquals(BigDecimal.ZERO, fromCard.getBalance());
+        verify(cardRepository).addToBalance(eq(2L), eq(BigDecimal.valueOf(100)), any());
+        verify(cardRepository, never()).debitIfSufficient(any(), any(), any());
+        verify(cardBalanceShardService).debit(fromCard, BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void transferBetweenOwnCards_FromShardedCardWithInsufficientFunds_ShouldNotRecordTransaction() {
+        fromCard.setBalanceShards(4);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
+        when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
+        when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        doThrow(new InsufficientFundsException("Insufficient funds"))
+                .when(cardBalanceShardService).debit(fromCard, BigDecimal.valueOf(100));
+
+        assertThrows(InsufficientFundsException.class, () -> transferService.transferBetweenOwnCards(transferRequest));
+
+        verify(transactionRepository, never()).save(any());
+        verify(ledgerEntryRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void transferScheduled_ShouldUseScheduleOwnerInsteadOfSecurityContext() {
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findById(2L)).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionIdGenerator.next()).thenReturn(UUID.randomUUID());
+
+        TransactionResponse result = transferService.transferScheduled("testuser", 1L, 2L,
+                BigDecimal.valueOf(100), "Standing order");
+
+        assertEquals("Standing order", result.getDescription());
+        verify(cardRepository).debitIfSufficient(eq(1L), eq(BigDecimal.valueOf(100)), any());
+        verify(cardRepository).addToBalance(eq(2L), eq(BigDecimal.valueOf(100)), any());
+        verify(velocityLimitService).reserve(1L, BigDecimal.valueOf(100));
+        verifyNoInteractions(securityContext);
+        assertThrows(OperationNotAllowedException.class, () -> transferService.transferScheduled("intruder", 1L, 2L,
+                BigDecimal.valueOf(100), null));
+    }
+
+    @Test
+    void transferBetweenOwnCards_VelocityLimitExceeded_ShouldNotMoveFunds() {
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
+        when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
+        when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        doThrow(new VelocityLimitExceededException("Hourly transfer limit exceeded for the card"))
+                .when(velocityLimitService).reserve(fromCard.getId(), BigDecimal.valueOf(100));
+
+        assertThrows(VelocityLimitExceededException.class, () -> transferService.transferBetweenOwnCards(transferRequest));
+
+        assertEquals(BigDecimal.valueOf(1000), fromCard.getBalance());
+        verify(cardRepository, never()).save(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transferBetweenOwnCards_WithLedgerEngine_ShouldDelegateBalanceChange() {
+        ReflectionTestUtils.setField(transferService, "ledgerEngine", ledgerEngine);
+        UUID transactionId = UUID.randomUUID();
+        Transaction ledgerTransaction = Transaction.builder()
+                .transactionId(transactionId)
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .build();
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
+        when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
+        when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(ledgerEngine.transfer(fromCard, toCard, BigDecimal.valueOf(100), "Test transfer"))
+                .thenReturn(ledgerTransaction);
+
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
+
+        assertEquals(transactionId.toString(), result.getTransactionId());
+        assertEquals(BigDecimal.valueOf(1000), fromCard.getBalance());
+        assertEquals(BigDecimal.valueOf(500), toCard.getBalance());
+        verify(cardRepository, never()).save(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void transferBetweenOwnCards_WithJournal_ShouldAcknowledgeAfterJournalAppend() {
+        ReflectionTestUtils.setField(transferService, "journaledTransferProcessor", journaledTransferProcessor);
+        UUID transactionId = UUID.randomUUID();
+        Transaction journaled = Transaction.builder()
+                .transactionId(transactionId)
+                .fromCard(fromCard)
+                .toCard(toCard)
+                .status(Transaction.TransactionStatus.COMPLETED)
+                .build();
+
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
+        when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
+        when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
+        when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(journaledTransferProcessor.transfer(fromCard, toCard, BigDecimal.valueOf(100), "Test transfer"))
+                .thenReturn(journaled);
+
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
+
+        assertEquals(transactionId.toString(), result.getTransactionId());
+        verify(cardRepository, never()).save(any());
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
@@ -132,10 +337,11 @@ class TransferServiceTest {
         when(encryptionService.hash("4111111111111111")).thenReturn("hash_from");
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.empty());
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        CardNotFoundException exception = assertThrows(CardNotFoundException.class,
                 () -> transferService.transferBetweenOwnCards(transferRequest));
 
         assertEquals("From card not found", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
         verify(cardRepository, never()).save(any());
         verify(transactionRepository, never()).save(any());
     }
@@ -149,7 +355,7 @@ class TransferServiceTest {
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
         when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.empty());
 
-        RuntimeException exception = assertThrows(RuntimeException.class,
+        CardNotFoundException exception = assertThrows(CardNotFoundException.class,
                 () -> transferService.transferBetweenOwnCards(transferRequest));
 
         assertEquals("To card not found", exception.getMessage());
@@ -272,8 +478,13 @@ class TransferServiceTest {
                 () -> transferService.transferBetweenOwnCards(transferRequest));
 
         assertEquals("Insufficient funds", exception.getMessage());
-        verify(cardRepository, never()).save(any());
+        assertEquals(0, exception.getStackTrace().length);
+        verify(cardRepository).debitIfSufficient(eq(1L), eq(BigDecimal.valueOf(1500)), any());
+        verify(cardRepository, never()).addToBalance(any(), any(), any());
         verify(transactionRepository, never()).save(any());
+        assertEquals(1, meterRegistry.get("transfers").tag("outcome", "insufficient_funds").counter().count());
+        assertEquals(1, meterRegistry.get("transfer.duration").tag("outcome", "insufficient_funds").timer().count());
+        assertEquals(0, meterRegistry.get("transfers").tag("outcome", "completed").counter().count());
     }
 
 
@@ -287,21 +498,23 @@ class TransferServiceTest {
         when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
         when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction transaction = invocation.getArgument(0);
             transaction.setId(1L);
             return transaction;
         });
+        UUID transactionId = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        when(transactionIdGenerator.next()).thenReturn(transactionId);
 
-        Transaction result = transferService.transferBetweenOwnCards(transferRequest);
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
 
         assertNotNull(result);
+        assertEquals(transactionId.toString(), result.getTransactionId());
         assertEquals(BigDecimal.ZERO, result.getAmount());
-        assertEquals(BigDecimal.valueOf(1000), fromCard.getBalance());
-        assertEquals(BigDecimal.valueOf(500), toCard.getBalance());
 
-        verify(cardRepository).save(fromCard);
-        verify(cardRepository).save(toCard);
+        verify(cardRepository).debitIfSufficient(eq(1L), eq(BigDecimal.ZERO), any());
+        verify(cardRepository).addToBalance(eq(2L), eq(BigDecimal.ZERO), any());
         verify(transactionRepository).save(any(Transaction.class));
     }
 
@@ -315,21 +528,23 @@ class TransferServiceTest {
         when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
         when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction transaction = invocation.getArgument(0);
             transaction.setId(1L);
             return transaction;
         });
+        UUID transactionId = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        when(transactionIdGenerator.next()).thenReturn(transactionId);
 
-        Transaction result = transferService.transferBetweenOwnCards(transferRequest);
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
 
         assertNotNull(result);
+        assertEquals(transactionId.toString(), result.getTransactionId());
         assertEquals(BigDecimal.valueOf(-100), result.getAmount());
-        assertEquals(BigDecimal.valueOf(1100), fromCard.getBalance());
-        assertEquals(BigDecimal.valueOf(400), toCard.getBalance());
 
-        verify(cardRepository).save(fromCard);
-        verify(cardRepository).save(toCard);
+        verify(cardRepository).debitIfSufficient(eq(1L), eq(BigDecimal.valueOf(-100)), any());
+        verify(cardRepository).addToBalance(eq(2L), eq(BigDecimal.valueOf(-100)), any());
         verify(transactionRepository).save(any(Transaction.class));
     }
 
@@ -343,15 +558,19 @@ class TransferServiceTest {
         when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
         when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction transaction = invocation.getArgument(0);
             transaction.setId(1L);
             return transaction;
         });
+        UUID transactionId = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        when(transactionIdGenerator.next()).thenReturn(transactionId);
 
-        Transaction result = transferService.transferBetweenOwnCards(transferRequest);
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
 
         assertNotNull(result);
+        assertEquals(transactionId.toString(), result.getTransactionId());
         assertEquals("", result.getDescription());
     }
 
@@ -365,15 +584,19 @@ class TransferServiceTest {
         when(encryptionService.hash("5555555555554444")).thenReturn("hash_to");
         when(cardRepository.findByCardNumberHash("hash_from")).thenReturn(Optional.of(fromCard));
         when(cardRepository.findByCardNumberHash("hash_to")).thenReturn(Optional.of(toCard));
+        when(cardRepository.debitIfSufficient(eq(1L), any(), any())).thenReturn(1);
         when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
             Transaction transaction = invocation.getArgument(0);
             transaction.setId(1L);
             return transaction;
         });
+        UUID transactionId = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        when(transactionIdGenerator.next()).thenReturn(transactionId);
 
-        Transaction result = transferService.transferBetweenOwnCards(transferRequest);
+        TransactionResponse result = transferService.transferBetweenOwnCards(transferRequest);
 
         assertNotNull(result);
+        assertEquals(transactionId.toString(), result.getTransactionId());
         assertNull(result.getDescription());
     }
 
@@ -8,16 +8,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import test.bankcardmanagement.dto.request.UserCreateRequest;
+import test.bankcardmanagement.dto.request.UserListRequest;
+import test.bankcardmanagement.dto.request.UserSearchRequest;
+import test.bankcardmanagement.dto.response.CursorPageResponse;
+import test.bankcardmanagement.dto.response.UserResponse;
+import test.bankcardmanagement.dto.response.UserSummaryResponse;
 import test.bankcardmanagement.entity.Role;
 import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.exception.ValidationException;
 import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.repository.UserRepositoryCustom;
+import test.bankcardmanagement.util.CursorCodec;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,39 +67,61 @@ class UserServiceTest {
     }
 
     @Test
-    void getAllUsers_ShouldReturnAllUsers() {
-        User user2 = User.builder()
-                .id(2L)
-                .username("user2")
-                .email("user2@example.com")
-                .build();
-        List<User> users = Arrays.asList(testUser, user2);
+    void getUsers_ShouldReturnPageWithNextCursor() {
+        UserListRequest request = UserListRequest.builder().role(Role.ROLE_USER).size(2).build();
+        when(userRepository.findSummaries(request, null, 3)).thenReturn(List.of(
+                summary(1L, "testuser", 2), summary(2L, "user2", 0), summary(3L, "user3", 1)));
+
+        CursorPageResponse<UserSummaryResponse> result = userService.getUsers(request);
+
+        assertEquals(2, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals("testuser", result.getContent().get(0).getUsername());
+        assertEquals(2, result.getContent().get(0).getCardCount());
+        assertEquals(CursorCodec.encode(2L), result.getNextCursor());
+    }
 
-        when(userRepository.findAll()).thenReturn(users);
+    @Test
+    void getUsers_WithCursor_ShouldContinueAfterLastId() {
+        UserListRequest request = UserListRequest.builder().cursor(CursorCodec.encode(2L)).build();
+        when(userRepository.findSummaries(request, 2L, 21)).thenReturn(List.of(summary(3L, "user3", 0)));
 
-        List<User> result = userService.getAllUsers();
+        CursorPageResponse<UserSummaryResponse> result = userService.getUsers(request);
 
-        assertEquals(2, result.size());
-        assertEquals("testuser", result.get(0).getUsername());
-        assertEquals("user2", result.get(1).getUsername());
-        verify(userRepository).findAll();
+        assertEquals(1, result.getSize());
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
     }
 
     @Test
-    void getAllUsers_WhenNoUsers_ShouldReturnEmptyList() {
-        when(userRepository.findAll()).thenReturn(List.of());
+    void getUsers_WithInvalidCursor_ShouldThrowValidationException() {
+        UserListRequest request = UserListRequest.builder().cursor(CursorCodec.encode("abc")).build();
 
-        List<User> result = userService.getAllUsers();
+        assertThrows(ValidationException.class, () -> userService.getUsers(request));
+        verify(userRepository, never()).findSummaries(any(), any(), anyInt());
+    }
+
+    @Test
+    void searchUsers_ShouldEncodeLowercasedKeyOfLastRowInCursor() {
+        UserSearchRequest request = UserSearchRequest.builder().q(" Test ").size(1).build();
+        when(userRepository.searchSummaries(UserSearchRequest.SearchField.USERNAME, "Test", null, null, 2))
+                .thenReturn(List.of(summary(1L, "TestUser", 0), summary(2L, "testuser2", 0)));
 
-        assertTrue(result.isEmpty());
-        verify(userRepository).findAll();
+        CursorPageResponse<UserSummaryResponse> result = userService.searchUsers(request);
+
+        assertEquals(1, result.getSize());
+        assertEquals(CursorCodec.encode(1L, "testuser"), result.getNextCursor());
+
+        request.setCursor(result.getNextCursor());
+        userService.searchUsers(request);
+        verify(userRepository).searchSummaries(UserSearchRequest.SearchField.USERNAME, "Test", "testuser", 1L, 2);
     }
 
     @Test
     void getUserById_WithValidId_ShouldReturnUser() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
 
-        User result = userService.getUserById(1L);
+        UserResponse result = userService.getUserById(1L);
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
@@ -126,17 +156,16 @@ class UserServiceTest {
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword123");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
-        User result = userService.createUser(userCreateRequest);
+        UserResponse result = userService.createUser(userCreateRequest);
 
         assertNotNull(result);
         assertEquals("testuser", result.getUsername());
         assertEquals("test@example.com", result.getEmail());
-        assertEquals("encodedPassword123", result.getPassword());
         assertTrue(result.isEnabled());
         verify(userRepository).existsByUsername("testuser");
         verify(userRepository).existsByEmail("test@example.com");
         verify(passwordEncoder).encode("password123");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).save(argThat(user -> "encodedPassword123".equals(user.getPassword())));
     }
 
     @Test
@@ -176,7 +205,7 @@ class UserServiceTest {
         when(passwordEncoder.encode("password123")).thenReturn("encodedPassword123");
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
-        User result = userService.createUser(userCreateRequest);
+        UserResponse result = userService.createUser(userCreateRequest);
 
         assertNotNull(result);
         assertEquals(Role.ROLE_ADMIN, result.getRole());
@@ -206,7 +235,7 @@ class UserServiceTest {
         when(passwordEncoder.encode("pass")).thenReturn("encodedPass");
         when(userRepository.save(any(User.class))).thenReturn(minimalUser);
 
-        User result = userService.createUser(minimalRequest);
+        UserResponse result = userService.createUser(minimalRequest);
 
         assertNotNull(result);
         assertNull(result.getFirstName());
@@ -225,7 +254,7 @@ class UserServiceTest {
         userCreateRequest.setLastName("Smith");
         userCreateRequest.setRole(Role.ROLE_ADMIN);
 
-        User result = userService.updateUser(1L, userCreateRequest);
+        UserResponse result = userService.updateUser(1L, userCreateRequest);
 
         assertNotNull(result);
         assertEquals("updated@example.com", result.getEmail());
@@ -242,7 +271,7 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
-        User result = userService.updateUser(1L, userCreateRequest);
+        UserResponse result = userService.updateUser(1L, userCreateRequest);
 
         assertNotNull(result);
         verify(userRepository).findById(1L);
@@ -316,7 +345,7 @@ class UserServiceTest {
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
         when(userRepository.save(any(User.class))).thenReturn(testUser);
 
-        User result = userService.updateUser(1L, userCreateRequest);
+        UserResponse result = userService.updateUser(1L, userCreateRequest);
 
         assertNotNull(result);
         verify(userRepository).save(testUser);
@@ -349,7 +378,7 @@ class UserServiceTest {
         when(passwordEncoder.encode("Pass@123!")).thenReturn("encodedPass");
         when(userRepository.save(any(User.class))).thenReturn(specialUser);
 
-        User result = userService.createUser(specialRequest);
+        UserResponse result = userService.createUser(specialRequest);
 
         assertNotNull(result);
         assertEquals("user-name_123", result.getUsername());
@@ -357,4 +386,9 @@ class UserServiceTest {
         assertEquals("John-O'Conner", result.getFirstName());
         verify(userRepository).save(any(User.class));
     }
-}
\ No newline at end of file
+
+    private UserRepositoryCustom.UserSummary summary(Long id, String username, long cardCount) {
+        return new UserRepositoryCustom.UserSummary(id, username, username + "@example.com",
+                "John", "Doe", Role.ROLE_USER, true, cardCount);
+    }
+}
@@ -0,0 +1,117 @@
+package test.bankcardmanagement.service.accounting;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.CardBalanceShard;
+import test.bankcardmanagement.exception.InsufficientFundsException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.CardBalanceShardRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardBalanceShardServiceTest {
+
+    @Mock
+    private BankCardRepository cardRepository;
+
+    @Mock
+    private CardBalanceShardRepository shardRepository;
+
+    @InjectMocks
+    private CardBalanceShardService shardService;
+
+    private BankCard card;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shardService, "maxShards", 64);
+        card = BankCard.builder().id(7L).balance(BigDecimal.ZERO).balanceShards(4).build();
+    }
+
+    @Test
+    void credit_ShouldPickShardByTransactionIdHash() {
+        UUID transactionId = UUID.randomUUID();
+        int expectedShard = Math.floorMod(transactionId.hashCode(), 4);
+        when(shardRepository.credit(7L, expectedShard, BigDecimal.TEN)).thenReturn(1);
+
+        shardService.credit(card, BigDecimal.TEN, transactionId);
+
+        verify(cardRepository, never()).addToBalance(anyLong(), any(), any());
+    }
+
+    @Test
+    void credit_WhenShardRowIsMissing_ShouldCreditMainBalance() {
+        when(shardRepository.credit(eq(7L), anyInt(), eq(BigDecimal.TEN))).thenReturn(0);
+
+        shardService.credit(card, BigDecimal.TEN, UUID.randomUUID());
+
+        verify(cardRepository).addToBalance(eq(7L), eq(BigDecimal.TEN), any());
+    }
+
+    @Test
+    void debit_WhenMainBalanceIsEnough_ShouldNotTouchShards() {
+        when(cardRepository.debitIfSufficient(eq(7L), eq(BigDecimal.TEN), any())).thenReturn(1);
+
+        shardService.debit(card, BigDecimal.TEN);
+
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    void debit_WhenMainBalanceIsShort_ShouldConsolidateShardsAndRetry() {
+        List<CardBalanceShard> shards = List.of(shard(0, "30.00"), shard(1, "0.00"), shard(2, "5.50"));
+        when(cardRepository.debitIfSufficient(eq(7L), eq(BigDecimal.TEN), any())).thenReturn(0, 1);
+        when(shardRepository.findByCardIdOrderByShardNo(7L)).thenReturn(shards);
+
+        shardService.debit(card, BigDecimal.TEN);
+
+        verify(cardRepository).addToBalance(eq(7L), eq(new BigDecimal("35.50")), any());
+        assertTrue(shards.stream().allMatch(shard -> shard.getBalance().signum() == 0));
+        verify(shardRepository).saveAll(shards);
+    }
+
+    @Test
+    void debit_WhenTotalBalanceIsShort_ShouldThrowInsufficientFunds() {
+        when(cardRepository.debitIfSufficient(eq(7L), eq(BigDecimal.TEN), any())).thenReturn(0);
+        when(shardRepository.findByCardIdOrderByShardNo(7L)).thenReturn(List.of(shard(0, "1.00")));
+
+        assertThrows(InsufficientFundsException.class, () -> shardService.debit(card, BigDecimal.TEN));
+    }
+
+    @Test
+    void resize_ShouldConsolidateAndRecreateShardRows() {
+        when(shardRepository.findByCardIdOrderByShardNo(7L)).thenReturn(List.of());
+
+        shardService.resize(card, 8);
+
+        verify(shardRepository).deleteByCardId(7L);
+        verify(shardRepository).saveAll(argThat((List<CardBalanceShard> shards) -> shards.size() == 8
+                && shards.get(7).getShardNo() == 7
+                && shards.stream().allMatch(shard -> shard.getBalance().signum() == 0)));
+        assertEquals(8, card.getBalanceShards());
+    }
+
+    @Test
+    void resize_WithTooManyShards_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class, () -> shardService.resize(card, 65));
+        verifyNoInteractions(shardRepository);
+    }
+
+    private CardBalanceShard shard(int shardNo, String balance) {
+        return CardBalanceShard.builder().cardId(7L).shardNo(shardNo).balance(new BigDecimal(balance)).build();
+    }
+}
@@ -0,0 +1,98 @@
+package test.bankcardmanagement.service.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIdGeneratorTest {
+
+    @Test
+    void uuidV7_ShouldSetVersionVariantAndCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = new UuidV7Generator().next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= after + 1);
+    }
+
+    @Test
+    void uuidV7_ShouldBeStrictlyIncreasingWithinMillisecond() {
+        assertStrictlyIncreasing(new UuidV7Generator(), 100_000);
+    }
+
+    @Test
+    void snowflake_ShouldEncodeNodeAndBeStrictlyIncreasing() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(513);
+        UUID id = generator.next();
+
+        assertEquals(8, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(513, SnowflakeIdGenerator.nodeId(id));
+        assertStrictlyIncreasing(generator, 100_000);
+    }
+
+    @Test
+    void snowflake_WithNodeOutOfRange_ShouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+
+    @Test
+    void snowflake_DifferentNodes_ShouldNotCollide() {
+        UUID first = new SnowflakeIdGenerator(1).next();
+        UUID second = new SnowflakeIdGenerator(2).next();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void concurrentGeneration_ShouldProduceUniqueIds() throws Exception {
+        TransactionIdGenerator generator = new UuidV7Generator();
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 20_000; j++) {
+                    ids.add(generator.next());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(160_000, ids.size());
+    }
+
+    private void assertStrictlyIncreasing(TransactionIdGenerator generator, int count) {
+        Set<UUID> seen = new HashSet<>();
+        UUID last = generator.next();
+        for (int i = 0; i < count; i++) {
+            UUID previous = last;
+            UUID next = generator.next();
+            // Сравнение как у индекса по uuid в PostgreSQL: беззнаково, старшие байты первыми
+            int cmp = Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits());
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(next.getLeastSignificantBits(), previous.getLeastSignificantBits());
+            }
+            assertTrue(cmp > 0, () -> next + " is not after " + previous);
+            assertTrue(seen.add(next));
+            last = next;
+        }
+    }
+}
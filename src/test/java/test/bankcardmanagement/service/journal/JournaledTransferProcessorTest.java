@@ -0,0 +1,142 @@
+package test.bankcardmanagement.service.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import test.bankcardmanagement.dto.request.CardCreateRequest;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Role;
+import test.bankcardmanagement.entity.User;
+import test.bankcardmanagement.repository.BankCardRepository;
+import test.bankcardmanagement.repository.LedgerEntryRepository;
+import test.bankcardmanagement.repository.TransactionRepository;
+import test.bankcardmanagement.repository.UserRepository;
+import test.bankcardmanagement.service.CardService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class JournaledTransferProcessorTest {
+
+    @Autowired
+    private JournaledTransferProcessor processor;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BankCardRepository cardRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BankCard source;
+    private BankCard target;
+    private BankCard removed;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) throws IOException {
+        registry.add("app.journal.enabled", () -> "true");
+        registry.add("app.journal.directory", Files.createTempDirectory("transfer-journal")::toString);
+        registry.add("app.journal.segment-size-mb", () -> "1");
+    }
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .username("alice")
+                .password("encoded")
+                .email("alice@example.com")
+                .firstName("Alice")
+                .lastName("Smith")
+                .role(Role.ROLE_USER)
+                .enabled(true)
+                .build());
+        source = createCard(user, "4111111111111111", new BigDecimal("100.00"));
+        target = createCard(user, "5555555555554444", new BigDecimal("0.00"));
+        removed = createCard(user, "4000056655665556", new BigDecimal("0.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (!processor.isRunning()) {
+            processor.start();
+        }
+        jdbcTemplate.update("DELETE FROM transfer_dead_letters");
+        ledgerEntryRepository.deleteAll();
+        transactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void apply_WhenCardRemovedBeforeApply_ShouldDeadLetterRecordAndContinue() throws InterruptedException {
+        // Останавливаем фоновое применение, чтобы карта успела исчезнуть до переноса записи в БД
+        processor.stop();
+        UUID rejected = processor.transfer(source, removed, new BigDecimal("30.00"), "to removed card").getTransactionId();
+        UUID applied = processor.transfer(source, target, new BigDecimal("20.00"), null).getTransactionId();
+        cardRepository.deleteById(removed.getId());
+
+        // При старте записи после checkpoint применяются заново
+        processor.start();
+
+        Map<String, Object> deadLetter = jdbcTemplate.queryForMap(
+                "SELECT source, transaction_id, from_card_id, amount FROM transfer_dead_letters");
+        assertEquals(JournaledTransferProcessor.SOURCE, deadLetter.get("source"));
+        assertEquals(rejected, deadLetter.get("transaction_id"));
+        assertEquals(0, new BigDecimal("30.00").compareTo((BigDecimal) deadLetter.get("amount")));
+        assertTrue(transactionRepository.findByTransactionId(applied).isPresent());
+        assertTrue(transactionRepository.findByTransactionId(rejected).isEmpty());
+        assertEquals(0, new BigDecimal("80.00").compareTo(balanceOf(source.getId())));
+        assertEquals(0, new BigDecimal("20.00").compareTo(balanceOf(target.getId())));
+
+        // Сумма отклоненного перевода больше не удерживается: все 80.00 можно потратить
+        UUID last = processor.transfer(source, target, new BigDecimal("80.00"), null).getTransactionId();
+        awaitApplied(last);
+    }
+
+    private void awaitApplied(UUID transactionId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (transactionRepository.findByTransactionId(transactionId).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(transactionRepository.findByTransactionId(transactionId).isPresent());
+    }
+
+    private BigDecimal balanceOf(Long cardId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM bank_cards WHERE id = ?", BigDecimal.class, cardId);
+    }
+
+    private BankCard createCard(User user, String cardNumber, BigDecimal balance) {
+        Long id = cardService.createCard(CardCreateRequest.builder()
+                .cardNumber(cardNumber)
+                .cardHolderName("Alice Smith")
+                .expirationDate(LocalDate.now().plusYears(3))
+                .userId(user.getId())
+                .initialBalance(balance)
+                .build()).getId();
+        return cardRepository.findById(id).orElseThrow();
+    }
+}
@@ -0,0 +1,128 @@
+package test.bankcardmanagement.service.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private TransferJournal journal;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        journal.close();
+    }
+
+    @Test
+    void append_ShouldAssignSequencesAndBeReadable() {
+        UUID transactionId = UUID.randomUUID();
+        JournalRecord first = journal.append(transactionId, 1L, 2L, 10050L, 1_000_000L, "Перевод за услуги");
+        JournalRecord second = journal.append(UUID.randomUUID(), 2L, 1L, 1L, 2_000_000L, null);
+
+        assertEquals(1L, first.sequence());
+        assertEquals(2L, second.sequence());
+        assertEquals(2L, journal.durableSequence());
+
+        List<JournalRecord> records = journal.read(1L, 10);
+        assertEquals(2, records.size());
+        assertEquals(first, records.get(0));
+        assertEquals(transactionId, records.get(0).transactionId());
+        assertEquals("Перевод за услуги", records.get(0).description());
+        assertNull(records.get(1).description());
+    }
+
+    @Test
+    void append_WithTooLongDescription_ShouldThrowException() {
+        String description = "x".repeat(TransferJournal.MAX_DESCRIPTION_BYTES + 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> journal.append(UUID.randomUUID(), 1L, 2L, 1L, 0L, description));
+        assertEquals(0L, journal.durableSequence());
+    }
+
+    @Test
+    void reopen_ShouldRestoreRecordsAndCheckpoint() throws IOException {
+        journal.append(UUID.randomUUID(), 1L, 2L, 100L, 0L, "a");
+        journal.append(UUID.randomUUID(), 1L, 2L, 200L, 0L, "b");
+        journal.append(UUID.randomUUID(), 1L, 2L, 300L, 0L, "c");
+        journal.checkpoint(2L);
+        journal.close();
+
+        journal = open();
+
+        assertEquals(3L, journal.durableSequence());
+        assertEquals(2L, journal.checkpoint());
+        List<JournalRecord> unapplied = journal.read(journal.checkpoint() + 1, 10);
+        assertEquals(1, unapplied.size());
+        assertEquals(300L, unapplied.get(0).amountMinor());
+        assertEquals(4L, journal.append(UUID.randomUUID(), 1L, 2L, 1L, 0L, null).sequence());
+    }
+
+    @Test
+    void reopen_WithTornRecord_ShouldStopBeforeIt() throws IOException {
+        journal.append(UUID.randomUUID(), 1L, 2L, 100L, 0L, "a");
+        journal.append(UUID.randomUUID(), 1L, 2L, 200L, 0L, "b");
+        journal.close();
+
+        // Портим сумму второй записи - CRC перестает сходиться
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(TransferJournal.RECORD_SIZE + 48);
+            file.writeLong(999L);
+        }
+        journal = open();
+
+        assertEquals(1L, journal.durableSequence());
+        assertEquals(1, journal.read(1L, 10).size());
+        assertEquals(2L, journal.append(UUID.randomUUID(), 1L, 2L, 1L, 0L, null).sequence());
+    }
+
+    @Test
+    void checkpoint_ShouldRollAndDeleteAppliedSegments() throws IOException {
+        int recordsPerSegment = 1024 * 1024 / TransferJournal.RECORD_SIZE;
+        for (int i = 0; i < recordsPerSegment + 10; i++) {
+            journal.append(UUID.randomUUID(), 1L, 2L, i, 0L, null);
+        }
+        assertEquals(2, segments().size());
+
+        journal.checkpoint(recordsPerSegment);
+
+        assertEquals(1, segments().size());
+        List<JournalRecord> rest = journal.read(recordsPerSegment + 1L, 100);
+        assertEquals(10, rest.size());
+        assertEquals(recordsPerSegment, rest.get(0).amountMinor());
+    }
+
+    private TransferJournal open() throws IOException {
+        TransferJournal opened = new TransferJournal();
+        ReflectionTestUtils.setField(opened, "directory", directory);
+        ReflectionTestUtils.setField(opened, "segmentSizeMb", 1);
+        opened.open();
+        return opened;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+}
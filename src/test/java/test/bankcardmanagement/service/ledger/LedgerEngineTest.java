@@ -0,0 +1,197 @@
+package test.bankcardmanagement.service.ledger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import test.bankcardmanagement.entity.BankCard;
+import test.bankcardmanagement.entity.Transaction;
+import test.bankcardmanagement.exception.CardNotFoundException;
+import test.bankcardmanagement.exception.InsufficientFundsException;
+import test.bankcardmanagement.exception.ServiceBusyException;
+import test.bankcardmanagement.exception.ValidationException;
+import test.bankcardmanagement.service.id.TransactionIdGenerator;
+import test.bankcardmanagement.service.id.UuidV7Generator;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LedgerJournal journal;
+
+    @Spy
+    private TransactionIdGenerator transactionIdGenerator = new UuidV7Generator();
+
+    @InjectMocks
+    private LedgerEngine ledgerEngine;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledgerEngine, "shardCount", 4);
+        ReflectionTestUtils.setField(ledgerEngine, "shutdownTimeoutMs", 1000L);
+
+        // Карты 1 и 5 попадают в один шард, 2 - в другой
+        Map<Long, BigDecimal> balances = Map.of(
+                1L, new BigDecimal("1000.00"),
+                2L, new BigDecimal("500.00"),
+                5L, new BigDecimal("10.00"));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<Long, BigDecimal> card : balances.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(card.getKey());
+                when(rs.getBigDecimal("balance")).thenReturn(card.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        ledgerEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerEngine.stop();
+    }
+
+    @Test
+    void transfer_WithinOneShard_ShouldMoveFundsAndJournal() throws Exception {
+        Transaction result = ledgerEngine.transfer(card(1L), card(5L), new BigDecimal("100.50"), "Test transfer");
+
+        assertEquals(Transaction.TransactionStatus.COMPLETED, result.getStatus());
+        assertNotNull(result.getTransactionId());
+        assertEquals(89950L, ledgerEngine.getBalance(1L));
+        assertEquals(11050L, ledgerEngine.getBalance(5L));
+        verify(journal).append(argThat(entry -> entry.amountMinor() == 10050L
+                && entry.fromCardId() == 1L && entry.toCardId() == 5L));
+        // Журнал на диске применяется к БД до чтения балансов в шарды
+        InOrder startup = inOrder(journal, jdbcTemplate);
+        startup.verify(journal).open();
+        startup.verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        startup.verify(journal).start();
+    }
+
+    @Test
+    void transfer_AcrossShards_ShouldReserveCreditAndCommit() {
+        ledgerEngine.transfer(card(1L), card(2L), new BigDecimal("250"), null);
+
+        assertEquals(75000L, ledgerEngine.getBalance(1L));
+        assertEquals(75000L, ledgerEngine.getBalance(2L));
+        verify(journal).append(any(LedgerJournalEntry.class));
+    }
+
+    @Test
+    void transfer_InsufficientFunds_ShouldNotChangeBalances() {
+        assertThrows(InsufficientFundsException.class,
+                () -> ledgerEngine.transfer(card(5L), card(2L), new BigDecimal("10.01"), null));
+
+        assertEquals(1000L, ledgerEngine.getBalance(5L));
+        assertEquals(50000L, ledgerEngine.getBalance(2L));
+        verify(journal, never()).append(any());
+    }
+
+    @Test
+    void transfer_UnknownRecipient_ShouldReleaseReservation() {
+        when(jdbcTemplate.queryForList(anyString(), eq(BigDecimal.class), eq(3L))).thenReturn(List.of());
+
+        assertThrows(CardNotFoundException.class,
+                () -> ledgerEngine.transfer(card(1L), card(3L), new BigDecimal("10"), null));
+
+        assertEquals(100000L, ledgerEngine.getBalance(1L));
+        verify(journal, never()).append(any());
+    }
+
+    @Test
+    void transfer_WhenJournalWriteFails_ShouldReleaseReservation() {
+        when(journal.append(any())).thenThrow(new IllegalStateException("disk full"));
+
+        assertThrows(IllegalStateException.class,
+                () -> ledgerEngine.transfer(card(1L), card(2L), new BigDecimal("10"), null));
+
+        assertEquals(100000L, ledgerEngine.getBalance(1L));
+        assertEquals(50000L, ledgerEngine.getBalance(2L));
+    }
+
+    @Test
+    void transfer_WhenJournalBacklogIsFull_ShouldRejectBeforeReserving() {
+        doThrow(new ServiceBusyException("Ledger journal backlog is full")).when(journal).awaitCapacity();
+
+        assertThrows(ServiceBusyException.class,
+                () -> ledgerEngine.transfer(card(1L), card(5L), new BigDecimal("10"), null));
+
+        assertEquals(100000L, ledgerEngine.getBalance(1L));
+        verify(journal, never()).append(any());
+    }
+
+    @Test
+    void transfer_CardCreatedAfterRecovery_ShouldLoadBalanceFromDatabase() {
+        when(jdbcTemplate.queryForList(anyString(), eq(BigDecimal.class), eq(7L)))
+                .thenReturn(List.of(new BigDecimal("1.00")));
+
+        ledgerEngine.transfer(card(7L), card(1L), new BigDecimal("1.00"), null);
+
+        assertEquals(0L, ledgerEngine.getBalance(7L));
+        assertEquals(100100L, ledgerEngine.getBalance(1L));
+    }
+
+    @Test
+    void transfer_WithFractionalCents_ShouldThrowValidationException() {
+        assertThrows(ValidationException.class,
+                () -> ledgerEngine.transfer(card(1L), card(2L), new BigDecimal("0.001"), null));
+    }
+
+    @Test
+    void transfer_ConcurrentTransfers_ShouldKeepTotalBalance() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(400);
+        for (int i = 0; i < 400; i++) {
+            boolean forward = i % 2 == 0;
+            executor.execute(() -> {
+                try {
+                    if (forward) {
+                        ledgerEngine.transfer(card(1L), card(2L), BigDecimal.ONE, null);
+                    } else {
+                        ledgerEngine.transfer(card(2L), card(5L), BigDecimal.ONE, null);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(80000L, ledgerEngine.getBalance(1L));
+        assertEquals(50000L, ledgerEngine.getBalance(2L));
+        assertEquals(21000L, ledgerEngine.getBalance(5L));
+        verify(journal, times(400)).append(any());
+    }
+
+    private BankCard card(Long id) {
+        return BankCard.builder().id(id).build();
+    }
+}
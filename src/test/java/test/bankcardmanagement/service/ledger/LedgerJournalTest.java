@@ -0,0 +1,127 @@
+package test.bankcardmanagement.service.ledger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import test.bankcardmanagement.exception.ServiceBusyException;
+import test.bankcardmanagement.service.journal.JournalRecord;
+import test.bankcardmanagement.service.journal.JournalRecordApplier;
+import test.bankcardmanagement.service.journal.TransferJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private JournalRecordApplier applier;
+
+    @InjectMocks
+    private LedgerJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(journal, "directory", directory);
+        ReflectionTestUtils.setField(journal, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(journal, "batchSize", 500);
+        ReflectionTestUtils.setField(journal, "flushIntervalMs", 5L);
+        ReflectionTestUtils.setField(journal, "maxBacklog", 100L);
+        ReflectionTestUtils.setField(journal, "appendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(journal, "retryDelayMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException, IOException {
+        if (ReflectionTestUtils.getField(journal, "flusher") != null) {
+            journal.stop();
+        } else if (ReflectionTestUtils.getField(journal, "journal") instanceof TransferJournal opened) {
+            opened.close();
+        }
+    }
+
+    @Test
+    void open_AfterCrash_ShouldReplayAcknowledgedTransfers() throws IOException {
+        // Переводы подтверждены (записаны на диск), но процесс упал до переноса в БД
+        TransferJournal crashed = new TransferJournal(directory, 1);
+        crashed.open();
+        UUID first = UUID.randomUUID();
+        crashed.append(first, 1L, 2L, 100L, 0L, null);
+        crashed.append(UUID.randomUUID(), 2L, 1L, 50L, 0L, null);
+        crashed.close();
+        when(applier.apply(anyList(), eq(LedgerJournal.SOURCE))).thenReturn(List.of());
+
+        journal.open();
+
+        verify(applier).apply(argThat(batch -> batch.size() == 2 && batch.get(0).transactionId().equals(first)),
+                eq(LedgerJournal.SOURCE));
+        assertEquals(0L, journal.backlog());
+    }
+
+    @Test
+    void start_ShouldFlushAppendedEntriesAndAdvanceCheckpoint() throws Exception {
+        when(applier.apply(anyList(), eq(LedgerJournal.SOURCE))).thenReturn(List.of());
+        journal.open();
+        journal.start();
+
+        JournalRecord record = journal.append(entry(1L, 2L, 100L));
+        assertEquals(1L, record.sequence());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.backlog() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0L, journal.backlog());
+        verify(applier, atLeastOnce()).apply(argThat(batch -> batch.size() == 1), eq(LedgerJournal.SOURCE));
+    }
+
+    @Test
+    void start_WhenDatabaseIsDown_ShouldKeepRecordsForRetry() throws Exception {
+        journal.open();
+        when(applier.apply(anyList(), eq(LedgerJournal.SOURCE)))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(List.of());
+        journal.start();
+
+        journal.append(entry(1L, 2L, 100L));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.backlog() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0L, journal.backlog());
+        verify(applier, times(2)).apply(anyList(), eq(LedgerJournal.SOURCE));
+    }
+
+    @Test
+    void awaitCapacity_WhenBacklogStaysFull_ShouldRejectAfterTimeout() throws IOException {
+        ReflectionTestUtils.setField(journal, "maxBacklog", 1L);
+        ReflectionTestUtils.setField(journal, "appendTimeoutMs", 20L);
+        journal.open();
+        journal.append(entry(1L, 2L, 100L));
+
+        assertThrows(ServiceBusyException.class, journal::awaitCapacity);
+    }
+
+    private LedgerJournalEntry entry(long from, long to, long amount) {
+        return new LedgerJournalEntry(UUID.randomUUID(), from, to, amount,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), null);
+    }
+}
@@ -0,0 +1,85 @@
+package test.bankcardmanagement.service.recurring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void advance_ShouldReturnTimeoutOnlyWhenItsTickArrives() {
+        TimingWheel wheel = new TimingWheel(8, 100, START);
+        wheel.schedule(1L, START + 250);
+
+        assertTrue(wheel.advance(START + 199).isEmpty());
+        assertEquals(List.of(1L), ids(wheel.advance(START + 250)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_DeadlineInsideTick_ShouldNotFireBeforeDeadline() {
+        TimingWheel wheel = new TimingWheel(8, 100, START);
+        // Срок не на границе тика: тик 2 наступает в START + 200, сам срок - на 50 мс позже
+        wheel.schedule(1L, START + 250);
+
+        assertTrue(wheel.advance(START + 200).isEmpty());
+        assertTrue(wheel.advance(START + 249).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L), ids(wheel.advance(START + 250)));
+    }
+
+    @Test
+    void advance_DeadlineLaterInCurrentTick_ShouldFireOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(8, 100, START);
+        wheel.advance(START + 210);
+        wheel.schedule(1L, START + 280);
+
+        assertTrue(wheel.advance(START + 220).isEmpty());
+        assertEquals(List.of(1L), ids(wheel.advance(START + 300)));
+    }
+
+    @Test
+    void advance_TimeoutSeveralRoundsAhead_ShouldWaitForItsRound() {
+        TimingWheel wheel = new TimingWheel(8, 100, START);
+        // Тот же слот, что и у START + 100, но на два оборота позже
+        wheel.schedule(1L, START + 100 + 2 * 800);
+        wheel.schedule(2L, START + 100);
+
+        assertEquals(List.of(2L), ids(wheel.advance(START + 100)));
+        assertTrue(wheel.advance(START + 1000).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(1L), ids(wheel.advance(START + 1700)));
+    }
+
+    @Test
+    void advance_OverdueTimeout_ShouldBeDueImmediately() {
+        TimingWheel wheel = new TimingWheel(8, 100, START);
+        wheel.advance(START + 500);
+        wheel.schedule(1L, START - 10_000);
+
+        assertEquals(List.of(1L), ids(wheel.advance(START + 500)));
+    }
+
+    @Test
+    void advance_AfterLongPause_ShouldReturnAllExpiredInOnePass() {
+        TimingWheel wheel = new TimingWheel(8, 100, START);
+        for (long i = 0; i < 20; i++) {
+            wheel.schedule(i, START + i * 100);
+        }
+        wheel.schedule(99L, START + 10_000);
+
+        List<TimingWheel.Timeout> due = wheel.advance(START + 5_000);
+
+        assertEquals(20, due.size());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(99L), ids(wheel.advance(START + 10_000)));
+    }
+
+    private static List<Long> ids(List<TimingWheel.Timeout> timeouts) {
+        return timeouts.stream().map(TimingWheel.Timeout::scheduleId).toList();
+    }
+}
@@ -0,0 +1,231 @@
+package test.bankcardmanagement.service.velocity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import test.bankcardmanagement.exception.VelocityLimitExceededException;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityLimitServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:30:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private VelocityLimitService velocityLimitService;
+
+    @BeforeEach
+    void setUp() {
+        velocityLimitService = new VelocityLimitService(jdbcTemplate, meterRegistry);
+        ReflectionTestUtils.setField(velocityLimitService, "enabled", true);
+        ReflectionTestUtils.setField(velocityLimitService, "hourlyMaxCount", 3);
+        ReflectionTestUtils.setField(velocityLimitService, "hourlyMaxAmount", new BigDecimal("1000.00"));
+        ReflectionTestUtils.setField(velocityLimitService, "hourlyBuckets", 60);
+        ReflectionTestUtils.setField(velocityLimitService, "dailyMaxCount", 0);
+        ReflectionTestUtils.setField(velocityLimitService, "dailyMaxAmount", new BigDecimal("1500.00"));
+        ReflectionTestUtils.setField(velocityLimitService, "dailyBuckets", 96);
+        ReflectionTestUtils.setField(velocityLimitService, "sweepIntervalMs", 600000L);
+        setClock(NOW);
+    }
+
+    @AfterEach
+    void tearDown() {
+        velocityLimitService.stop();
+    }
+
+    @Test
+    void reserve_OverHourlyCount_ShouldThrowAndRecordLatency() {
+        velocityLimitService.start();
+
+        for (int i = 0; i < 3; i++) {
+            velocityLimitService.reserve(1L, BigDecimal.TEN);
+        }
+        VelocityLimitExceededException exception = assertThrows(VelocityLimitExceededException.class,
+                () -> velocityLimitService.reserve(1L, BigDecimal.TEN));
+
+        assertEquals("Hourly transfer limit exceeded for the card", exception.getMessage());
+        // Лимиты у каждой карты свои
+        velocityLimitService.reserve(2L, BigDecimal.TEN);
+        assertEquals(5, meterRegistry.get("transfer.velocity.check").timer().count());
+    }
+
+    @Test
+    void reserve_AfterWindowSlides_ShouldAllowAgain() {
+        velocityLimitService.start();
+        for (int i = 0; i < 3; i++) {
+            velocityLimitService.reserve(1L, BigDecimal.TEN);
+        }
+
+        setClock(NOW.plus(Duration.ofMinutes(59)));
+        assertThrows(VelocityLimitExceededException.class, () -> velocityLimitService.reserve(1L, BigDecimal.TEN));
+
+        setClock(NOW.plus(Duration.ofMinutes(61)));
+        assertDoesNotThrow(() -> velocityLimitService.reserve(1L, BigDecimal.TEN));
+    }
+
+    @Test
+    void reserve_OverDailyAmount_ShouldReleaseHourlyReservation() {
+        velocityLimitService.start();
+        velocityLimitService.reserve(1L, new BigDecimal("900.00"));
+        setClock(NOW.plus(Duration.ofHours(2)));
+        velocityLimitService.reserve(1L, new BigDecimal("500.00"));
+
+        VelocityLimitExceededException exception = assertThrows(VelocityLimitExceededException.class,
+                () -> velocityLimitService.reserve(1L, new BigDecimal("200.00")));
+
+        assertEquals("Daily transfer limit exceeded for the card", exception.getMessage());
+        // Часовой счетчик отказ не учел: остаток дневного лимита все еще доступен
+        velocityLimitService.reserve(1L, new BigDecimal("100.00"));
+    }
+
+    @Test
+    void reserve_RolledBackTransaction_ShouldReleaseReservation() {
+        velocityLimitService.start();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            velocityLimitService.reserve(1L, new BigDecimal("1000.00"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertDoesNotThrow(() -> velocityLimitService.reserve(1L, new BigDecimal("1000.00")));
+    }
+
+    @Test
+    void start_ShouldRestoreCountersFromRecentTransfers() throws Exception {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < 3; i++) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("from_card_id")).thenReturn(1L);
+                when(rs.getBigDecimal("amount")).thenReturn(new BigDecimal("100.00"));
+                when(rs.getTimestamp("timestamp")).thenReturn(Timestamp.from(NOW.minus(Duration.ofMinutes(10 * i))));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq("COMPLETED"), any(Timestamp.class));
+
+        velocityLimitService.start();
+
+        assertThrows(VelocityLimitExceededException.class, () -> velocityLimitService.reserve(1L, BigDecimal.ONE));
+    }
+
+    @Test
+    void reserve_Disabled_ShouldNotLimit() {
+        ReflectionTestUtils.setField(velocityLimitService, "enabled", false);
+        velocityLimitService.start();
+
+        for (int i = 0; i < 10; i++) {
+            velocityLimitService.reserve(1L, new BigDecimal("1000.00"));
+        }
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void reserve_Concurrent_ShouldNotExceedLimit() throws InterruptedException {
+        ReflectionTestUtils.setField(velocityLimitService, "hourlyMaxCount", 100);
+        ReflectionTestUtils.setField(velocityLimitService, "hourlyMaxAmount", BigDecimal.ZERO);
+        ReflectionTestUtils.setField(velocityLimitService, "dailyMaxAmount", BigDecimal.ZERO);
+        velocityLimitService.start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(400);
+        for (int i = 0; i < 400; i++) {
+            executor.execute(() -> {
+                try {
+                    velocityLimitService.reserve(1L, BigDecimal.ONE);
+                    accepted.incrementAndGet();
+                } catch (VelocityLimitExceededException ignored) {
+                    // ожидаемо для переводов сверх лимита
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(100, accepted.get());
+    }
+
+    @Test
+    void sweep_ShouldDropCardsWithoutRecentTransfers() {
+        velocityLimitService.start();
+        velocityLimitService.reserve(1L, BigDecimal.TEN);
+
+        setClock(NOW.plus(Duration.ofHours(25)));
+        velocityLimitService.sweep();
+
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(velocityLimitService, "cards")).isEmpty());
+    }
+
+    @Test
+    void sweep_ConcurrentWithReserve_ShouldKeepReservationInCardWindows() throws Exception {
+        velocityLimitService.start();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (long cardId = 1; cardId <= 200; cardId++) {
+            setClock(NOW);
+            velocityLimitService.reserve(cardId, BigDecimal.ONE);
+            // Окна карты устарели: sweep может удалять их в тот момент, когда reserve учитывает новый перевод
+            setClock(NOW.plus(Duration.ofHours(25)));
+            long card = cardId;
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> reserve = executor.submit(() -> {
+                start.await();
+                velocityLimitService.reserve(card, BigDecimal.ONE);
+                return null;
+            });
+            Future<?> sweep = executor.submit(() -> {
+                start.await();
+                velocityLimitService.sweep();
+                return null;
+            });
+            start.countDown();
+            reserve.get(5, TimeUnit.SECONDS);
+            sweep.get(5, TimeUnit.SECONDS);
+
+            // Перевод учтен в окнах карты из cards: из трех переводов в час остается два
+            velocityLimitService.reserve(card, BigDecimal.ONE);
+            velocityLimitService.reserve(card, BigDecimal.ONE);
+            assertThrows(VelocityLimitExceededException.class, () -> velocityLimitService.reserve(card, BigDecimal.ONE));
+        }
+        executor.shutdown();
+    }
+
+    private void setClock(Instant instant) {
+        ReflectionTestUtils.setField(velocityLimitService, "clock", Clock.fixed(instant, ZoneId.systemDefault()));
+    }
+}